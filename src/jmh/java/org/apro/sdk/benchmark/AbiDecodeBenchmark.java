@@ -0,0 +1,73 @@
+package org.apro.sdk.benchmark;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.abi.AgentHeaderView;
+import org.apro.sdk.abi.AgentSettingsView;
+import org.apro.sdk.params.AgentHeader;
+import org.apro.sdk.params.AgentSettingsStruct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AbiDecodeBenchmark {
+
+  @Param({"1", "5", "32"})
+  private int signerCount;
+
+  private byte[] agentHeaderBytes;
+  private byte[] agentSettingsBytes;
+
+  @Setup
+  public void setup() {
+    agentHeaderBytes = TestFixtures.agentHeaderBytes();
+    agentSettingsBytes = TestFixtures.agentSettingsBytes(signerCount);
+  }
+
+  @Benchmark
+  public AgentHeader agentHeaderBuild() {
+    return AgentHeader.build(agentHeaderBytes);
+  }
+
+  @Benchmark
+  public AgentSettingsStruct agentSettingsStructBuild() {
+    return AgentSettingsStruct.build(agentSettingsBytes);
+  }
+
+  /**
+   * the one field an indexer looks up, through the builder
+   */
+  @Benchmark
+  public String sourceAgentIdBuild() {
+    return AgentSettingsStruct.build(agentSettingsBytes).getAgentConfig().getSourceAgentId();
+  }
+
+  @Benchmark
+  public String sourceAgentIdView() {
+    return AgentSettingsView.wrap(agentSettingsBytes).getAgentConfig().getSourceAgentId();
+  }
+
+  @Benchmark
+  public String[] signersView() {
+    return AgentSettingsView.wrap(agentSettingsBytes).getSigners();
+  }
+
+  @Benchmark
+  public String agentHeaderSourceAgentIdView() {
+    return AgentHeaderView.wrap(agentHeaderBytes).getSourceAgentId();
+  }
+
+  @Benchmark
+  public AgentSettingsStruct agentSettingsViewToStruct() {
+    return AgentSettingsView.wrap(agentSettingsBytes).toAgentSettingsStruct();
+  }
+}
@@ -0,0 +1,66 @@
+package org.apro.sdk.benchmark;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.config.Constants;
+import org.apro.sdk.params.AgentSettingsParams;
+import org.apro.sdk.params.VerifyParams;
+import org.apro.sdk.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.crypto.Sign;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AbiEncodeBenchmark {
+
+  @Param({"1", "5", "32"})
+  private int signatureCount;
+
+  @Param({"256"})
+  private int dataSize;
+
+  private String data;
+  private List<Sign.SignatureData> signatures;
+
+  @Setup
+  public void setup() {
+    data = TestFixtures.data(dataSize);
+    signatures = TestFixtures.signatures(data, signatureCount);
+  }
+
+  @Benchmark
+  public String verifyCalldata() {
+    VerifyParams verifyParams = TestFixtures.verifyParams(data, signatures).build();
+    Function verify = new Function(Constants.VERIFY_FUNCTION_NAME,
+        verifyParams.toInputParameters(),
+        Collections.emptyList());
+    return FunctionEncoder.encode(verify);
+  }
+
+  @Benchmark
+  public String encodeSignaturesToString() {
+    return Utils.encodeSignaturesToString(signatures);
+  }
+
+  @Benchmark
+  public String registerAgentCalldata() {
+    AgentSettingsParams params = TestFixtures.agentSettingsParams(signatureCount);
+    Function registerAgent = new Function(Constants.REGISTER_AGENT_FUNCTION_NAME,
+        params.toInputParameters(),
+        Collections.emptyList());
+    return FunctionEncoder.encode(registerAgent);
+  }
+}
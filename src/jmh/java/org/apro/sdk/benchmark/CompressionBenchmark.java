@@ -0,0 +1,66 @@
+package org.apro.sdk.benchmark;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.codec.CodecRegistry;
+import org.apro.sdk.codec.CompressedPayload;
+import org.apro.sdk.codec.CompressionConfig;
+import org.apro.sdk.codec.PayloadCodec;
+import org.apro.sdk.codec.PayloadCompressor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the codecs on agent messages. the compressed sizes are printed at setup,
+ * each saved calldata byte saves 16 gas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompressionBenchmark {
+
+  @Param({"lz4", "deflate", "gzip"})
+  private String codecName;
+
+  @Param({"1024", "16384", "131072"})
+  private int messageSize;
+
+  private PayloadCodec codec;
+  private PayloadCompressor compressor;
+  private byte[] message;
+  private byte[] encoded;
+
+  @Setup
+  public void setup() {
+    codec = CodecRegistry.defaults().get(codecName);
+    compressor = new PayloadCompressor(CodecRegistry.defaults(), CompressionConfig.builder().build());
+    message = TestFixtures.agentMessage(messageSize);
+    encoded = codec.encode(message);
+    System.out.printf("%n%s %d bytes -> %d bytes%n", codecName, message.length, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return codec.encode(message);
+  }
+
+  @Benchmark
+  public byte[] decode() {
+    return codec.decode(encoded);
+  }
+
+  /**
+   * every candidate of the default config, independent of codecName
+   */
+  @Benchmark
+  public CompressedPayload compressSelectingCodec() {
+    return compressor.compress(message);
+  }
+}
@@ -0,0 +1,50 @@
+package org.apro.sdk.benchmark;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.merkle.MerkleTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.web3j.crypto.Hash;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * building the merkle tree of a batch, per batch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MerkleTreeBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  public int leafCount;
+
+  private byte[] dataHashes;
+  private MerkleTree tree;
+
+  @Setup
+  public void setup() {
+    dataHashes = new byte[leafCount * MerkleTree.HASH_LENGTH];
+    for (int i = 0; i < leafCount; i++) {
+      byte[] dataHash = Hash.sha3(TestFixtures.data(16 + i % 64).getBytes());
+      System.arraycopy(dataHash, 0, dataHashes, i * MerkleTree.HASH_LENGTH, MerkleTree.HASH_LENGTH);
+    }
+    tree = MerkleTree.build(dataHashes);
+  }
+
+  @Benchmark
+  public MerkleTree build() {
+    return MerkleTree.build(dataHashes);
+  }
+
+  @Benchmark
+  public byte[] encodeProof() {
+    return tree.encodeProof(leafCount / 3);
+  }
+}
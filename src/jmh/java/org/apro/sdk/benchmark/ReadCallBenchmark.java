@@ -0,0 +1,70 @@
+package org.apro.sdk.benchmark;
+
+import org.apro.sdk.config.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Utf8String;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the read call encoding and the AgentRegistered topic, rebuilt per call against the Constants registry
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReadCallBenchmark {
+
+  private static final String SOURCE_AGENT_ID = "2c167873-a6fc-4cee-b505-6c1ae2cd4763";
+
+  @Benchmark
+  public String managerCalldataFunction() {
+    Function function = new Function(
+        Constants.AGENT_MANAGER_FUNCTION_NAME,
+        Arrays.asList(),
+        Collections.singletonList(new TypeReference<Address>() {}));
+    return FunctionEncoder.encode(function);
+  }
+
+  @Benchmark
+  public String managerCalldataSelector() {
+    return Constants.AGENT_MANAGER_SELECTOR;
+  }
+
+  @Benchmark
+  public String isValidSourceAgentIdCalldataFunction() {
+    Function function = new Function(
+        Constants.IS_VALID_SOURCE_AGENT_ID_FUNCTION_NAME,
+        Arrays.asList(new Utf8String(SOURCE_AGENT_ID)),
+        Collections.singletonList(new TypeReference<Bool>() {}));
+    return FunctionEncoder.encode(function);
+  }
+
+  @Benchmark
+  public String isValidSourceAgentIdCalldataSelector() {
+    return Constants.IS_VALID_SOURCE_AGENT_ID_SELECTOR
+        + FunctionEncoder.encodeConstructor(Collections.singletonList(new Utf8String(SOURCE_AGENT_ID)));
+  }
+
+  @Benchmark
+  public String agentRegisteredTopicEncode() {
+    return EventEncoder.encode(Constants.AgentRegistered);
+  }
+
+  @Benchmark
+  public String agentRegisteredTopicConstant() {
+    return Constants.AGENT_REGISTERED_TOPIC;
+  }
+}
@@ -0,0 +1,59 @@
+package org.apro.sdk.benchmark;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.sign.TxSignerCache;
+import org.apro.sdk.util.ChainUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignBenchmark {
+
+  private RawTransaction rawTransaction;
+  private Credentials credentials;
+  private String privateKey;
+  private TxSignerCache signers;
+
+  @Setup
+  public void setup() {
+    credentials = TestFixtures.credentials(0);
+    privateKey = Numeric.toHexStringNoPrefixZeroPadded(credentials.getEcKeyPair().getPrivateKey(), 64);
+    signers = new TxSignerCache(TestFixtures.CHAIN_ID);
+    rawTransaction = RawTransaction.createTransaction(BigInteger.ONE, BigInteger.valueOf(5000000000L),
+        BigInteger.valueOf(10000000), TestFixtures.AGENT, BigInteger.ZERO, "0x" + TestFixtures.data(512));
+  }
+
+  @Benchmark
+  public byte[] signTxWithCredentials() {
+    return ChainUtil.signTx(rawTransaction, TestFixtures.CHAIN_ID, credentials);
+  }
+
+  /**
+   * derives the credentials on every call
+   */
+  @Benchmark
+  public byte[] signTxWithPrivateKey() {
+    return ChainUtil.signTx(rawTransaction, TestFixtures.CHAIN_ID, privateKey);
+  }
+
+  /**
+   * the credentials derived once by the caller-owned cache
+   */
+  @Benchmark
+  public byte[] signTxWithSignerCache() {
+    return signers.get(privateKey).sign(rawTransaction);
+  }
+}
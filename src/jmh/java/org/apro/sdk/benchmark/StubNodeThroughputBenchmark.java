@@ -0,0 +1,144 @@
+package org.apro.sdk.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apro.sdk.AiAgentCli;
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.config.ChainConfig;
+import org.apro.sdk.config.Constants;
+import org.apro.sdk.config.ExecutorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Utf8String;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * the register lookups of AiAgentCli against a local stub node answering after NODE_LATENCY_MILLIS,
+ * CONCURRENT_CALLS in flight at a time. with the metadata cache each lookup is one eth_call,
+ * and the throughput scales with maxConcurrentRequests until the node pool is the limit.
+ * the VIRTUAL_THREAD runs fail on a JDK before 21
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StubNodeThroughputBenchmark {
+
+  private static final int CONCURRENT_CALLS = 256;
+  private static final long NODE_LATENCY_MILLIS = 2;
+  private static final String PROXY = "0x" + "11".repeat(20);
+  private static final String MANAGER = "0x" + "22".repeat(20);
+  private static final String SOURCE_AGENT_ID = "2c167873-a6fc-4cee-b505-6c1ae2cd4763";
+
+  private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+  // the requests in flight on the endpoint, CONCURRENT_CALLS is the most the benchmark sends
+  @Param({"16", "64", "256"})
+  public int maxConcurrentRequests;
+
+  @Param({"WEB3J", "VIRTUAL_THREAD"})
+  public ExecutorType executorType;
+
+  @Param({"0", "300"})
+  public long metadataCacheTtlSeconds;
+
+  private HttpServer node;
+  private ExecutorService nodePool;
+  private AiAgentCli cli;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    nodePool = Executors.newFixedThreadPool(2 * CONCURRENT_CALLS);
+    node = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENT_CALLS);
+    node.setExecutor(nodePool);
+    node.createContext("/", exchange -> {
+      String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+      try {
+        Thread.sleep(NODE_LATENCY_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] response = respond(body).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, response.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(response);
+      }
+    });
+    node.start();
+
+    ChainConfig config = new ChainConfig("http://127.0.0.1:" + node.getAddress().getPort(),
+        TestFixtures.CHAIN_ID, PROXY);
+    config.setMaxConcurrentRequests(maxConcurrentRequests);
+    config.setConnectionPoolSize(maxConcurrentRequests);
+    config.setExecutorType(executorType);
+    config.setMetadataCacheTtlSeconds(metadataCacheTtlSeconds);
+    cli = new AiAgentCli(config);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cli.close();
+    node.stop(0);
+    nodePool.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENT_CALLS)
+  public void isValidSourceAgentIdAsync() {
+    List<CompletableFuture<Boolean>> futures = new ArrayList<>(CONCURRENT_CALLS);
+    for (int i = 0; i < CONCURRENT_CALLS; i++) {
+      futures.add(cli.isValidSourceAgentIdAsync(PROXY, SOURCE_AGENT_ID));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENT_CALLS)
+  public void getAgentVersionAsync() {
+    List<CompletableFuture<String>> futures = new ArrayList<>(CONCURRENT_CALLS);
+    for (int i = 0; i < CONCURRENT_CALLS; i++) {
+      futures.add(cli.getAgentVersionAsync(PROXY));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+  }
+
+  /**
+   * the eth_call results by selector: the manager of the proxy, the version of the manager, true otherwise
+   */
+  private static String respond(String body) {
+    Matcher id = ID.matcher(body);
+    String result;
+    if (body.contains(Constants.AGENT_MANAGER_SELECTOR)) {
+      result = FunctionEncoder.encodeConstructor(Collections.singletonList(new Address(MANAGER)));
+    } else if (body.contains(Constants.AGENT_VERSION_SELECTOR)) {
+      result = FunctionEncoder.encodeConstructor(Collections.singletonList(new Utf8String("1.0")));
+    } else {
+      result = FunctionEncoder.encodeConstructor(Collections.singletonList(new Bool(true)));
+    }
+    return "{\"jsonrpc\":\"2.0\",\"id\":" + (id.find() ? id.group(1) : "0") + ",\"result\":\"0x" + result + "\"}";
+  }
+}
@@ -0,0 +1,76 @@
+package org.apro.sdk.benchmark;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.sign.TxSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * signing a batch of transactions of one key, per batch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TxSignerBenchmark {
+
+  @Param({"100", "1000"})
+  public int batchSize;
+
+  private List<RawTransaction> rawTransactions;
+  private String privateKey;
+  private TxSigner signer;
+
+  @Setup
+  public void setup() {
+    Credentials credentials = TestFixtures.credentials(0);
+    privateKey = Numeric.toHexStringNoPrefixZeroPadded(credentials.getEcKeyPair().getPrivateKey(), 64);
+    signer = new TxSigner(credentials, TestFixtures.CHAIN_ID);
+    rawTransactions = new ArrayList<>(batchSize);
+    String data = "0x" + TestFixtures.data(512);
+    for (int i = 0; i < batchSize; i++) {
+      rawTransactions.add(RawTransaction.createTransaction(BigInteger.valueOf(i), BigInteger.valueOf(5000000000L),
+          BigInteger.valueOf(10000000), TestFixtures.AGENT, BigInteger.ZERO, data));
+    }
+  }
+
+  /**
+   * the baseline, Credentials.create for every transaction
+   */
+  @Benchmark
+  public List<byte[]> signCreatingCredentials() {
+    List<byte[]> signed = new ArrayList<>(rawTransactions.size());
+    for (RawTransaction tx : rawTransactions) {
+      signed.add(TransactionEncoder.signMessage(tx, TestFixtures.CHAIN_ID, Credentials.create(privateKey)));
+    }
+    return signed;
+  }
+
+  @Benchmark
+  public List<byte[]> signSequential() {
+    List<byte[]> signed = new ArrayList<>(rawTransactions.size());
+    for (RawTransaction tx : rawTransactions) {
+      signed.add(signer.sign(tx));
+    }
+    return signed;
+  }
+
+  @Benchmark
+  public List<byte[]> signAll() {
+    return signer.signAll(rawTransactions);
+  }
+}
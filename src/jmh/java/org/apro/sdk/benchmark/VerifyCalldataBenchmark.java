@@ -0,0 +1,72 @@
+package org.apro.sdk.benchmark;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.abi.VerifyCalldataEncoder;
+import org.apro.sdk.config.Constants;
+import org.apro.sdk.params.VerifyParams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.crypto.Sign;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FunctionEncoder against VerifyCalldataEncoder for the verify calldata.
+ * setup fails if the two encodings differ
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VerifyCalldataBenchmark {
+
+  @Param({"1", "5", "32"})
+  private int signatureCount;
+
+  @Param({"256", "16384"})
+  private int dataSize;
+
+  private String data;
+  private List<Sign.SignatureData> signatures;
+  private VerifyCalldataEncoder encoder;
+
+  @Setup
+  public void setup() {
+    data = TestFixtures.data(dataSize);
+    signatures = TestFixtures.signatures(data, signatureCount);
+    encoder = new VerifyCalldataEncoder();
+    String expected = functionEncoder();
+    String actual = VerifyCalldataEncoder.encodeHex(TestFixtures.verifyParams(data, signatures).build());
+    if (!expected.equals(actual)) {
+      throw new IllegalStateException("VerifyCalldataEncoder differs from FunctionEncoder");
+    }
+  }
+
+  @Benchmark
+  public String functionEncoder() {
+    VerifyParams verifyParams = TestFixtures.verifyParams(data, signatures).build();
+    Function verify = new Function(Constants.VERIFY_FUNCTION_NAME,
+        verifyParams.toInputParameters(),
+        Collections.emptyList());
+    return FunctionEncoder.encode(verify);
+  }
+
+  @Benchmark
+  public int directEncoder() {
+    return encoder.encode(TestFixtures.verifyParams(data, signatures).build());
+  }
+
+  @Benchmark
+  public String directEncoderHex() {
+    return VerifyCalldataEncoder.encodeHex(TestFixtures.verifyParams(data, signatures).build());
+  }
+}
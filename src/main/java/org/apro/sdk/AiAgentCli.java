@@ -1,38 +1,86 @@
 package org.apro.sdk;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.AccessLevel;
 import lombok.Getter;
+import org.apro.sdk.abi.VerifyCalldataEncoder;
 import org.apro.sdk.config.ChainConfig;
 import org.apro.sdk.config.Constants;
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
 import org.apro.sdk.params.AgentSettingsParams;
 import org.apro.sdk.params.VerifyParams;
+import org.apro.sdk.tx.CalldataGasModel;
+import org.apro.sdk.tx.FeeOracle;
+import org.apro.sdk.tx.Fees;
 import org.apro.sdk.util.ChainUtil;
-import org.web3j.abi.EventEncoder;
 import org.web3j.abi.FunctionEncoder;
-import org.web3j.abi.TypeReference;
 import org.web3j.abi.datatypes.*;
 import org.web3j.crypto.*;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
 import org.web3j.protocol.core.methods.response.*;
-import org.web3j.protocol.http.HttpService;
 import org.web3j.utils.Numeric;
 
 import java.io.IOException;
 import java.math.BigInteger;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.apro.sdk.config.Constants.*;
 
 @Getter
-public class AiAgentCli {
+public class AiAgentCli implements AutoCloseable {
 
     private final ChainConfig config;
     private final Web3j web3j;
+    // the transport of web3j, e.g. for ChainSubscriptions
+    private final Web3jService web3jService;
+    // the executor of the async requests, null uses web3j's own async executor
+    private final Executor executor;
+    // the executor created from config.executorType, shut down on close
+    @Getter(AccessLevel.NONE)
+    private final ExecutorService ownedExecutor;
+
+    // per-proxy metadata, keyed by the proxy address. the futures are cached so that
+    // concurrent lookups of a cold proxy share a single request
+    @Getter(AccessLevel.NONE)
+    private final Cache<String, CompletableFuture<String>> factoryCache;
+    @Getter(AccessLevel.NONE)
+    private final Cache<String, CompletableFuture<String>> managerCache;
+    @Getter(AccessLevel.NONE)
+    private final Cache<String, CompletableFuture<String>> versionCache;
 
     public AiAgentCli(ChainConfig config) {
+        this(config, ChainUtil.buildWeb3jService(config));
+    }
+
+    /**
+     * a client over a transport built by the caller, the transport settings of the config are not used
+     */
+    public AiAgentCli(ChainConfig config, Web3jService service) {
         this.config = config;
-        this.web3j = Web3j.build(new HttpService(config.getServerUrl()));
+        this.web3jService = service;
+        this.web3j = Web3j.build(service);
+        this.ownedExecutor = config.getExecutor() == null ? ChainUtil.buildExecutor(config.getExecutorType()) : null;
+        this.executor = config.getExecutor() != null ? config.getExecutor() : this.ownedExecutor;
+        this.factoryCache = buildMetadataCache(config.getMetadataCacheTtlSeconds());
+        this.managerCache = buildMetadataCache(config.getMetadataCacheTtlSeconds());
+        this.versionCache = buildMetadataCache(config.getMetadataCacheTtlSeconds());
     }
 
     public RawTransaction buildRegisterAgentTx(
@@ -45,24 +93,142 @@ public class AiAgentCli {
         if (!checkTxBaseParams(nonce, gasPrice, gasLimit)) {
             throw new IllegalArgumentException("nonce|gasPrice|gasLimit must be less than zero");
         }
-        String version = this.getAgentVersion(to);
+        return RawTransaction.createTransaction(nonce, gasPrice, gasLimit,
+                to, BigInteger.ZERO, registerAgentCalldata(to, agentSettingsParams));
+    }
+
+    /**
+     * the EIP-1559 variant of buildRegisterAgentTx
+     */
+    public RawTransaction buildRegisterAgentTx1559(
+            BigInteger nonce,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            BigInteger gasLimit,
+            String to,
+            AgentSettingsParams agentSettingsParams
+    ) throws IOException {
+        if (!checkTxBaseParams(nonce, maxFeePerGas, gasLimit) || maxPriorityFeePerGas.signum() < 0) {
+            throw new IllegalArgumentException("nonce|maxPriorityFeePerGas|maxFeePerGas|gasLimit must be less than zero");
+        }
+        return RawTransaction.createTransaction(config.getChainId(), nonce, gasLimit, to, BigInteger.ZERO,
+                registerAgentCalldata(to, agentSettingsParams), maxPriorityFeePerGas, maxFeePerGas);
+    }
+
+    /**
+     * build the register transaction with the fees of the oracle and the gas limit of the model.
+     * an EIP-1559 transaction when the chain serves eth_feeHistory, a legacy one otherwise
+     */
+    public RawTransaction buildRegisterAgentTx(
+            BigInteger nonce,
+            String to,
+            AgentSettingsParams agentSettingsParams,
+            FeeOracle feeOracle,
+            CalldataGasModel gasModel
+    ) throws IOException {
+        String calldata = registerAgentCalldata(to, agentSettingsParams);
+        return createTransaction(nonce, gasModel.estimate(calldata), to, calldata, feeOracle.getFees());
+    }
+
+    private String registerAgentCalldata(String to, AgentSettingsParams agentSettingsParams) throws IOException {
+        // validates once and fills in the generated sourceAgentId, so that it is checked on chain
+        // together with the version lookup. the version is cached per proxy
+        agentSettingsParams.validate();
+        CompletableFuture<String> versionFuture = this.getAgentVersionAsync(to);
+        CompletableFuture<Boolean> validFuture =
+                this.isValidSourceAgentIdAsync(to, agentSettingsParams.getSourceAgentId().getValue());
+
+        String version = await(versionFuture);
         if (agentSettingsParams.getVersion() == null) {
             agentSettingsParams.setVersion(new Utf8String(version));
         } else if (!version.equals(agentSettingsParams.getVersion().toString())){
             throw new IllegalArgumentException("Agent version is not the same as the proxy agent's version");
         }
-
-        List<Type> inputParameters = agentSettingsParams.toInputParameters();
-        if (!isValidSourceAgentId(to, agentSettingsParams.getSourceAgentId().getValue())) {
+        if (!await(validFuture)) {
             throw new IllegalArgumentException("Agent source id is already existed");
         }
+        List<Type> inputParameters = agentSettingsParams.buildInputParameters();
 
+        long start = Metrics.start();
         Function registerAgent = new Function(
             Constants.REGISTER_AGENT_FUNCTION_NAME,
             inputParameters,
             Collections.emptyList());
-        return RawTransaction.createTransaction(nonce, gasPrice, gasLimit,
-                to, BigInteger.ZERO, FunctionEncoder.encode(registerAgent));
+        String calldata = FunctionEncoder.encode(registerAgent);
+        Metrics.timing(Instrumentation.ENCODE_REGISTER_AGENT, start, true);
+        return calldata;
+    }
+
+    /**
+     * build the register transactions of many agents, with sequential nonces from startNonce.
+     * the params are copied, the version and the generated ids are filled in on the copies and the
+     * caller's params are left unchanged. the copies are validated once in parallel, a params
+     * repeating the source agent id of an earlier one is rejected, and the source agent ids are
+     * checked on chain with batched isValidSourceAgentId calls. the agent version is looked up once
+     *
+     * @return the raw transactions in the order of the params, the i-th one for the i-th params with
+     * nonce startNonce + i, ready to sign
+     */
+    public List<RawTransaction> buildRegisterAgentTxs(
+            BigInteger startNonce,
+            BigInteger gasPrice,
+            BigInteger gasLimit,
+            String to,
+            List<AgentSettingsParams> agentSettingsParamsList
+    ) throws IOException {
+        if (!checkTxBaseParams(startNonce, gasPrice, gasLimit)) {
+            throw new IllegalArgumentException("nonce|gasPrice|gasLimit must be less than zero");
+        }
+        String version = this.getAgentVersion(to);
+        Utf8String proxyVersion = new Utf8String(version);
+        List<AgentSettingsParams> copies = new ArrayList<>(agentSettingsParamsList.size());
+        for (AgentSettingsParams agentSettingsParams : agentSettingsParamsList) {
+            if (agentSettingsParams.getVersion() != null
+                    && !version.equals(agentSettingsParams.getVersion().toString())) {
+                throw new IllegalArgumentException("Agent version is not the same as the proxy agent's version");
+            }
+            AgentSettingsParams copy = agentSettingsParams.toBuilder().build();
+            if (copy.getVersion() == null) {
+                copy.setVersion(proxyVersion);
+            }
+            copies.add(copy);
+        }
+        // validates each copy once and fills in the generated ids checked on chain below
+        List<List<Type>> inputParameters = copies.parallelStream()
+                .map(AgentSettingsParams::toInputParameters)
+                .collect(Collectors.toList());
+
+        Set<String> sourceAgentIds = new LinkedHashSet<>();
+        for (AgentSettingsParams copy : copies) {
+            // a second registration of the same id would revert on chain
+            if (!sourceAgentIds.add(copy.getSourceAgentId().getValue())) {
+                throw new IllegalArgumentException("Agent source id is repeated: " + copy.getSourceAgentId().getValue());
+            }
+        }
+        CallBatch validBatch = this.batch();
+        for (String sourceAgentId : sourceAgentIds) {
+            validBatch.isValidSourceAgentId(to, sourceAgentId);
+        }
+        List<Object> valid = validBatch.execute();
+        int index = 0;
+        for (String sourceAgentId : sourceAgentIds) {
+            if (!Boolean.TRUE.equals(valid.get(index++))) {
+                throw new IllegalArgumentException("Agent source id is already existed: " + sourceAgentId);
+            }
+        }
+
+        List<String> calldata = inputParameters.parallelStream()
+                .map(parameters -> FunctionEncoder.encode(new Function(
+                        Constants.REGISTER_AGENT_FUNCTION_NAME,
+                        parameters,
+                        Collections.emptyList())))
+                .collect(Collectors.toList());
+        List<RawTransaction> txs = new ArrayList<>(calldata.size());
+        for (int i = 0; i < calldata.size(); i++) {
+            txs.add(RawTransaction.createTransaction(startNonce.add(BigInteger.valueOf(i)), gasPrice, gasLimit,
+                    to, BigInteger.ZERO, calldata.get(i)));
+        }
+        return txs;
     }
 
     public RawTransaction buildVerifyTx(
@@ -75,11 +241,51 @@ public class AiAgentCli {
         if (!checkTxBaseParams(nonce, gasPrice, gasLimit)) {
             throw new IllegalArgumentException("nonce|gasPrice|gasLimit must be less than zero");
         }
-        Function verify = new Function(Constants.VERIFY_FUNCTION_NAME,
-                verifyParams.toInputParameters(),
-                Collections.emptyList());
         return RawTransaction.createTransaction(nonce, gasPrice, gasLimit,
-                to, BigInteger.ZERO, FunctionEncoder.encode(verify));
+                to, BigInteger.ZERO, VerifyCalldataEncoder.encodeHex(verifyParams));
+    }
+
+    /**
+     * the EIP-1559 variant of buildVerifyTx
+     */
+    public RawTransaction buildVerifyTx1559(
+            BigInteger nonce,
+            BigInteger maxPriorityFeePerGas,
+            BigInteger maxFeePerGas,
+            BigInteger gasLimit,
+            String to,
+            VerifyParams verifyParams
+    ) {
+        if (!checkTxBaseParams(nonce, maxFeePerGas, gasLimit) || maxPriorityFeePerGas.signum() < 0) {
+            throw new IllegalArgumentException("nonce|maxPriorityFeePerGas|maxFeePerGas|gasLimit must be less than zero");
+        }
+        return RawTransaction.createTransaction(config.getChainId(), nonce, gasLimit, to, BigInteger.ZERO,
+                VerifyCalldataEncoder.encodeHex(verifyParams), maxPriorityFeePerGas, maxFeePerGas);
+    }
+
+    /**
+     * build the verify transaction with the fees of the oracle and the gas limit of the model,
+     * which needs no request once the oracle has refreshed.
+     * an EIP-1559 transaction when the chain serves eth_feeHistory, a legacy one otherwise
+     */
+    public RawTransaction buildVerifyTx(
+            BigInteger nonce,
+            String to,
+            VerifyParams verifyParams,
+            FeeOracle feeOracle,
+            CalldataGasModel gasModel
+    ) throws IOException {
+        String calldata = VerifyCalldataEncoder.encodeHex(verifyParams);
+        return createTransaction(nonce, gasModel.estimate(calldata), to, calldata, feeOracle.getFees());
+    }
+
+    private RawTransaction createTransaction(BigInteger nonce, BigInteger gasLimit, String to, String calldata,
+            Fees fees) {
+        if (fees.isEip1559()) {
+            return RawTransaction.createTransaction(config.getChainId(), nonce, gasLimit, to, BigInteger.ZERO,
+                    calldata, fees.getMaxPriorityFeePerGas(), fees.getMaxFeePerGas());
+        }
+        return RawTransaction.createTransaction(nonce, fees.getGasPrice(), gasLimit, to, BigInteger.ZERO, calldata);
     }
 
     /**
@@ -90,75 +296,234 @@ public class AiAgentCli {
      * @throws IOException
      */
     public String getAgentAddress(String txHash) throws IOException {
-        EthGetTransactionReceipt transactionReceipt =
-                this.web3j.ethGetTransactionReceipt(txHash).send();
+        long start = Metrics.start();
+        boolean success = false;
+        try {
+            String agent = agentAddressOrPending(this.web3j.ethGetTransactionReceipt(txHash).send());
+            success = true;
+            return agent;
+        } finally {
+            Metrics.timing(Instrumentation.GET_AGENT_ADDRESS, start, success);
+        }
+    }
+
+    public CompletableFuture<String> getAgentAddressAsync(String txHash) {
+        long start = Metrics.start();
+        return ChainUtil.sendAsync(this.web3j.ethGetTransactionReceipt(txHash), this.executor)
+            .thenApply(AiAgentCli::agentAddressOrPending)
+            .whenComplete((agent, e) -> Metrics.timing(Instrumentation.GET_AGENT_ADDRESS, start, e == null));
+    }
+
+    private static String agentAddressOrPending(EthGetTransactionReceipt transactionReceipt) {
         if (transactionReceipt.getTransactionReceipt().isPresent()) {
-            List<Log> logs = transactionReceipt.getTransactionReceipt().get().getLogs();
-            for (Log log : logs) {
-                if (log.getTopics().contains(EventEncoder.encode(AgentRegistered))) {
-                    return Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(log.getTopics().get(1)), 40);
-                }
+            String agent = agentAddressOf(transactionReceipt.getTransactionReceipt().get());
+            if (agent != null) {
+                return agent;
             }
         }
         return "Transaction not found or still pending.";
     }
 
-    public String converter(String converterAddress, String data) throws IOException {
-        Function function = new Function(
-            CONVERTER_FUNCTION_NAME,
-            Arrays.asList(new DynamicBytes(Numeric.hexStringToByteArray(data))),
-            Collections.singletonList(new TypeReference<DynamicBytes>() {})
-        );
+    /**
+     * get the agent address from the AgentRegistered log of the receipt
+     *
+     * @return the agent address, or null if the receipt has no AgentRegistered log
+     */
+    public static String agentAddressOf(TransactionReceipt receipt) {
+        for (Log log : receipt.getLogs()) {
+            if (log.getTopics().contains(AGENT_REGISTERED_TOPIC)) {
+                return Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(log.getTopics().get(1)), 40);
+            }
+        }
+        return null;
+    }
 
-        List<Type> decoded = ChainUtil.getResult(this.web3j, converterAddress, function);
+    public String converter(String converterAddress, String data) throws IOException {
+        List<Type> decoded = ChainUtil.getResult(this.web3j, converterAddress, converterCalldata(data), DYNAMIC_BYTES_OUTPUT);
         DynamicBytes result = (DynamicBytes) decoded.get(0);
         return Numeric.toHexString(result.getValue());
     }
 
+    public CompletableFuture<String> converterAsync(String converterAddress, String data) {
+        return ChainUtil.getResultAsync(this.web3j, converterAddress, converterCalldata(data), DYNAMIC_BYTES_OUTPUT, this.executor)
+            .thenApply(decoded -> Numeric.toHexString(((DynamicBytes) decoded.get(0)).getValue()));
+    }
+
     public String getFactory(String proxy) throws IOException {
-        Function function = new Function(
-            AGENT_FACTORY_FUNCTION_NAME,
-            Arrays.asList(),
-            Collections.singletonList(new TypeReference<Address>() {})
-        );
-        List<Type> decoded = ChainUtil.getResult(this.web3j, proxy, function);
+        return cached(factoryCache, proxy, () -> fetchFactory(proxy));
+    }
+
+    public CompletableFuture<String> getFactoryAsync(String proxy) {
+        return cachedAsync(factoryCache, proxy, () ->
+            ChainUtil.getResultAsync(this.web3j, proxy, AGENT_FACTORY_SELECTOR, ADDRESS_OUTPUT, this.executor)
+                .thenApply(decoded -> ((Address) decoded.get(0)).getValue()));
+    }
+
+    public String getManager(String proxy) throws IOException {
+        return cached(managerCache, proxy, () -> fetchManager(proxy));
+    }
+
+    public CompletableFuture<String> getManagerAsync(String proxy) {
+        return cachedAsync(managerCache, proxy, () ->
+            ChainUtil.getResultAsync(this.web3j, proxy, AGENT_MANAGER_SELECTOR, ADDRESS_OUTPUT, this.executor)
+                .thenApply(decoded -> ((Address) decoded.get(0)).getValue()));
+    }
+
+    public String getAgentVersion(String proxy) throws IOException {
+        return cached(versionCache, proxy, () -> fetchAgentVersion(proxy));
+    }
+
+    public CompletableFuture<String> getAgentVersionAsync(String proxy) {
+        return cachedAsync(versionCache, proxy, () ->
+            getManagerAsync(proxy)
+                .thenCompose(manager ->
+                    ChainUtil.getResultAsync(this.web3j, manager, AGENT_VERSION_SELECTOR, UTF8_STRING_OUTPUT, this.executor))
+                .thenApply(decoded -> ((Utf8String) decoded.get(0)).getValue()));
+    }
+
+    public boolean isValidSourceAgentId(String proxy, String agentId) throws IOException {
+        String manager = getManager(proxy);
+        List<Type> decoded = ChainUtil.getResult(this.web3j, manager, isValidSourceAgentIdCalldata(agentId),
+            BOOL_OUTPUT);
+        Bool result = (Bool) decoded.get(0);
+        return result.getValue();
+    }
+
+    public CompletableFuture<Boolean> isValidSourceAgentIdAsync(String proxy, String agentId) {
+        return getManagerAsync(proxy)
+            .thenCompose(manager -> ChainUtil.getResultAsync(
+                this.web3j, manager, isValidSourceAgentIdCalldata(agentId), BOOL_OUTPUT, this.executor))
+            .thenApply(decoded -> ((Bool) decoded.get(0)).getValue());
+    }
+
+    /**
+     * start a batch of read calls that are sent as JSON-RPC batch requests on execute,
+     * e.g. batch().getManager(proxy).isValidSourceAgentId(proxy, agentId).execute()
+     */
+    public CallBatch batch() {
+        return new CallBatch(this);
+    }
+
+    /**
+     * drop the cached factory, manager and version of the proxy,
+     * e.g. after the proxy has been upgraded
+     *
+     * @param proxy: the proxy address
+     */
+    public void invalidateMetadata(String proxy) {
+        factoryCache.invalidate(proxy);
+        managerCache.invalidate(proxy);
+        versionCache.invalidate(proxy);
+    }
+
+    /**
+     * drop the cached metadata of all proxies
+     */
+    public void invalidateMetadata() {
+        factoryCache.invalidateAll();
+        managerCache.invalidateAll();
+        versionCache.invalidateAll();
+    }
+
+    private String fetchFactory(String proxy) throws IOException {
+        List<Type> decoded = ChainUtil.getResult(this.web3j, proxy, AGENT_FACTORY_SELECTOR, ADDRESS_OUTPUT);
         Address result = (Address) decoded.get(0);
         return result.getValue();
     }
 
-    public String getManager(String proxy) throws IOException {
-        Function function = new Function(
-            AGENT_MANAGER_FUNCTION_NAME,
-            Arrays.asList(),
-            Collections.singletonList(new TypeReference<Address>() {})
-        );
-        List<Type> decoded = ChainUtil.getResult(this.web3j, proxy,function);
+    private String fetchManager(String proxy) throws IOException {
+        List<Type> decoded = ChainUtil.getResult(this.web3j, proxy, AGENT_MANAGER_SELECTOR, ADDRESS_OUTPUT);
         Address result = (Address) decoded.get(0);
         return result.getValue();
     }
 
-    public String getAgentVersion(String proxy) throws IOException {
-        Function function = new Function(
-            AGENT_VERSION_FUNCTION_NAME,
-            Arrays.asList(),
-            Collections.singletonList(new TypeReference<Utf8String>() {})
-        );
+    private String fetchAgentVersion(String proxy) throws IOException {
         String manager = getManager(proxy);
-        List<Type> decoded = ChainUtil.getResult(this.web3j, manager, function);
+        List<Type> decoded = ChainUtil.getResult(this.web3j, manager, AGENT_VERSION_SELECTOR, UTF8_STRING_OUTPUT);
         Utf8String result = (Utf8String) decoded.get(0);
         return result.getValue();
     }
 
-    public boolean isValidSourceAgentId(String proxy, String agentId) throws IOException {
-        Function function = new Function(
-            IS_VALID_SOURCE_AGENT_ID_FUNCTION_NAME,
-            Arrays.asList(new Utf8String(agentId)),
-            Collections.singletonList(new TypeReference<Bool>() {})
-        );
-        String manager = getManager(proxy);
-        List<Type> decoded = ChainUtil.getResult(this.web3j, manager, function);
-        Bool result = (Bool) decoded.get(0);
-        return result.getValue();
+    static String converterCalldata(String data) {
+        return CONVERTER_SELECTOR + FunctionEncoder.encodeConstructor(
+            Collections.singletonList(new DynamicBytes(Numeric.hexStringToByteArray(data))));
+    }
+
+    static String isValidSourceAgentIdCalldata(String agentId) {
+        return IS_VALID_SOURCE_AGENT_ID_SELECTOR + FunctionEncoder.encodeConstructor(
+            Collections.singletonList(new Utf8String(agentId)));
+    }
+
+    /**
+     * shut down the web3j client and the executor created from config.executorType.
+     * an executor passed in through config.executor is left to its owner
+     */
+    @Override
+    public void close() {
+        this.web3j.shutdown();
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+    }
+
+    private static Cache<String, CompletableFuture<String>> buildMetadataCache(long ttlSeconds) {
+        return CacheBuilder.newBuilder()
+            .expireAfterWrite(Math.max(ttlSeconds, 0), TimeUnit.SECONDS)
+            .build();
+    }
+
+    private static String cached(Cache<String, CompletableFuture<String>> cache, String proxy,
+            Callable<String> loader) throws IOException {
+        CompletableFuture<String> future;
+        try {
+            future = cache.get(proxy, () -> CompletableFuture.completedFuture(loader.call()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return await(future);
+    }
+
+    private static CompletableFuture<String> cachedAsync(Cache<String, CompletableFuture<String>> cache,
+            String proxy, Supplier<CompletableFuture<String>> loader) {
+        CompletableFuture<String> loaded;
+        try {
+            loaded = cache.get(proxy, loader::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            return CompletableFuture.failedFuture(e.getCause());
+        }
+        // a failed lookup must not stay cached
+        CompletableFuture<String> future = loaded;
+        future.whenComplete((value, e) -> {
+            if (e != null) {
+                cache.asMap().remove(proxy, future);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * wait for the future, rethrowing the IOException of a failed request as is
+     */
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 
     private boolean checkTxBaseParams(BigInteger nonce, BigInteger gasLimit, BigInteger gasPrice) {
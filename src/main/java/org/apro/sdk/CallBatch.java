@@ -0,0 +1,104 @@
+package org.apro.sdk;
+
+import org.apro.sdk.util.ChainUtil;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apro.sdk.config.Constants.*;
+
+/**
+ * collects the read calls of AiAgentCli and sends them as JSON-RPC batch requests, or as
+ * Multicall3 aggregate3 calls when ChainConfig.multicallAddress is set.
+ * the results of execute are in the order the calls were added, with the same value
+ * types the single-call methods return (String for address, version and converter, Boolean for bool)
+ */
+public class CallBatch {
+
+    private final AiAgentCli cli;
+    private final List<String> to = new ArrayList<>();
+    private final List<String> calldata = new ArrayList<>();
+    private final List<List<TypeReference<Type>>> outputParameters = new ArrayList<>();
+
+    CallBatch(AiAgentCli cli) {
+        this.cli = cli;
+    }
+
+    public CallBatch converter(String converterAddress, String data) {
+        return add(converterAddress, AiAgentCli.converterCalldata(data), DYNAMIC_BYTES_OUTPUT);
+    }
+
+    public CallBatch getFactory(String proxy) {
+        return add(proxy, AGENT_FACTORY_SELECTOR, ADDRESS_OUTPUT);
+    }
+
+    public CallBatch getManager(String proxy) {
+        return add(proxy, AGENT_MANAGER_SELECTOR, ADDRESS_OUTPUT);
+    }
+
+    /**
+     * the manager of the proxy is resolved through the AiAgentCli metadata cache
+     */
+    public CallBatch getAgentVersion(String proxy) throws IOException {
+        return add(cli.getManager(proxy), AGENT_VERSION_SELECTOR, UTF8_STRING_OUTPUT);
+    }
+
+    /**
+     * the manager of the proxy is resolved through the AiAgentCli metadata cache
+     */
+    public CallBatch isValidSourceAgentId(String proxy, String agentId) throws IOException {
+        return add(cli.getManager(proxy), AiAgentCli.isValidSourceAgentIdCalldata(agentId), BOOL_OUTPUT);
+    }
+
+    /**
+     * any read function, its result is the value of its single output, or the list of the values of its outputs
+     */
+    public CallBatch call(String contract, Function function) {
+        return add(contract, FunctionEncoder.encode(function), function.getOutputParameters());
+    }
+
+    public int size() {
+        return calldata.size();
+    }
+
+    public List<Object> execute() throws IOException {
+        String multicallAddress = cli.getConfig().getMulticallAddress();
+        List<List<Type>> decoded = multicallAddress != null
+            ? ChainUtil.getResultsMulticall(cli.getWeb3j(), multicallAddress, to, calldata, outputParameters,
+                cli.getConfig().getMaxBatchSize())
+            : ChainUtil.getResults(cli.getWeb3j(), to, calldata, outputParameters,
+                cli.getConfig().getMaxBatchSize());
+        List<Object> results = new ArrayList<>(decoded.size());
+        for (List<Type> result : decoded) {
+            if (result.size() == 1) {
+                results.add(unwrap(result.get(0)));
+            } else {
+                List<Object> values = new ArrayList<>(result.size());
+                result.forEach(type -> values.add(unwrap(type)));
+                results.add(values);
+            }
+        }
+        return results;
+    }
+
+    private CallBatch add(String address, String data, List<TypeReference<Type>> outputs) {
+        to.add(address);
+        calldata.add(data);
+        outputParameters.add(outputs);
+        return this;
+    }
+
+    private static Object unwrap(Type type) {
+        if (type instanceof DynamicBytes) {
+            return Numeric.toHexString(((DynamicBytes) type).getValue());
+        }
+        return type.getValue();
+    }
+}
@@ -0,0 +1,98 @@
+package org.apro.sdk.abi;
+
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * a flyweight over an ABI encoded tuple in a ByteBuffer, the fields are decoded on access
+ * with absolute reads, so the buffer position and limit are never changed.
+ * the offsets of the dynamic fields are relative to the start of the tuple
+ */
+abstract class AbiView {
+
+  static final int WORD = 32;
+
+  final ByteBuffer buffer;
+  // the index of the first head word of the tuple in the buffer
+  final int base;
+
+  AbiView(ByteBuffer buffer, int base) {
+    this.buffer = buffer;
+    this.base = base;
+  }
+
+  /**
+   * the head word of the index-th field, as an int. offsets, lengths and small uints fit in it
+   */
+  int intAt(int index) {
+    return readInt(base + WORD * index);
+  }
+
+  BigInteger uint256At(int index) {
+    byte[] word = new byte[WORD];
+    read(base + WORD * index, word);
+    return new BigInteger(1, word);
+  }
+
+  String addressAt(int position) {
+    byte[] address = new byte[20];
+    read(position + WORD - 20, address);
+    return Numeric.toHexString(address);
+  }
+
+  /**
+   * the string the offset in the index-th head word points to
+   */
+  String stringAt(int index) {
+    int position = base + intAt(index);
+    int length = readInt(position);
+    checkBounds(position + WORD, length);
+    if (buffer.hasArray()) {
+      return new String(buffer.array(), buffer.arrayOffset() + position + WORD, length, StandardCharsets.UTF_8);
+    }
+    byte[] bytes = new byte[length];
+    read(position + WORD, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  int readInt(int position) {
+    checkBounds(position, WORD);
+    for (int i = position; i < position + WORD - 4; i++) {
+      if (buffer.get(i) != 0) {
+        throw new IllegalArgumentException("ABI word at " + position + " does not fit an int");
+      }
+    }
+    // ABI words are big endian whatever the byte order of the buffer
+    int last = position + WORD - 4;
+    int value = (buffer.get(last) & 0xff) << 24 | (buffer.get(last + 1) & 0xff) << 16
+        | (buffer.get(last + 2) & 0xff) << 8 | buffer.get(last + 3) & 0xff;
+    if (value < 0) {
+      throw new IllegalArgumentException("ABI word at " + position + " does not fit an int");
+    }
+    return value;
+  }
+
+  private void read(int position, byte[] out) {
+    checkBounds(position, out.length);
+    if (buffer.hasArray()) {
+      System.arraycopy(buffer.array(), buffer.arrayOffset() + position, out, 0, out.length);
+    } else {
+      for (int i = 0; i < out.length; i++) {
+        out[i] = buffer.get(position + i);
+      }
+    }
+  }
+
+  /**
+   * a malformed offset or length fails here, before it is used to read or to size an array.
+   * the end is not computed as position + length, which overflows for such values
+   */
+  void checkBounds(int position, long length) {
+    if (position < 0 || length < 0 || length > (long) buffer.limit() - position) {
+      throw new IllegalArgumentException("ABI data too short");
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package org.apro.sdk.abi;
+
+import org.apro.sdk.params.AgentHeader;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * a lazy view of the ABI bytes AgentHeader.build decodes, reading only the fields asked for
+ * without the hex round trip and the reflection of FunctionReturnDecoder
+ *
+ * <pre>
+ * String sourceAgentId = AgentHeaderView.wrap(bytes).getSourceAgentId();
+ * </pre>
+ */
+public class AgentHeaderView extends AbiView {
+
+  private static final int VERSION = 0;
+  private static final int MESSAGE_ID = 1;
+  private static final int SOURCE_AGENT_ID = 2;
+  private static final int SOURCE_AGENT_NAME = 3;
+  private static final int TARGET_AGENT_ID = 4;
+  private static final int TIMESTAMP = 5;
+  private static final int MESSAGE_TYPE = 6;
+  private static final int PRIORITY = 7;
+  private static final int TTL = 8;
+
+  AgentHeaderView(ByteBuffer buffer, int base) {
+    super(buffer, base);
+  }
+
+  public static AgentHeaderView wrap(byte[] bytes) {
+    return new AgentHeaderView(ByteBuffer.wrap(bytes), 0);
+  }
+
+  /**
+   * the header starts at the position of the buffer
+   */
+  public static AgentHeaderView wrap(ByteBuffer buffer) {
+    return new AgentHeaderView(buffer, buffer.position());
+  }
+
+  public String getVersion() {
+    return stringAt(VERSION);
+  }
+
+  public String getMessageId() {
+    return stringAt(MESSAGE_ID);
+  }
+
+  public String getSourceAgentId() {
+    return stringAt(SOURCE_AGENT_ID);
+  }
+
+  public String getSourceAgentName() {
+    return stringAt(SOURCE_AGENT_NAME);
+  }
+
+  public String getTargetAgentId() {
+    return stringAt(TARGET_AGENT_ID);
+  }
+
+  public BigInteger getTimestamp() {
+    return uint256At(TIMESTAMP);
+  }
+
+  public int getMessageType() {
+    return intAt(MESSAGE_TYPE);
+  }
+
+  public int getPriority() {
+    return intAt(PRIORITY);
+  }
+
+  public BigInteger getTtl() {
+    return uint256At(TTL);
+  }
+
+  /**
+   * decode every field into an AgentHeader
+   */
+  public AgentHeader toAgentHeader() {
+    return new AgentHeader(
+        new Utf8String(getVersion()),
+        new Utf8String(getMessageId()),
+        new Utf8String(getSourceAgentId()),
+        new Utf8String(getSourceAgentName()),
+        new Utf8String(getTargetAgentId()),
+        new Uint256(getTimestamp()),
+        new Uint8(getMessageType()),
+        new Uint8(getPriority()),
+        new Uint256(getTtl()));
+  }
+}
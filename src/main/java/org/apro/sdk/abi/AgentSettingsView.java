@@ -0,0 +1,102 @@
+package org.apro.sdk.abi;
+
+import org.apro.sdk.params.AgentSettingsStruct;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.generated.Uint8;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * a lazy view of the ABI bytes AgentSettingsStruct.build decodes, reading only the fields asked for.
+ * the signers are not copied until getSigner or getSigners is called
+ *
+ * <pre>
+ * AgentSettingsView settings = AgentSettingsView.wrap(bytes);
+ * String sourceAgentId = settings.getAgentConfig().getSourceAgentId();
+ * </pre>
+ */
+public class AgentSettingsView extends AbiView {
+
+  private static final int SIGNERS = 0;
+  private static final int THRESHOLD = 1;
+  private static final int CONVERT_ADDRESS = 2;
+  private static final int AGENT_CONFIG = 3;
+
+  AgentSettingsView(ByteBuffer buffer, int base) {
+    super(buffer, base);
+  }
+
+  public static AgentSettingsView wrap(byte[] bytes) {
+    return new AgentSettingsView(ByteBuffer.wrap(bytes), 0);
+  }
+
+  /**
+   * the settings start at the position of the buffer
+   */
+  public static AgentSettingsView wrap(ByteBuffer buffer) {
+    return new AgentSettingsView(buffer, buffer.position());
+  }
+
+  /**
+   * the settings of the data of an AgentRegistered log, which holds the offset of the settings first
+   */
+  public static AgentSettingsView ofEventData(byte[] data) {
+    AgentSettingsView event = new AgentSettingsView(ByteBuffer.wrap(data), 0);
+    return new AgentSettingsView(event.buffer, event.intAt(0));
+  }
+
+  public int getSignerCount() {
+    int position = base + intAt(SIGNERS);
+    int count = readInt(position);
+    // a count past the end of the data is malformed, getSigners must not allocate for it
+    checkBounds(position + WORD, (long) count * WORD);
+    return count;
+  }
+
+  public String getSigner(int index) {
+    int count = getSignerCount();
+    if (index < 0 || index >= count) {
+      throw new IndexOutOfBoundsException("signer " + index + " of " + count);
+    }
+    return addressAt(base + intAt(SIGNERS) + WORD + WORD * index);
+  }
+
+  public String[] getSigners() {
+    String[] signers = new String[getSignerCount()];
+    int first = base + intAt(SIGNERS) + WORD;
+    for (int i = 0; i < signers.length; i++) {
+      signers[i] = addressAt(first + WORD * i);
+    }
+    return signers;
+  }
+
+  public long getThreshold() {
+    return intAt(THRESHOLD);
+  }
+
+  public String getConvertAddress() {
+    return addressAt(base + WORD * CONVERT_ADDRESS);
+  }
+
+  public AgentHeaderView getAgentConfig() {
+    return new AgentHeaderView(buffer, base + intAt(AGENT_CONFIG));
+  }
+
+  /**
+   * decode every field into an AgentSettingsStruct
+   */
+  public AgentSettingsStruct toAgentSettingsStruct() {
+    List<Address> signers = new ArrayList<>();
+    for (String signer : getSigners()) {
+      signers.add(new Address(signer));
+    }
+    return new AgentSettingsStruct(
+        new DynamicArray<>(Address.class, signers),
+        new Uint8(getThreshold()),
+        new Address(getConvertAddress()),
+        getAgentConfig().toAgentHeader());
+  }
+}
@@ -0,0 +1,127 @@
+package org.apro.sdk.abi;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apro.sdk.util.Utils;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * encodes the calldata of Multicall3 aggregate3((address,bool,bytes)[]) and decodes its
+ * (bool,bytes)[] result, written by hand like VerifyCalldataEncoder since web3j decodes
+ * arrays of dynamic structs only through reflection on generated classes.
+ * every call is encoded with allowFailure set, so one reverting call does not revert the others
+ */
+public class Multicall3 {
+
+  public static final String AGGREGATE3_SIGNATURE = "aggregate3((address,bool,bytes)[])";
+
+  private static final byte[] SELECTOR =
+      Arrays.copyOf(Hash.sha3(AGGREGATE3_SIGNATURE.getBytes(StandardCharsets.UTF_8)), 4);
+  private static final int WORD = 32;
+
+  /**
+   * @param targets: the contract address of each call
+   * @param calldata: the hex calldata of each call, selector included
+   * @return the hex calldata of aggregate3 with the 0x prefix
+   */
+  public static String encodeAggregate3(List<String> targets, List<String> calldata) {
+    int count = targets.size();
+    byte[][] data = new byte[count][];
+    int size = SELECTOR.length + WORD + WORD + WORD * count;
+    for (int i = 0; i < count; i++) {
+      data[i] = Utils.toBytes(calldata.get(i));
+      size += 4 * WORD + padded(data[i].length);
+    }
+    byte[] out = new byte[size];
+    System.arraycopy(SELECTOR, 0, out, 0, SELECTOR.length);
+    int position = SELECTOR.length;
+    putInt(out, position, WORD);
+    putInt(out, position + WORD, count);
+    // the element offsets are relative to the first offset word
+    int heads = position + 2 * WORD;
+    int tail = WORD * count;
+    for (int i = 0; i < count; i++) {
+      byte[] target = Utils.toBytes(targets.get(i));
+      if (target.length > 20) {
+        throw new IllegalArgumentException(targets.get(i) + " is not a valid address");
+      }
+      putInt(out, heads + WORD * i, tail);
+      int element = heads + tail;
+      System.arraycopy(target, 0, out, element + WORD - target.length, target.length);
+      out[element + 2 * WORD - 1] = 1;
+      putInt(out, element + 2 * WORD, 3 * WORD);
+      putInt(out, element + 3 * WORD, data[i].length);
+      System.arraycopy(data[i], 0, out, element + 4 * WORD, data[i].length);
+      tail += 4 * WORD + padded(data[i].length);
+    }
+    return Numeric.toHexString(out);
+  }
+
+  /**
+   * @param hex: the eth_call result of aggregate3
+   * @return the result of each call, in the order of the calls
+   */
+  public static List<Result> decodeAggregate3(String hex) {
+    byte[] in = Numeric.hexStringToByteArray(hex);
+    int array = readInt(in, 0);
+    int count = readInt(in, array);
+    int heads = array + WORD;
+    List<Result> results = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int element = heads + readInt(in, heads + WORD * i);
+      boolean success = readInt(in, element) != 0;
+      int bytes = element + readInt(in, element + WORD);
+      int length = readInt(in, bytes);
+      if (bytes + WORD + length > in.length) {
+        throw new IllegalArgumentException("malformed aggregate3 result");
+      }
+      results.add(new Result(success, Arrays.copyOfRange(in, bytes + WORD, bytes + WORD + length)));
+    }
+    return results;
+  }
+
+  private static int padded(int length) {
+    return (length + WORD - 1) / WORD * WORD;
+  }
+
+  private static void putInt(byte[] out, int word, int value) {
+    out[word + WORD - 4] = (byte) (value >>> 24);
+    out[word + WORD - 3] = (byte) (value >>> 16);
+    out[word + WORD - 2] = (byte) (value >>> 8);
+    out[word + WORD - 1] = (byte) value;
+  }
+
+  /**
+   * read a word that must fit a non-negative int, as offsets, lengths and bools do
+   */
+  private static int readInt(byte[] in, int word) {
+    if (word < 0 || word + WORD > in.length) {
+      throw new IllegalArgumentException("malformed aggregate3 result");
+    }
+    for (int i = word; i < word + WORD - 4; i++) {
+      if (in[i] != 0) {
+        throw new IllegalArgumentException("malformed aggregate3 result");
+      }
+    }
+    int value = (in[word + WORD - 4] & 0xff) << 24 | (in[word + WORD - 3] & 0xff) << 16
+        | (in[word + WORD - 2] & 0xff) << 8 | in[word + WORD - 1] & 0xff;
+    if (value < 0) {
+      throw new IllegalArgumentException("malformed aggregate3 result");
+    }
+    return value;
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Result {
+
+    private final boolean success;
+    private final byte[] returnData;
+  }
+}
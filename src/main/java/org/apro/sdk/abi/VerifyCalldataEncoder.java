@@ -0,0 +1,245 @@
+package org.apro.sdk.abi;
+
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
+import org.apro.sdk.params.MetaDataStruct;
+import org.apro.sdk.params.VerifyParams;
+import org.apro.sdk.util.Utils;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * writes the calldata of verify(address,bytes32,MessagePayload) straight into a reusable byte array,
+ * without building the web3j type tree and the intermediate hex strings of FunctionEncoder.
+ * the output is byte-for-byte the same as FunctionEncoder.encode of VerifyParams.toInputParameters.
+ * an instance reuses its buffer and is not thread safe, encodeHex uses one instance per thread.
+ */
+public class VerifyCalldataEncoder {
+
+  public static final String VERIFY_SIGNATURE =
+      "verify(address,bytes32,(bytes,bytes32,(bytes,bytes,bytes),(string,string,string)))";
+
+  private static final byte[] SELECTOR =
+      Arrays.copyOf(Hash.sha3(VERIFY_SIGNATURE.getBytes(StandardCharsets.UTF_8)), 4);
+  private static final int WORD = 32;
+  private static final byte[] EMPTY = new byte[0];
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /**
+   * the largest buffer encodeHex keeps per thread between calls, a larger one is dropped after use
+   * so that a single large payload does not pin its buffer on every pool thread
+   */
+  public static final int MAX_RETAINED_CAPACITY = 64 << 10;
+
+  private static final ThreadLocal<VerifyCalldataEncoder> LOCAL =
+      ThreadLocal.withInitial(VerifyCalldataEncoder::new);
+
+  private byte[] buffer;
+  private int position;
+
+  public VerifyCalldataEncoder() {
+    this(INITIAL_CAPACITY);
+  }
+
+  public VerifyCalldataEncoder(int initialCapacity) {
+    this.buffer = new byte[initialCapacity];
+  }
+
+  /**
+   * the hex calldata with the 0x prefix, as RawTransaction expects it
+   */
+  public static String encodeHex(VerifyParams params) {
+    VerifyCalldataEncoder encoder = LOCAL.get();
+    try {
+      int length = encoder.encode(params);
+      return Numeric.toHexString(encoder.buffer, 0, length, true);
+    } finally {
+      if (encoder.buffer.length > MAX_RETAINED_CAPACITY) {
+        encoder.buffer = new byte[INITIAL_CAPACITY];
+      }
+    }
+  }
+
+  /**
+   * the buffer size encodeHex keeps on the calling thread
+   */
+  static int localCapacity() {
+    return LOCAL.get().buffer.length;
+  }
+
+  /**
+   * encode the calldata into the internal buffer
+   *
+   * @return the calldata length, the calldata is buffer()[0, length)
+   */
+  public int encode(VerifyParams params) {
+    params.validate();
+    long start = Metrics.start();
+
+    byte[] agent = Utils.toBytes(params.getAgent());
+    byte[] digest = Utils.toBytes(params.getSettingsDigest());
+    byte[] dataHash = Utils.toBytes(params.getDataHash());
+    byte[] data = params.toDataBytes();
+    byte[] zkProofs = params.getZkProofs() != null ? params.getZkProofs() : EMPTY;
+    byte[] merkleProofs = params.getMerkleProofs() != null ? params.getMerkleProofs() : EMPTY;
+    List<Sign.SignatureData> signatures = params.getSignatures();
+    if (agent.length > 20) {
+      throw new IllegalArgumentException("agent is not a valid address");
+    }
+    if (digest.length != WORD || dataHash.length != WORD) {
+      throw new IllegalArgumentException("settingsDigest|dataHash must be 32 bytes");
+    }
+
+    MetaDataStruct metaData = params.getMetaDataStruct();
+    if (metaData == null) {
+      metaData = new MetaDataStruct("", "", "");
+      params.setMetaDataStruct(metaData);
+    }
+    byte[] contentType = metaData.getContentType().getBytes(StandardCharsets.UTF_8);
+    byte[] encoding = metaData.getEncoding().getBytes(StandardCharsets.UTF_8);
+    byte[] compression = metaData.getCompression().getBytes(StandardCharsets.UTF_8);
+
+    int signatureProofSize = 3 * WORD + 3 * WORD * (signatures.size() + 1);
+    int proofsSize = 3 * WORD + bytesSize(zkProofs.length) + bytesSize(merkleProofs.length)
+        + WORD + signatureProofSize;
+    int metadataSize = 3 * WORD + bytesSize(contentType.length) + bytesSize(encoding.length)
+        + bytesSize(compression.length);
+    int payloadSize = 4 * WORD + bytesSize(data.length) + proofsSize + metadataSize;
+    int length = SELECTOR.length + 3 * WORD + payloadSize;
+    if (buffer.length < length) {
+      buffer = new byte[Math.max(length, buffer.length * 2)];
+    }
+    position = 0;
+
+    // verify(agent, settingsDigest, payload)
+    System.arraycopy(SELECTOR, 0, buffer, 0, SELECTOR.length);
+    position = SELECTOR.length;
+    writeLeftPadded(agent);
+    writeWord(digest);
+    writeUint(3 * WORD);
+
+    // payload(data, dataHash, proofs, metadata)
+    writeUint(4 * WORD);
+    writeWord(dataHash);
+    writeUint(4 * WORD + bytesSize(data.length));
+    writeUint(4 * WORD + bytesSize(data.length) + proofsSize);
+    writeBytes(data);
+
+    // proofs(zkProofs, merkleProofs, signatureProof)
+    writeUint(3 * WORD);
+    writeUint(3 * WORD + bytesSize(zkProofs.length));
+    writeUint(3 * WORD + bytesSize(zkProofs.length) + bytesSize(merkleProofs.length));
+    writeBytes(zkProofs);
+    writeBytes(merkleProofs);
+    writeUint(signatureProofSize);
+    writeSignatureProof(signatures);
+
+    // metadata(contentType, encoding, compression)
+    writeUint(3 * WORD);
+    writeUint(3 * WORD + bytesSize(contentType.length));
+    writeUint(3 * WORD + bytesSize(contentType.length) + bytesSize(encoding.length));
+    writeBytes(contentType);
+    writeBytes(encoding);
+    writeBytes(compression);
+
+    Metrics.timing(Instrumentation.ENCODE_VERIFY, start, true);
+    return position;
+  }
+
+  public byte[] toByteArray(VerifyParams params) {
+    int length = encode(params);
+    return Arrays.copyOf(buffer, length);
+  }
+
+  public void encodeTo(VerifyParams params, ByteBuffer target) {
+    int length = encode(params);
+    target.put(buffer, 0, length);
+  }
+
+  /**
+   * the internal buffer, valid up to the length returned by the last encode
+   */
+  public byte[] buffer() {
+    return buffer;
+  }
+
+  /**
+   * the same layout as Utils.encodeSignaturesToString: (bytes32[] r, bytes32[] s, uint8[] v)
+   */
+  private void writeSignatureProof(List<Sign.SignatureData> signatures) {
+    int count = signatures.size();
+    writeUint(3 * WORD);
+    writeUint(3 * WORD + WORD * (count + 1));
+    writeUint(3 * WORD + 2 * WORD * (count + 1));
+    writeUint(count);
+    for (Sign.SignatureData signature : signatures) {
+      writeSignatureWord(signature.getR());
+    }
+    writeUint(count);
+    for (Sign.SignatureData signature : signatures) {
+      writeSignatureWord(signature.getS());
+    }
+    writeUint(count);
+    for (Sign.SignatureData signature : signatures) {
+      long v = new BigInteger(1, signature.getV()).longValue() - 27;
+      if (v < 0 || v > 0xff) {
+        throw new IllegalArgumentException("signature v is not a valid recovery id");
+      }
+      writeUint(v);
+    }
+  }
+
+  private void writeSignatureWord(byte[] value) {
+    if (value.length != WORD) {
+      throw new IllegalArgumentException("signature r|s must be 32 bytes");
+    }
+    writeWord(value);
+  }
+
+  private void writeWord(byte[] value) {
+    System.arraycopy(value, 0, buffer, position, WORD);
+    position += WORD;
+  }
+
+  private void writeLeftPadded(byte[] value) {
+    int padding = WORD - value.length;
+    Arrays.fill(buffer, position, position + padding, (byte) 0);
+    System.arraycopy(value, 0, buffer, position + padding, value.length);
+    position += WORD;
+  }
+
+  private void writeUint(long value) {
+    Arrays.fill(buffer, position, position + WORD - Long.BYTES, (byte) 0);
+    for (int i = 0; i < Long.BYTES; i++) {
+      buffer[position + WORD - 1 - i] = (byte) (value >>> (8 * i));
+    }
+    position += WORD;
+  }
+
+  /**
+   * the length word followed by the value right-padded to a whole word
+   */
+  private void writeBytes(byte[] value) {
+    writeUint(value.length);
+    System.arraycopy(value, 0, buffer, position, value.length);
+    int padded = paddedLength(value.length);
+    Arrays.fill(buffer, position + value.length, position + padded, (byte) 0);
+    position += padded;
+  }
+
+  private static int bytesSize(int length) {
+    return WORD + paddedLength(length);
+  }
+
+  private static int paddedLength(int length) {
+    return (length + WORD - 1) / WORD * WORD;
+  }
+}
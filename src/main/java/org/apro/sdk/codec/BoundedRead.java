@@ -0,0 +1,30 @@
+package org.apro.sdk.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * reads a decoding stream up to the max decoded size of the codec
+ */
+class BoundedRead {
+
+  private static final int CHUNK = 8192;
+
+  static byte[] readAtMost(InputStream in, int maxDecodedSize, String codec) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] chunk = new byte[CHUNK];
+    int read;
+    while ((read = in.read(chunk)) != -1) {
+      checkSize(out.size() + (long) read, maxDecodedSize, codec);
+      out.write(chunk, 0, read);
+    }
+    return out.toByteArray();
+  }
+
+  static void checkSize(long size, int maxDecodedSize, String codec) {
+    if (size > maxDecodedSize) {
+      throw new IllegalArgumentException(codec + " data decodes to more than " + maxDecodedSize + " bytes");
+    }
+  }
+}
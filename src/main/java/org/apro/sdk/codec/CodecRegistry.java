@@ -0,0 +1,71 @@
+package org.apro.sdk.codec;
+
+import org.apro.sdk.params.MetaDataStruct;
+import org.apro.sdk.util.Utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the codecs by MetaDataStruct.compression name. an empty compression, or none, is the data as is
+ *
+ * <pre>
+ * byte[] data = CodecRegistry.defaults().decode(verifyParams.getData(), verifyParams.getMetaDataStruct());
+ * </pre>
+ */
+public class CodecRegistry {
+
+  public static final String NONE = "none";
+
+  private static final CodecRegistry DEFAULTS = new CodecRegistry()
+      .register(new Lz4Codec())
+      .register(new DeflateCodec())
+      .register(new GzipCodec());
+
+  private final Map<String, PayloadCodec> codecs = new ConcurrentHashMap<>();
+
+  /**
+   * the shared registry of lz4, deflate and gzip, further codecs registered on it are seen by all its users.
+   * the codecs decode up to Constants.DEFAULT_MAX_DECODED_SIZE, register codecs built with another
+   * max decoded size on a new registry to change it
+   */
+  public static CodecRegistry defaults() {
+    return DEFAULTS;
+  }
+
+  public CodecRegistry register(PayloadCodec codec) {
+    if (isNone(codec.getName())) {
+      throw new IllegalArgumentException("the codec name must not be empty or " + NONE);
+    }
+    codecs.put(codec.getName(), codec);
+    return this;
+  }
+
+  public PayloadCodec get(String name) {
+    PayloadCodec codec = codecs.get(name);
+    if (codec == null) {
+      throw new IllegalArgumentException("unknown compression: " + name);
+    }
+    return codec;
+  }
+
+  public boolean contains(String name) {
+    return isNone(name) || codecs.containsKey(name);
+  }
+
+  public byte[] decode(byte[] data, String compression) {
+    return isNone(compression) ? data : get(compression).decode(data);
+  }
+
+  /**
+   * @param hexData: VerifyParams.data
+   * @param metaData: VerifyParams.metaDataStruct, null for uncompressed data
+   */
+  public byte[] decode(String hexData, MetaDataStruct metaData) {
+    return decode(Utils.toBytes(hexData), metaData == null ? null : metaData.getCompression());
+  }
+
+  public static boolean isNone(String compression) {
+    return compression == null || compression.isEmpty() || NONE.equals(compression);
+  }
+}
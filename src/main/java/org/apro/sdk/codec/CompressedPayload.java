@@ -0,0 +1,45 @@
+package org.apro.sdk.codec;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apro.sdk.params.MetaDataStruct;
+import org.web3j.utils.Numeric;
+
+/**
+ * the output of PayloadCompressor, the data to hash, sign and send as VerifyParams.data
+ */
+@Getter
+@AllArgsConstructor
+public class CompressedPayload {
+
+  private final byte[] data;
+
+  /**
+   * the codec name, none if the payload is sent as is
+   */
+  private final String compression;
+
+  private final int originalSize;
+
+  public boolean isCompressed() {
+    return !CodecRegistry.isNone(compression);
+  }
+
+  public double getRatio() {
+    return originalSize == 0 ? 1 : (double) data.length / originalSize;
+  }
+
+  public String getHexData() {
+    return Numeric.toHexStringNoPrefix(data);
+  }
+
+  /**
+   * the metadata of VerifyParams with the compression filled
+   *
+   * @param contentType: of the original payload, e.g. application/json
+   * @param encoding: of the original payload, e.g. utf-8
+   */
+  public MetaDataStruct toMetaData(String contentType, String encoding) {
+    return new MetaDataStruct(contentType, encoding, isCompressed() ? compression : "");
+  }
+}
@@ -0,0 +1,31 @@
+package org.apro.sdk.codec;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Getter
+@Builder
+public class CompressionConfig {
+
+  /**
+   * the codecs tried on each payload, the smallest output wins
+   */
+  @Builder.Default
+  private List<String> candidates = Arrays.asList(Lz4Codec.NAME, DeflateCodec.NAME);
+
+  /**
+   * payloads smaller than this are sent as is, the codec headers outweigh the gain
+   */
+  @Builder.Default
+  private int minSize = 256;
+
+  /**
+   * the largest compressed to original size ratio worth the decode on the other side,
+   * payloads which do not compress below it are sent as is
+   */
+  @Builder.Default
+  private double maxRatio = 0.9;
+}
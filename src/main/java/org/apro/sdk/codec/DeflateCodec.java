@@ -0,0 +1,83 @@
+package org.apro.sdk.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.apro.sdk.config.Constants.DEFAULT_MAX_DECODED_SIZE;
+
+/**
+ * the zlib format of RFC 1950, as the http deflate content coding
+ */
+public class DeflateCodec implements PayloadCodec {
+
+  public static final String NAME = "deflate";
+
+  private final int level;
+  private final int maxDecodedSize;
+
+  public DeflateCodec() {
+    this(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * @param level: 0 to 9, or Deflater.DEFAULT_COMPRESSION
+   */
+  public DeflateCodec(int level) {
+    this(level, DEFAULT_MAX_DECODED_SIZE);
+  }
+
+  /**
+   * @param maxDecodedSize: decode fails with IllegalArgumentException past this size
+   */
+  public DeflateCodec(int level, int maxDecodedSize) {
+    this.level = level;
+    this.maxDecodedSize = maxDecodedSize;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(byte[] data) {
+    Deflater deflater = new Deflater(level);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+      byte[] chunk = new byte[8192];
+      while (!deflater.finished()) {
+        out.write(chunk, 0, deflater.deflate(chunk));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  @Override
+  public byte[] decode(byte[] data) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(data.length * 3L, maxDecodedSize));
+      byte[] chunk = new byte[8192];
+      while (!inflater.finished()) {
+        int inflated = inflater.inflate(chunk);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IllegalArgumentException("truncated deflate data");
+        }
+        BoundedRead.checkSize(out.size() + (long) inflated, maxDecodedSize, NAME);
+        out.write(chunk, 0, inflated);
+      }
+      return out.toByteArray();
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("invalid deflate data", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package org.apro.sdk.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.apro.sdk.config.Constants.DEFAULT_MAX_DECODED_SIZE;
+
+/**
+ * the gzip format of RFC 1952
+ */
+public class GzipCodec implements PayloadCodec {
+
+  public static final String NAME = "gzip";
+
+  private final int maxDecodedSize;
+
+  public GzipCodec() {
+    this(DEFAULT_MAX_DECODED_SIZE);
+  }
+
+  /**
+   * @param maxDecodedSize: decode fails with IllegalArgumentException past this size
+   */
+  public GzipCodec(int maxDecodedSize) {
+    this.maxDecodedSize = maxDecodedSize;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(byte[] data) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(data);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public byte[] decode(byte[] data) {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      return BoundedRead.readAtMost(gzip, maxDecodedSize, NAME);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("invalid gzip data", e);
+    }
+  }
+}
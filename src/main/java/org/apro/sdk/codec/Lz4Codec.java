@@ -0,0 +1,58 @@
+package org.apro.sdk.codec;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.apro.sdk.config.Constants.DEFAULT_MAX_DECODED_SIZE;
+
+/**
+ * the LZ4 frame format, which the lz4 tools and libraries of other languages read.
+ * it compresses less than deflate but several times faster, and decodes faster still
+ */
+public class Lz4Codec implements PayloadCodec {
+
+  public static final String NAME = "lz4";
+
+  private final int maxDecodedSize;
+
+  public Lz4Codec() {
+    this(DEFAULT_MAX_DECODED_SIZE);
+  }
+
+  /**
+   * @param maxDecodedSize: decode fails with IllegalArgumentException past this size
+   */
+  public Lz4Codec(int maxDecodedSize) {
+    this.maxDecodedSize = maxDecodedSize;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(byte[] data) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+    try (LZ4FrameOutputStream lz4 = new LZ4FrameOutputStream(out)) {
+      lz4.write(data);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public byte[] decode(byte[] data) {
+    try (LZ4FrameInputStream lz4 = new LZ4FrameInputStream(new ByteArrayInputStream(data))) {
+      return BoundedRead.readAtMost(lz4, maxDecodedSize, NAME);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("invalid lz4 data", e);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package org.apro.sdk.codec;
+
+/**
+ * a compression of VerifyParams.data, named by the value of MetaDataStruct.compression
+ */
+public interface PayloadCodec {
+
+  /**
+   * the MetaDataStruct.compression value of the codec, e.g. gzip
+   */
+  String getName();
+
+  byte[] encode(byte[] data);
+
+  byte[] decode(byte[] data);
+}
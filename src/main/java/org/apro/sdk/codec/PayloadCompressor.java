@@ -0,0 +1,66 @@
+package org.apro.sdk.codec;
+
+import java.util.List;
+
+/**
+ * compresses the payloads of verify with the codec that shrinks each one the most.
+ * the compression goes before the dataHash and the signatures, which cover the data as sent
+ *
+ * <pre>
+ * PayloadCompressor compressor = new PayloadCompressor(CodecRegistry.defaults(), CompressionConfig.builder().build());
+ * CompressedPayload payload = compressor.compress(message.getBytes(StandardCharsets.UTF_8));
+ * String data = payload.getHexData();
+ * VerifyParams verifyParams = VerifyParams.builder()
+ *     .data(data)
+ *     .dataHash(Hex.toHexString(Utils.toKeccak256(data)))
+ *     .metaDataStruct(payload.toMetaData("application/json", "utf-8"))
+ *     ...
+ * </pre>
+ */
+public class PayloadCompressor {
+
+  private final CodecRegistry registry;
+  private final CompressionConfig config;
+
+  public PayloadCompressor(CodecRegistry registry, CompressionConfig config) {
+    for (String candidate : config.getCandidates()) {
+      registry.get(candidate);
+    }
+    this.registry = registry;
+    this.config = config;
+  }
+
+  public CompressedPayload compress(byte[] data) {
+    if (data.length < config.getMinSize()) {
+      return new CompressedPayload(data, CodecRegistry.NONE, data.length);
+    }
+    byte[] best = null;
+    String bestName = null;
+    List<String> candidates = config.getCandidates();
+    for (String candidate : candidates) {
+      byte[] encoded = registry.get(candidate).encode(data);
+      if (best == null || encoded.length < best.length) {
+        best = encoded;
+        bestName = candidate;
+      }
+    }
+    if (best == null || best.length > data.length * config.getMaxRatio()) {
+      return new CompressedPayload(data, CodecRegistry.NONE, data.length);
+    }
+    return new CompressedPayload(best, bestName, data.length);
+  }
+
+  /**
+   * compress with the given codec whatever the ratio, e.g. when the converter only reads one
+   */
+  public CompressedPayload compress(byte[] data, String compression) {
+    if (CodecRegistry.isNone(compression)) {
+      return new CompressedPayload(data, CodecRegistry.NONE, data.length);
+    }
+    return new CompressedPayload(registry.get(compression).encode(data), compression, data.length);
+  }
+
+  public byte[] decompress(CompressedPayload payload) {
+    return registry.decode(payload.getData(), payload.getCompression());
+  }
+}
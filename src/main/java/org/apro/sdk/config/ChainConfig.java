@@ -3,6 +3,9 @@ package org.apro.sdk.config;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import static org.apro.sdk.config.Constants.*;
 
 @Getter
@@ -13,6 +16,65 @@ public class ChainConfig {
   private long chainId;
   private String proxyAddress;
 
+  private TransportType transport = TransportType.HTTP;
+
+  /**
+   * the http endpoints of several nodes of the chain, used instead of serverUrl when set.
+   * reads go to the fastest healthy node and broadcasts fail over, see RoutingService
+   */
+  private List<String> serverUrls;
+
+  /**
+   * whether a slow read is sent again to the next fastest node when several serverUrls are set
+   */
+  private boolean hedgeReads = true;
+
+  /**
+   * a read is never hedged before this delay, whatever the measured latency
+   */
+  private long hedgeMinDelayMillis = DEFAULT_HEDGE_MIN_DELAY_MILLIS;
+
+  /**
+   * how long the proxy metadata (factory, manager, version) is cached by AiAgentCli.
+   * zero disables the cache
+   */
+  private long metadataCacheTtlSeconds = DEFAULT_METADATA_CACHE_TTL_SECONDS;
+
+  /**
+   * the max eth_calls sent in one JSON-RPC batch request, zero or less sends a batch in one request
+   */
+  private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+  /**
+   * the Multicall3 contract CallBatch folds its calls into, e.g. Constants.MULTICALL3_ADDRESS.
+   * null sends every call as its own eth_call in JSON-RPC batch requests
+   */
+  private String multicallAddress;
+
+  /**
+   * the max requests in flight on an http endpoint, the blocking and the async calls beyond it
+   * wait for one to return. zero or less for no cap
+   */
+  private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+  /**
+   * the max idle keep-alive connections of the OkHttp connection pool.
+   * blocking calls beyond this number open a new connection per request
+   */
+  private int connectionPoolSize = DEFAULT_CONNECTION_POOL_SIZE;
+
+  private long connectionKeepAliveSeconds = DEFAULT_CONNECTION_KEEP_ALIVE_SECONDS;
+
+  /**
+   * the executor the async methods send their requests on, takes precedence over executorType
+   */
+  private Executor executor;
+
+  /**
+   * the executor AiAgentCli creates when no executor is set
+   */
+  private ExecutorType executorType = ExecutorType.WEB3J;
+
   public ChainConfig(String serverUrl, long chainId, String proxyAddress) {
     this.serverUrl = serverUrl;
     this.chainId = chainId;
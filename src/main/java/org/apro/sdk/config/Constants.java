@@ -1,11 +1,20 @@
 package org.apro.sdk.config;
 
 import org.apro.sdk.params.AgentSettingsStruct;
+import org.web3j.abi.EventEncoder;
 import org.web3j.abi.TypeReference;
+import org.web3j.abi.Utils;
 import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicBytes;
 import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.crypto.Hash;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class Constants {
 
@@ -18,6 +27,23 @@ public class Constants {
   public static final String BSC_MAIN_RPC = "https://binance.llamarpc.com";
   public static final String BSC_MAIN_PROXY_ADDRESS = "";
 
+  // cache
+  public static final long DEFAULT_METADATA_CACHE_TTL_SECONDS = 600;
+  public static final int SIGNER_KEY_CACHE_SIZE = 1024;
+
+  // codec
+  // the largest payload a codec decodes to, a 128 KiB transaction (the geth txpool limit) of data
+  // compressed 1:64 is within it. a larger output is refused as a decompression bomb
+  public static final int DEFAULT_MAX_DECODED_SIZE = 8 << 20;
+
+  // rpc
+  public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+  public static final int DEFAULT_CONNECTION_POOL_SIZE = 64;
+  public static final long DEFAULT_CONNECTION_KEEP_ALIVE_SECONDS = 300;
+  public static final long DEFAULT_HEDGE_MIN_DELAY_MILLIS = 50;
+  // the Multicall3 deployment at the same address on most EVM chains, BSC mainnet and testnet included
+  public static final String MULTICALL3_ADDRESS = "0xcA11bde05977b3631167028862bE2a173976CA11";
 
   // function name
   public static final String REGISTER_AGENT_FUNCTION_NAME = "createAndRegisterAgent";
@@ -28,6 +54,24 @@ public class Constants {
   public static final String AGENT_VERSION_FUNCTION_NAME = "agentVersion";
   public static final String IS_VALID_SOURCE_AGENT_ID_FUNCTION_NAME = "isValidSourceAgentId";
 
+  // function selectors, the calldata of the functions without parameters is the selector alone
+  public static final String AGENT_FACTORY_SELECTOR = selector(AGENT_FACTORY_FUNCTION_NAME + "()");
+  public static final String AGENT_MANAGER_SELECTOR = selector(AGENT_MANAGER_FUNCTION_NAME + "()");
+  public static final String AGENT_VERSION_SELECTOR = selector(AGENT_VERSION_FUNCTION_NAME + "()");
+  public static final String IS_VALID_SOURCE_AGENT_ID_SELECTOR =
+      selector(IS_VALID_SOURCE_AGENT_ID_FUNCTION_NAME + "(string)");
+  public static final String CONVERTER_SELECTOR = selector(CONVERTER_FUNCTION_NAME + "(bytes)");
+
+  // function output types
+  public static final List<TypeReference<Type>> ADDRESS_OUTPUT =
+      Utils.convert(Collections.<TypeReference<?>>singletonList(new TypeReference<Address>() {}));
+  public static final List<TypeReference<Type>> UTF8_STRING_OUTPUT =
+      Utils.convert(Collections.<TypeReference<?>>singletonList(new TypeReference<Utf8String>() {}));
+  public static final List<TypeReference<Type>> BOOL_OUTPUT =
+      Utils.convert(Collections.<TypeReference<?>>singletonList(new TypeReference<Bool>() {}));
+  public static final List<TypeReference<Type>> DYNAMIC_BYTES_OUTPUT =
+      Utils.convert(Collections.<TypeReference<?>>singletonList(new TypeReference<DynamicBytes>() {}));
+
 
   // event AgentRegistered(address indexed agent, Common.AgentSettings agentSettings);
   public static Event AgentRegistered = new Event("AgentRegistered",
@@ -37,4 +81,10 @@ public class Constants {
                   new TypeReference<AgentSettingsStruct>(false) {
                   }
           ));
+
+  public static final String AGENT_REGISTERED_TOPIC = EventEncoder.encode(AgentRegistered);
+
+  private static String selector(String methodSignature) {
+    return Hash.sha3String(methodSignature).substring(0, 10);
+  }
 }
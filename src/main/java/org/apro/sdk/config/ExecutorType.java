@@ -0,0 +1,17 @@
+package org.apro.sdk.config;
+
+/**
+ * the executor the async requests of AiAgentCli run on, when no explicit executor is configured
+ */
+public enum ExecutorType {
+
+  /**
+   * web3j's own async executor, a shared cached thread pool
+   */
+  WEB3J,
+
+  /**
+   * a new virtual thread per request, requires JDK 21 or above
+   */
+  VIRTUAL_THREAD
+}
@@ -0,0 +1,14 @@
+package org.apro.sdk.config;
+
+/**
+ * how AiAgentCli talks to the node at serverUrl
+ */
+public enum TransportType {
+
+  HTTP,
+
+  /**
+   * a ws:// or wss:// serverUrl, required for the newHeads and logs subscriptions
+   */
+  WEBSOCKET
+}
@@ -0,0 +1,26 @@
+package org.apro.sdk.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * an agent registered on chain, as indexed from its AgentRegistered event
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgentRecord {
+
+  private String agent;
+
+  private String sourceAgentId;
+
+  private String messageId;
+
+  private String targetAgentId;
+
+  private long blockNumber;
+
+  private String transactionHash;
+}
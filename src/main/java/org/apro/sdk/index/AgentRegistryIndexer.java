@@ -0,0 +1,294 @@
+package org.apro.sdk.index;
+
+import cn.hutool.log.LogFactory;
+import org.apro.sdk.abi.AgentHeaderView;
+import org.apro.sdk.abi.AgentSettingsView;
+import org.apro.sdk.util.GsonUtil;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.utils.Numeric;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apro.sdk.config.Constants.AGENT_REGISTERED_TOPIC;
+
+/**
+ * indexes the AgentRegistered events into a local index keyed by agent address,
+ * source agent id and message id.
+ * the records are appended to index.jsonl in the directory and the last indexed block
+ * is kept in the checkpoint file, so a restart loads the index and resumes from the checkpoint.
+ * eth_getLogs is called in block ranges that shrink when the node rejects a range
+ * and grow while the ranges return few logs.
+ *
+ * <pre>
+ * try (AgentRegistryIndexer indexer = new AgentRegistryIndexer(web3j, Paths.get("agents"), config)) {
+ *   indexer.sync();
+ *   AgentRecord record = indexer.findBySourceAgentId(sourceAgentId);
+ * }
+ * </pre>
+ */
+public class AgentRegistryIndexer implements AutoCloseable {
+
+  private static final cn.hutool.log.Log LOG = LogFactory.get();
+  private static final String INDEX_FILE = "index.jsonl";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+
+  private final Web3j web3j;
+  private final AgentRegistryIndexerConfig config;
+  private final Path directory;
+  private final FileChannel indexChannel;
+
+  private final Map<String, AgentRecord> byAgent = new ConcurrentHashMap<>();
+  private final Map<String, AgentRecord> bySourceAgentId = new ConcurrentHashMap<>();
+  private final Map<String, AgentRecord> byMessageId = new ConcurrentHashMap<>();
+
+  private volatile long checkpoint;
+  private int blockRange;
+
+  public AgentRegistryIndexer(Web3j web3j, Path directory, AgentRegistryIndexerConfig config)
+      throws IOException {
+    this.web3j = web3j;
+    this.config = config;
+    this.directory = directory;
+    this.blockRange = config.getInitialBlockRange();
+    Files.createDirectories(directory);
+    this.checkpoint = loadCheckpoint();
+    loadIndex();
+    this.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  /**
+   * index the events from the checkpoint up to the confirmed head
+   *
+   * @return the records added
+   */
+  public synchronized int sync() throws IOException {
+    long head = web3j.ethBlockNumber().send().getBlockNumber().longValueExact() - config.getConfirmations();
+    int added = 0;
+    long from = checkpoint + 1;
+    while (from <= head) {
+      long to = Math.min(from + blockRange - 1, head);
+      EthLog ethLog = web3j.ethGetLogs(filter(from, to)).send();
+      if (ethLog.hasError()) {
+        if (blockRange == 1) {
+          throw new RuntimeException(ethLog.getError().getMessage());
+        }
+        // most nodes reject a range with too many blocks or logs, retry a smaller one
+        blockRange = Math.max(1, blockRange / 2);
+        continue;
+      }
+      List<AgentRecord> records = new ArrayList<>();
+      for (EthLog.LogResult<?> result : ethLog.getLogs()) {
+        Log log = (Log) result.get();
+        if (!log.isRemoved()) {
+          AgentRecord record = tryDecode(log);
+          if (record != null) {
+            records.add(record);
+          }
+        }
+      }
+      append(records);
+      saveCheckpoint(to);
+      added += records.size();
+      if (records.size() < config.getTargetLogsPerRange()) {
+        blockRange = Math.min(blockRange * 2, config.getMaxBlockRange());
+      }
+      from = to + 1;
+    }
+    return added;
+  }
+
+  /**
+   * index a pushed log, e.g. from a logs subscription, in memory only. the record is visible
+   * to the lookups right away and persisted by sync once its block is confirmed.
+   * a removed log, sent when its block is reorged out, drops the record it added
+   */
+  public void onLog(Log log) {
+    if (!log.getTopics().contains(AGENT_REGISTERED_TOPIC)) {
+      return;
+    }
+    AgentRecord record = tryDecode(log);
+    if (record == null) {
+      return;
+    }
+    if (log.isRemoved()) {
+      remove(record);
+    } else {
+      put(record);
+    }
+  }
+
+  public AgentRecord findByAgent(String agent) {
+    return byAgent.get(agent.toLowerCase(Locale.ROOT));
+  }
+
+  public AgentRecord findBySourceAgentId(String sourceAgentId) {
+    return bySourceAgentId.get(sourceAgentId);
+  }
+
+  public AgentRecord findByMessageId(String messageId) {
+    return byMessageId.get(messageId);
+  }
+
+  /**
+   * the last block indexed
+   */
+  public long getCheckpoint() {
+    return checkpoint;
+  }
+
+  public int size() {
+    return byAgent.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    indexChannel.close();
+  }
+
+  private EthFilter filter(long from, long to) {
+    EthFilter filter = new EthFilter(
+        DefaultBlockParameter.valueOf(BigInteger.valueOf(from)),
+        DefaultBlockParameter.valueOf(BigInteger.valueOf(to)),
+        config.getAddresses());
+    filter.addSingleTopic(AGENT_REGISTERED_TOPIC);
+    return filter;
+  }
+
+  /**
+   * a log that cannot be decoded, e.g. from another contract emitting the same topic,
+   * is skipped so that it does not stall the checkpoint
+   */
+  private static AgentRecord tryDecode(Log log) {
+    try {
+      return decode(log);
+    } catch (RuntimeException e) {
+      LOG.warn(e, "skip undecodable AgentRegistered log {} in tx {}", log.getLogIndex(), log.getTransactionHash());
+      return null;
+    }
+  }
+
+  static AgentRecord decode(Log log) {
+    String agent = Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(log.getTopics().get(1)), 40);
+    // only three header fields are needed, read them from the raw data instead of decoding the whole struct
+    AgentHeaderView header = AgentSettingsView.ofEventData(Numeric.hexStringToByteArray(log.getData())).getAgentConfig();
+    return new AgentRecord(
+        agent,
+        header.getSourceAgentId(),
+        header.getMessageId(),
+        header.getTargetAgentId(),
+        log.getBlockNumber().longValueExact(),
+        log.getTransactionHash());
+  }
+
+  private void put(AgentRecord record) {
+    byAgent.put(record.getAgent().toLowerCase(Locale.ROOT), record);
+    bySourceAgentId.put(record.getSourceAgentId(), record);
+    byMessageId.put(record.getMessageId(), record);
+  }
+
+  /**
+   * drop the keys that still point at this record, a later record for the same key is kept
+   */
+  private void remove(AgentRecord record) {
+    byAgent.remove(record.getAgent().toLowerCase(Locale.ROOT), record);
+    bySourceAgentId.remove(record.getSourceAgentId(), record);
+    byMessageId.remove(record.getMessageId(), record);
+  }
+
+  /**
+   * the records are forced to disk before the checkpoint moves past them. a crash in between
+   * re-indexes the range on restart, which only rewrites the same records
+   */
+  private void append(List<AgentRecord> records) throws IOException {
+    if (records.isEmpty()) {
+      return;
+    }
+    StringBuilder lines = new StringBuilder();
+    for (AgentRecord record : records) {
+      lines.append(GsonUtil.toJson(record)).append('\n');
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+    while (buffer.hasRemaining()) {
+      indexChannel.write(buffer);
+    }
+    indexChannel.force(false);
+    records.forEach(this::put);
+  }
+
+  private void saveCheckpoint(long block) throws IOException {
+    Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+    Files.write(tmp, Long.toString(block).getBytes(StandardCharsets.UTF_8));
+    Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    checkpoint = block;
+  }
+
+  private long loadCheckpoint() throws IOException {
+    Path file = directory.resolve(CHECKPOINT_FILE);
+    if (!Files.exists(file)) {
+      return config.getStartBlock() - 1;
+    }
+    return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim());
+  }
+
+  private void loadIndex() throws IOException {
+    Path file = directory.resolve(INDEX_FILE);
+    if (!Files.exists(file)) {
+      return;
+    }
+    truncateTornTail(file);
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        AgentRecord record = GsonUtil.fromJson(line, AgentRecord.class);
+        if (record != null) {
+          put(record);
+        }
+      }
+    }
+  }
+
+  /**
+   * drop a torn last line left by a crash, its range is re-indexed from the checkpoint
+   */
+  private static void truncateTornTail(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      long end = size;
+      ByteBuffer last = ByteBuffer.allocate(1);
+      while (end > 0) {
+        last.clear();
+        channel.read(last, end - 1);
+        if (last.get(0) == '\n') {
+          break;
+        }
+        end--;
+      }
+      if (end < size) {
+        channel.truncate(end);
+      }
+    }
+  }
+}
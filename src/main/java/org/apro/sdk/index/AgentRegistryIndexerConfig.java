@@ -0,0 +1,42 @@
+package org.apro.sdk.index;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+@Builder
+public class AgentRegistryIndexerConfig {
+
+  /**
+   * the contracts emitting AgentRegistered, empty matches any contract
+   */
+  @Builder.Default
+  private List<String> addresses = Collections.emptyList();
+
+  /**
+   * the first block scanned when there is no checkpoint yet
+   */
+  @Builder.Default
+  private long startBlock = 0;
+
+  /**
+   * the blocks behind the head that are not indexed yet, to stay clear of reorgs
+   */
+  @Builder.Default
+  private int confirmations = 15;
+
+  @Builder.Default
+  private int initialBlockRange = 2_000;
+
+  @Builder.Default
+  private int maxBlockRange = 50_000;
+
+  /**
+   * the range grows while a chunk returns fewer logs than this
+   */
+  @Builder.Default
+  private int targetLogsPerRange = 1_000;
+}
@@ -0,0 +1,108 @@
+package org.apro.sdk.merkle;
+
+import org.apro.sdk.params.MetaDataStruct;
+import org.apro.sdk.params.VerifyParams;
+import org.apro.sdk.sign.DataSigner;
+import org.apro.sdk.sign.SignatureAggregator;
+import org.apro.sdk.util.Utils;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * verifies many messages of one agent under one signed merkle root. the signers sign the root once,
+ * and every message is sent with the root signatures and its proof in merkleProofs, so the signing
+ * rounds and the signature bytes are shared by the whole batch. not thread safe, one batch per thread
+ *
+ * <pre>
+ * MerkleBatch batch = new MerkleBatch(agentAddress, digest);
+ * messages.forEach(batch::add);
+ * List&lt;VerifyParams&gt; verifyParams = batch.sign(SignatureAggregator.of(agentSettingsParams), signers).get();
+ * </pre>
+ */
+public class MerkleBatch {
+
+  private final String agent;
+  private final String settingsDigest;
+
+  private final List<String> data = new ArrayList<>();
+  private final List<byte[]> dataHashes = new ArrayList<>();
+  private final List<MetaDataStruct> metaData = new ArrayList<>();
+
+  public MerkleBatch(String agent, String settingsDigest) {
+    this.agent = agent;
+    this.settingsDigest = settingsDigest;
+  }
+
+  /**
+   * add a message with the keccak256 dataHash, for agents without a converter
+   *
+   * @param data: the hex data of VerifyParams.data
+   * @return the index of the message in the batch
+   */
+  public int add(String data) {
+    return add(data, Numeric.toHexString(Utils.toKeccak256(data)), null);
+  }
+
+  /**
+   * @param dataHash: the hex dataHash, as the converter of the agent computes it
+   * @return the index of the message in the batch
+   */
+  public int add(String data, String dataHash, MetaDataStruct metaDataStruct) {
+    byte[] hash = Utils.toBytes(dataHash);
+    if (hash.length != MerkleTree.HASH_LENGTH) {
+      throw new IllegalArgumentException("dataHash must be 32 bytes");
+    }
+    this.data.add(data);
+    this.dataHashes.add(hash);
+    this.metaData.add(metaDataStruct);
+    return this.data.size() - 1;
+  }
+
+  public int size() {
+    return data.size();
+  }
+
+  /**
+   * build the tree of the messages added so far
+   */
+  public MerkleTree buildTree() {
+    return MerkleTree.build(dataHashes);
+  }
+
+  /**
+   * build the tree, collect the signatures of the root and emit the verify params of every message
+   *
+   * @return the verify params, in the order the messages were added
+   */
+  public CompletableFuture<List<VerifyParams>> sign(SignatureAggregator aggregator, List<? extends DataSigner> signers) {
+    MerkleTree tree = buildTree();
+    return aggregator.collect(Numeric.toHexString(tree.getRoot()), signers)
+        .thenApply(signatures -> toVerifyParams(tree, signatures));
+  }
+
+  /**
+   * the verify params of every message with signatures already collected over the root of tree
+   */
+  public List<VerifyParams> toVerifyParams(MerkleTree tree, List<Sign.SignatureData> rootSignatures) {
+    if (tree.size() != data.size()) {
+      throw new IllegalArgumentException("the tree has " + tree.size() + " leaves for " + data.size() + " messages");
+    }
+    List<VerifyParams> verifyParams = new ArrayList<>(data.size());
+    for (int i = 0; i < data.size(); i++) {
+      verifyParams.add(VerifyParams.builder()
+          .agent(agent)
+          .settingsDigest(settingsDigest)
+          .data(data.get(i))
+          .dataHash(Numeric.toHexString(dataHashes.get(i)))
+          .signatures(rootSignatures)
+          .merkleProofs(tree.encodeProof(i))
+          .metaDataStruct(metaData.get(i))
+          .build());
+    }
+    return verifyParams;
+  }
+}
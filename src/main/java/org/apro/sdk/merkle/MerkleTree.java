@@ -0,0 +1,236 @@
+package org.apro.sdk.merkle;
+
+import org.bouncycastle.jcajce.provider.digest.Keccak;
+
+import java.security.DigestException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * a keccak256 merkle tree over the dataHash of messages, in the layout of the OpenZeppelin MerkleProof library:
+ * a leaf is keccak256(dataHash), a node is keccak256 of its two children sorted ascending, and the last node of
+ * an odd level moves up unchanged. the hashing of each level is split over the common fork join pool.
+ * the levels are kept as flat arrays of 32 byte hashes, one array per level
+ *
+ * <pre>
+ * MerkleTree tree = MerkleTree.build(dataHashes);
+ * byte[] merkleProofs = tree.encodeProof(index);
+ * </pre>
+ */
+public class MerkleTree {
+
+  public static final int HASH_LENGTH = 32;
+
+  // the nodes hashed by one fork join task
+  private static final int TASK_NODES = 2048;
+
+  // levels[0] the leaves, levels[levels.length - 1] the root
+  private final byte[][] levels;
+  private final int size;
+
+  private MerkleTree(byte[][] levels, int size) {
+    this.levels = levels;
+    this.size = size;
+  }
+
+  /**
+   * @param dataHashes: the 32 byte dataHash of every message, in the order of the proofs
+   */
+  public static MerkleTree build(List<byte[]> dataHashes) {
+    int size = dataHashes.size();
+    if (size == 0) {
+      throw new IllegalArgumentException("at least one dataHash is required");
+    }
+    byte[] hashes = new byte[size * HASH_LENGTH];
+    for (int i = 0; i < size; i++) {
+      byte[] dataHash = dataHashes.get(i);
+      if (dataHash.length != HASH_LENGTH) {
+        throw new IllegalArgumentException("dataHash " + i + " must be 32 bytes");
+      }
+      System.arraycopy(dataHash, 0, hashes, i * HASH_LENGTH, HASH_LENGTH);
+    }
+    return build(hashes);
+  }
+
+  /**
+   * @param dataHashes: the dataHash of every message, concatenated
+   */
+  public static MerkleTree build(byte[] dataHashes) {
+    if (dataHashes.length == 0 || dataHashes.length % HASH_LENGTH != 0) {
+      throw new IllegalArgumentException("dataHashes must be a non empty multiple of 32 bytes");
+    }
+    int size = dataHashes.length / HASH_LENGTH;
+    List<byte[]> levels = new ArrayList<>();
+    byte[] leaves = new byte[dataHashes.length];
+    hash(new HashTask(dataHashes, size, leaves, 0, size, true));
+    levels.add(leaves);
+    byte[] level = leaves;
+    int count = size;
+    while (count > 1) {
+      int parents = (count + 1) / 2;
+      byte[] parent = new byte[parents * HASH_LENGTH];
+      hash(new HashTask(level, count, parent, 0, parents, false));
+      levels.add(parent);
+      level = parent;
+      count = parents;
+    }
+    return new MerkleTree(levels.toArray(new byte[0][]), size);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public byte[] getRoot() {
+    return levels[levels.length - 1].clone();
+  }
+
+  /**
+   * the sibling hashes from the leaf up to the root, the odd nodes moved up have none
+   */
+  public List<byte[]> proof(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + " of " + size + " leaves");
+    }
+    List<byte[]> proof = new ArrayList<>(levels.length - 1);
+    int count = size;
+    for (int depth = 0; depth < levels.length - 1; depth++) {
+      int sibling = index ^ 1;
+      if (sibling < count) {
+        int offset = sibling * HASH_LENGTH;
+        proof.add(Arrays.copyOfRange(levels[depth], offset, offset + HASH_LENGTH));
+      }
+      index >>= 1;
+      count = (count + 1) / 2;
+    }
+    return proof;
+  }
+
+  /**
+   * the merkleProofs of VerifyParams, abi.encode(bytes32 root, bytes32[] proof)
+   */
+  public byte[] encodeProof(int index) {
+    List<byte[]> proof = proof(index);
+    byte[] encoded = new byte[3 * HASH_LENGTH + proof.size() * HASH_LENGTH];
+    System.arraycopy(levels[levels.length - 1], 0, encoded, 0, HASH_LENGTH);
+    encoded[2 * HASH_LENGTH - 1] = 2 * HASH_LENGTH;
+    writeLength(encoded, 2 * HASH_LENGTH, proof.size());
+    for (int i = 0; i < proof.size(); i++) {
+      System.arraycopy(proof.get(i), 0, encoded, (3 + i) * HASH_LENGTH, HASH_LENGTH);
+    }
+    return encoded;
+  }
+
+  /**
+   * check the merkleProofs of a message against its dataHash, as the contract does
+   *
+   * @return the root the proof leads to, null if it does not match the root it carries
+   */
+  public static byte[] verify(byte[] merkleProofs, byte[] dataHash) {
+    if (merkleProofs.length < 3 * HASH_LENGTH || (merkleProofs.length - 3 * HASH_LENGTH) % HASH_LENGTH != 0) {
+      throw new IllegalArgumentException("merkleProofs is not abi.encode(bytes32, bytes32[])");
+    }
+    int count = (merkleProofs.length - 3 * HASH_LENGTH) / HASH_LENGTH;
+    Keccak.Digest256 digest = new Keccak.Digest256();
+    byte[] node = digest.digest(dataHash);
+    for (int i = 0; i < count; i++) {
+      int offset = (3 + i) * HASH_LENGTH;
+      if (compare(node, 0, merkleProofs, offset) <= 0) {
+        digest.update(node, 0, HASH_LENGTH);
+        digest.update(merkleProofs, offset, HASH_LENGTH);
+      } else {
+        digest.update(merkleProofs, offset, HASH_LENGTH);
+        digest.update(node, 0, HASH_LENGTH);
+      }
+      node = digest.digest();
+    }
+    return compare(node, 0, merkleProofs, 0) == 0 ? node : null;
+  }
+
+  private static void hash(HashTask task) {
+    if (task.to - task.from <= TASK_NODES) {
+      task.compute();
+    } else {
+      ForkJoinPool.commonPool().invoke(task);
+    }
+  }
+
+  private static void writeLength(byte[] out, int offset, int length) {
+    for (int i = 0; i < 4; i++) {
+      out[offset + HASH_LENGTH - 1 - i] = (byte) (length >>> (8 * i));
+    }
+  }
+
+  // unsigned, as the uint256 comparison of the OpenZeppelin commutative keccak
+  private static int compare(byte[] a, int aOffset, byte[] b, int bOffset) {
+    for (int i = 0; i < HASH_LENGTH; i++) {
+      int x = a[aOffset + i] & 0xff;
+      int y = b[bOffset + i] & 0xff;
+      if (x != y) {
+        return x < y ? -1 : 1;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * hashes the nodes [from, to) of the level above src, or the leaves of src
+   */
+  private static class HashTask extends RecursiveAction {
+
+    private final byte[] src;
+    private final int srcCount;
+    private final byte[] dst;
+    private final int from;
+    private final int to;
+    private final boolean leaves;
+
+    private HashTask(byte[] src, int srcCount, byte[] dst, int from, int to, boolean leaves) {
+      this.src = src;
+      this.srcCount = srcCount;
+      this.dst = dst;
+      this.from = from;
+      this.to = to;
+      this.leaves = leaves;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > TASK_NODES) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new HashTask(src, srcCount, dst, from, middle, leaves),
+            new HashTask(src, srcCount, dst, middle, to, leaves));
+        return;
+      }
+      Keccak.Digest256 digest = new Keccak.Digest256();
+      try {
+        for (int i = from; i < to; i++) {
+          int out = i * HASH_LENGTH;
+          if (leaves) {
+            digest.update(src, out, HASH_LENGTH);
+          } else {
+            int left = 2 * i * HASH_LENGTH;
+            if (2 * i + 1 >= srcCount) {
+              System.arraycopy(src, left, dst, out, HASH_LENGTH);
+              continue;
+            }
+            int right = left + HASH_LENGTH;
+            if (compare(src, left, src, right) <= 0) {
+              digest.update(src, left, HASH_LENGTH);
+              digest.update(src, right, HASH_LENGTH);
+            } else {
+              digest.update(src, right, HASH_LENGTH);
+              digest.update(src, left, HASH_LENGTH);
+            }
+          }
+          digest.digest(dst, out, HASH_LENGTH);
+        }
+      } catch (DigestException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
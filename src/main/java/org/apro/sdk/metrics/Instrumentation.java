@@ -0,0 +1,72 @@
+package org.apro.sdk.metrics;
+
+/**
+ * receives the timings of the sdk. the methods are called on the hot path, from any thread,
+ * and must not block. the default methods do nothing, so an implementation overrides what it records.
+ * an implementation is installed with Metrics.setInstrumentation, or found through
+ * META-INF/services/org.apro.sdk.metrics.Instrumentation
+ */
+public interface Instrumentation {
+
+  Instrumentation NOOP = new Instrumentation() {
+  };
+
+  // the sdk operations
+  String GET_RESULT = "getResult";
+  String BROADCAST = "broadcast";
+  String GET_NONCE = "getNonce";
+  String GET_AGENT_ADDRESS = "getAgentAddress";
+
+  // the local stages
+  String ENCODE_VERIFY = "encode.verify";
+  String ENCODE_REGISTER_AGENT = "encode.registerAgent";
+  String SIGN = "sign";
+  String VALIDATE_AGENT_SETTINGS = "validate.agentSettings";
+  String VALIDATE_VERIFY = "validate.verify";
+
+  /**
+   * an sdk operation or a local stage completed
+   *
+   * @param name: one of the operation or stage names above
+   * @param success: false if it threw
+   */
+  default void onTiming(String name, long elapsedNanos, boolean success) {
+  }
+
+  /**
+   * a JSON-RPC request completed, a batch is reported with the method "batch"
+   *
+   * @param success: false on a transport failure, a JSON-RPC error response is a success here
+   */
+  default void onRpc(String method, long elapsedNanos, boolean success) {
+  }
+
+  /**
+   * a JSON-RPC error response
+   */
+  default void onRpcError(String method, int code) {
+  }
+
+  /**
+   * an attempt of a RoutingService on one of its endpoints. a hedged read reports both attempts,
+   * a failed over request every endpoint it was sent to
+   *
+   * @param endpoint: the endpoint host
+   * @param success: false on a transport failure, a JSON-RPC error response is a success here
+   */
+  default void onEndpointRpc(String endpoint, String method, long elapsedNanos, boolean success) {
+  }
+
+  /**
+   * a JSON-RPC error response of one endpoint of a RoutingService, the errors of a batch are
+   * reported with the method "batch"
+   */
+  default void onEndpointRpcError(String endpoint, String method, int code) {
+  }
+
+  /**
+   * the http body sizes of a request to the endpoint host, -1 when unknown (e.g. a chunked response)
+   */
+  default void onPayload(String endpoint, long requestBytes, long responseBytes) {
+  }
+}
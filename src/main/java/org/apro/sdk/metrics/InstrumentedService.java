@@ -0,0 +1,124 @@
+package org.apro.sdk.metrics;
+
+import io.reactivex.Flowable;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * reports the latency and the error responses of every JSON-RPC request of the transport
+ * to the installed Instrumentation
+ */
+public class InstrumentedService implements Web3jService {
+
+  private static final String BATCH = "batch";
+
+  private final Web3jService delegate;
+
+  public InstrumentedService(Web3jService delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+    long start = Metrics.start();
+    T response;
+    try {
+      response = delegate.send(request, responseType);
+    } catch (IOException | RuntimeException e) {
+      rpc(request.getMethod(), start, false);
+      throw e;
+    }
+    rpc(request.getMethod(), start, true);
+    error(request.getMethod(), response);
+    return response;
+  }
+
+  @Override
+  public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+    long start = Metrics.start();
+    return delegate.sendAsync(request, responseType).whenComplete((response, e) -> {
+      rpc(request.getMethod(), start, e == null);
+      if (response != null) {
+        error(request.getMethod(), response);
+      }
+    });
+  }
+
+  @Override
+  public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+    long start = Metrics.start();
+    BatchResponse response;
+    try {
+      response = delegate.sendBatch(batchRequest);
+    } catch (IOException | RuntimeException e) {
+      rpc(BATCH, start, false);
+      throw e;
+    }
+    rpc(BATCH, start, true);
+    errors(batchRequest, response);
+    return response;
+  }
+
+  @Override
+  public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+    long start = Metrics.start();
+    return delegate.sendBatchAsync(batchRequest).whenComplete((response, e) -> {
+      rpc(BATCH, start, e == null);
+      if (response != null) {
+        errors(batchRequest, response);
+      }
+    });
+  }
+
+  @Override
+  public <T extends Notification<?>> Flowable<T> subscribe(
+      Request request, String unsubscribeMethod, Class<T> responseType) {
+    return delegate.subscribe(request, unsubscribeMethod, responseType);
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  private static void rpc(String method, long start, boolean success) {
+    if (start != 0) {
+      Metrics.getInstrumentation().onRpc(method, System.nanoTime() - start, success);
+    }
+  }
+
+  private static void error(String method, Response<?> response) {
+    if (response.hasError()) {
+      Metrics.getInstrumentation().onRpcError(method, response.getError().getCode());
+    }
+  }
+
+  private static void errors(BatchRequest batchRequest, BatchResponse batchResponse) {
+    Map<Long, String> methods = null;
+    for (Response<?> response : batchResponse.getResponses()) {
+      if (!response.hasError()) {
+        continue;
+      }
+      // the methods are only looked up when a batch has errors
+      if (methods == null) {
+        methods = new HashMap<>();
+        List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+        for (Request<?, ? extends Response<?>> request : requests) {
+          methods.put(request.getId(), request.getMethod());
+        }
+      }
+      Metrics.getInstrumentation().onRpcError(methods.getOrDefault(response.getId(), BATCH),
+          response.getError().getCode());
+    }
+  }
+}
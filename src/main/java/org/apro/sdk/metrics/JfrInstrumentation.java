@@ -0,0 +1,171 @@
+package org.apro.sdk.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * emits JDK Flight Recorder events, to be read next to the gc and thread events of a recording.
+ * an event is only built when it is enabled in the recording settings
+ *
+ * <pre>
+ * Metrics.setInstrumentation(new JfrInstrumentation());
+ * </pre>
+ */
+public class JfrInstrumentation implements Instrumentation {
+
+  @Override
+  public void onTiming(String name, long elapsedNanos, boolean success) {
+    TimingEvent event = new TimingEvent();
+    if (event.isEnabled()) {
+      event.name = name;
+      event.elapsed = elapsedNanos;
+      event.success = success;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void onRpc(String method, long elapsedNanos, boolean success) {
+    RpcEvent event = new RpcEvent();
+    if (event.isEnabled()) {
+      event.method = method;
+      event.elapsed = elapsedNanos;
+      event.success = success;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void onRpcError(String method, int code) {
+    RpcErrorEvent event = new RpcErrorEvent();
+    if (event.isEnabled()) {
+      event.method = method;
+      event.code = code;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void onEndpointRpc(String endpoint, String method, long elapsedNanos, boolean success) {
+    EndpointRpcEvent event = new EndpointRpcEvent();
+    if (event.isEnabled()) {
+      event.endpoint = endpoint;
+      event.method = method;
+      event.elapsed = elapsedNanos;
+      event.success = success;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void onEndpointRpcError(String endpoint, String method, int code) {
+    RpcErrorEvent event = new RpcErrorEvent();
+    if (event.isEnabled()) {
+      event.endpoint = endpoint;
+      event.method = method;
+      event.code = code;
+      event.commit();
+    }
+  }
+
+  @Override
+  public void onPayload(String endpoint, long requestBytes, long responseBytes) {
+    PayloadEvent event = new PayloadEvent();
+    if (event.isEnabled()) {
+      event.endpoint = endpoint;
+      event.requestBytes = requestBytes;
+      event.responseBytes = responseBytes;
+      event.commit();
+    }
+  }
+
+  @Name("org.apro.sdk.Timing")
+  @Label("SDK Timing")
+  @Category("ATTPs SDK")
+  static class TimingEvent extends Event {
+
+    @Label("Name")
+    String name;
+
+    @Label("Elapsed")
+    @Timespan
+    long elapsed;
+
+    @Label("Success")
+    boolean success;
+  }
+
+  @Name("org.apro.sdk.Rpc")
+  @Label("JSON-RPC Request")
+  @Category("ATTPs SDK")
+  static class RpcEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Elapsed")
+    @Timespan
+    long elapsed;
+
+    @Label("Success")
+    boolean success;
+  }
+
+  @Name("org.apro.sdk.EndpointRpc")
+  @Label("JSON-RPC Endpoint Attempt")
+  @Category("ATTPs SDK")
+  static class EndpointRpcEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Method")
+    String method;
+
+    @Label("Elapsed")
+    @Timespan
+    long elapsed;
+
+    @Label("Success")
+    boolean success;
+  }
+
+  @Name("org.apro.sdk.RpcError")
+  @Label("JSON-RPC Error")
+  @Category("ATTPs SDK")
+  static class RpcErrorEvent extends Event {
+
+    /**
+     * the host of a RoutingService endpoint, null for the errors of the transport as a whole
+     */
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Method")
+    String method;
+
+    @Label("Code")
+    int code;
+  }
+
+  @Name("org.apro.sdk.Payload")
+  @Label("RPC Payload")
+  @Category("ATTPs SDK")
+  static class PayloadEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+  }
+}
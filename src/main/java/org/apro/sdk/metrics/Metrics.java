@@ -0,0 +1,39 @@
+package org.apro.sdk.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * holds the installed Instrumentation. with the NOOP default, start returns 0 without reading
+ * the clock and the timing calls return right away
+ */
+public class Metrics {
+
+  private static volatile Instrumentation instrumentation = load();
+
+  public static Instrumentation getInstrumentation() {
+    return instrumentation;
+  }
+
+  public static void setInstrumentation(Instrumentation instrumentation) {
+    Metrics.instrumentation = instrumentation != null ? instrumentation : Instrumentation.NOOP;
+  }
+
+  /**
+   * @return the start of a timing, 0 when nothing is recorded
+   */
+  public static long start() {
+    return instrumentation == Instrumentation.NOOP ? 0 : System.nanoTime();
+  }
+
+  public static void timing(String name, long start, boolean success) {
+    if (start != 0) {
+      instrumentation.onTiming(name, System.nanoTime() - start, success);
+    }
+  }
+
+  private static Instrumentation load() {
+    Iterator<Instrumentation> found = ServiceLoader.load(Instrumentation.class).iterator();
+    return found.hasNext() ? found.next() : Instrumentation.NOOP;
+  }
+}
@@ -0,0 +1,100 @@
+package org.apro.sdk.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * records into a Micrometer registry, micrometer-core is an optional dependency (the micrometer feature).
+ * the timers publish percentile histograms, so the p99 can be aggregated across instances:
+ * attps.timing{name,outcome}, attps.rpc{method,outcome}, attps.rpc.errors{method,code},
+ * attps.rpc.endpoint{endpoint,method,outcome}, attps.rpc.endpoint.errors{endpoint,method,code},
+ * attps.rpc.request.bytes{endpoint} and attps.rpc.response.bytes{endpoint}
+ *
+ * <pre>
+ * Metrics.setInstrumentation(new MicrometerInstrumentation(meterRegistry));
+ * </pre>
+ */
+public class MicrometerInstrumentation implements Instrumentation {
+
+  private final MeterRegistry registry;
+  // the meters by name and tags, the registry lookup is slower than a map hit
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+  public MicrometerInstrumentation(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void onTiming(String name, long elapsedNanos, boolean success) {
+    timer("attps.timing", "name", name, success).record(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void onRpc(String method, long elapsedNanos, boolean success) {
+    timer("attps.rpc", "method", method, success).record(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void onRpcError(String method, int code) {
+    counters.computeIfAbsent(method + '|' + code, key -> Counter.builder("attps.rpc.errors")
+        .tag("method", method)
+        .tag("code", Integer.toString(code))
+        .register(registry)).increment();
+  }
+
+  @Override
+  public void onEndpointRpc(String endpoint, String method, long elapsedNanos, boolean success) {
+    String outcome = success ? "success" : "failure";
+    timers.computeIfAbsent("attps.rpc.endpoint|" + endpoint + '|' + method + '|' + outcome, key ->
+        Timer.builder("attps.rpc.endpoint")
+            .tag("endpoint", endpoint)
+            .tag("method", method)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry)).record(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void onEndpointRpcError(String endpoint, String method, int code) {
+    counters.computeIfAbsent(endpoint + '|' + method + '|' + code, key -> Counter.builder("attps.rpc.endpoint.errors")
+        .tag("endpoint", endpoint)
+        .tag("method", method)
+        .tag("code", Integer.toString(code))
+        .register(registry)).increment();
+  }
+
+  @Override
+  public void onPayload(String endpoint, long requestBytes, long responseBytes) {
+    if (requestBytes >= 0) {
+      summary("attps.rpc.request.bytes", endpoint).record(requestBytes);
+    }
+    if (responseBytes >= 0) {
+      summary("attps.rpc.response.bytes", endpoint).record(responseBytes);
+    }
+  }
+
+  private Timer timer(String name, String tag, String value, boolean success) {
+    String outcome = success ? "success" : "failure";
+    return timers.computeIfAbsent(name + '|' + value + '|' + outcome, key -> Timer.builder(name)
+        .tag(tag, value)
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(registry));
+  }
+
+  private DistributionSummary summary(String name, String endpoint) {
+    return summaries.computeIfAbsent(name + '|' + endpoint, key -> DistributionSummary.builder(name)
+        .baseUnit("bytes")
+        .tag("endpoint", endpoint)
+        .publishPercentileHistogram()
+        .register(registry));
+  }
+}
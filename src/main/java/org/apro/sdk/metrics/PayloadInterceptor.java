@@ -0,0 +1,27 @@
+package org.apro.sdk.metrics;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * reports the http body sizes of the requests to the installed Instrumentation.
+ * the endpoint is the host only, the path of many rpc urls holds an api key
+ */
+public class PayloadInterceptor implements Interceptor {
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    Response response = chain.proceed(request);
+    Instrumentation instrumentation = Metrics.getInstrumentation();
+    if (instrumentation != Instrumentation.NOOP) {
+      long requestBytes = request.body() != null ? request.body().contentLength() : 0;
+      long responseBytes = response.body() != null ? response.body().contentLength() : 0;
+      instrumentation.onPayload(request.url().host(), requestBytes, responseBytes);
+    }
+    return response;
+  }
+}
@@ -1,29 +1,46 @@
 package org.apro.sdk.params;
 
-import jakarta.validation.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
 import org.apro.sdk.util.Utils;
 import org.web3j.abi.datatypes.*;
 import org.web3j.abi.datatypes.generated.Uint256;
 import org.web3j.abi.datatypes.generated.Uint8;
 
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class AgentSettingsParams {
 
-  public static ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-  public static Validator validator = factory.getValidator();
+  /**
+   * @deprecated the params are checked by ParamsValidator, set its mode to BEAN_VALIDATION instead.
+   * the factory is only built on the first call
+   */
+  @Deprecated
+  public static ValidatorFactory factory = ParamsValidator.lazyValidatorFactory();
+
+  /**
+   * @deprecated see factory
+   */
+  @Deprecated
+  public static Validator validator = ParamsValidator.lazyValidator();
+
+  // the 13-digit timestamps, in milliseconds
+  private static final BigInteger MIN_MILLIS_TIMESTAMP = BigInteger.TEN.pow(12);
+  private static final BigInteger MAX_MILLIS_TIMESTAMP = BigInteger.TEN.pow(13);
+  private static final BigInteger THOUSAND = BigInteger.valueOf(1000);
 
   @NotNull(message = "Signers must not be null")
   private DynamicArray<Address> signers;
@@ -57,10 +74,37 @@ public class AgentSettingsParams {
   private Uint256 ttl;
 
   public List<Type> toInputParameters() {
-    Set<ConstraintViolation<AgentSettingsParams>> violations = validator.validate(this);
-    if (!violations.isEmpty()) {
-      throw new ConstraintViolationException(violations);
+    validate();
+    return buildInputParameters();
+  }
+
+  /**
+   * the input parameters without checking the params again, for params already checked by validate
+   */
+  public List<Type> buildInputParameters() {
+    List<Type> inputParameters = new ArrayList<>();
+    DynamicStruct agentConfig = new DynamicStruct(version, messageId, sourceAgentId, sourceAgentName,
+        targetAgentId, timestamp, messageType, priority, ttl);
+    inputParameters.add(new DynamicStruct(signers, threshold, converterAddress, agentConfig));
+    return inputParameters;
+  }
+
+  /**
+   * check the params and fill in the generated messageId, sourceAgentId and timestamp when absent
+   */
+  public void validate() {
+    long start = Metrics.start();
+    boolean success = false;
+    try {
+      checkAndFill();
+      success = true;
+    } finally {
+      Metrics.timing(Instrumentation.VALIDATE_AGENT_SETTINGS, start, success);
     }
+  }
+
+  private void checkAndFill() {
+    ParamsValidator.validate(this);
     if (this.signers.getValue().isEmpty()) {
       throw new IllegalArgumentException("signers must not be empty");
     }
@@ -94,14 +138,9 @@ public class AgentSettingsParams {
     if (this.timestamp == null) {
       this.timestamp = new Uint256(BigInteger.valueOf(System.currentTimeMillis() / 1000));
     }
-    if (this.timestamp.getValue().toString().matches("^\\d{13}$")) {
-      this.timestamp = new Uint256(this.timestamp.getValue().divide(BigInteger.valueOf(1000)));
+    BigInteger timestampValue = this.timestamp.getValue();
+    if (timestampValue.compareTo(MIN_MILLIS_TIMESTAMP) >= 0 && timestampValue.compareTo(MAX_MILLIS_TIMESTAMP) < 0) {
+      this.timestamp = new Uint256(timestampValue.divide(THOUSAND));
     }
-
-    List<Type> inputParameters = new ArrayList<>();
-    DynamicStruct agentConfig = new DynamicStruct(version, messageId, sourceAgentId, sourceAgentName,
-        targetAgentId, timestamp, messageType, priority, ttl);
-    inputParameters.add(new DynamicStruct(signers, threshold, converterAddress, agentConfig));
-    return inputParameters;
   }
 }
\ No newline at end of file
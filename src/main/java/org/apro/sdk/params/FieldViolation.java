@@ -0,0 +1,159 @@
+package org.apro.sdk.params;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ElementKind;
+import jakarta.validation.Path;
+import jakarta.validation.ValidationException;
+import jakarta.validation.metadata.ConstraintDescriptor;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * a violation of a field of the params found by the FAST mode of ParamsValidator, with the property path
+ * and the message Hibernate Validator reports. it has no constraint descriptor, which is null
+ */
+class FieldViolation<T> implements ConstraintViolation<T> {
+
+  private final T rootBean;
+  private final String message;
+  private final PropertyPath path;
+
+  FieldViolation(T rootBean, String property, String message) {
+    this.rootBean = rootBean;
+    this.message = message;
+    this.path = new PropertyPath(property);
+  }
+
+  @Override
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String getMessageTemplate() {
+    return message;
+  }
+
+  @Override
+  public T getRootBean() {
+    return rootBean;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Class<T> getRootBeanClass() {
+    return (Class<T>) rootBean.getClass();
+  }
+
+  @Override
+  public Object getLeafBean() {
+    return rootBean;
+  }
+
+  @Override
+  public Object[] getExecutableParameters() {
+    return null;
+  }
+
+  @Override
+  public Object getExecutableReturnValue() {
+    return null;
+  }
+
+  @Override
+  public Path getPropertyPath() {
+    return path;
+  }
+
+  /**
+   * the checks are on missing values, so it is always null
+   */
+  @Override
+  public Object getInvalidValue() {
+    return null;
+  }
+
+  @Override
+  public ConstraintDescriptor<?> getConstraintDescriptor() {
+    return null;
+  }
+
+  @Override
+  public <U> U unwrap(Class<U> type) {
+    if (type.isInstance(this)) {
+      return type.cast(this);
+    }
+    throw new ValidationException("cannot unwrap a field violation to " + type.getName());
+  }
+
+  @Override
+  public String toString() {
+    return path + ": " + message;
+  }
+
+  /**
+   * the path of a field of the root bean, a single property node
+   */
+  private static class PropertyPath implements Path, Path.PropertyNode {
+
+    private final String name;
+
+    private PropertyPath(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+      return Collections.<Node>singletonList(this).iterator();
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public boolean isInIterable() {
+      return false;
+    }
+
+    @Override
+    public Integer getIndex() {
+      return null;
+    }
+
+    @Override
+    public Object getKey() {
+      return null;
+    }
+
+    @Override
+    public ElementKind getKind() {
+      return ElementKind.PROPERTY;
+    }
+
+    @Override
+    public <N extends Node> N as(Class<N> nodeType) {
+      if (nodeType.isInstance(this)) {
+        return nodeType.cast(this);
+      }
+      throw new ClassCastException("a property node is not a " + nodeType.getName());
+    }
+
+    @Override
+    public Class<?> getContainerClass() {
+      return null;
+    }
+
+    @Override
+    public Integer getTypeArgumentIndex() {
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package org.apro.sdk.params;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * the @NotNull checks of AgentSettingsParams and VerifyParams.
+ * the FAST mode checks the fields by hand, with the messages of the annotations, and throws a
+ * ConstraintViolationException with a violation per field, as BEAN_VALIDATION does.
+ * the BEAN_VALIDATION mode runs Hibernate Validator, which is an optional dependency
+ * (the beanValidation feature) and is only loaded when this mode is first used
+ */
+public class ParamsValidator {
+
+  public enum Mode {
+    /**
+     * the checks by hand. the ConstraintViolationException carries the violations with their property
+     * paths and messages, and the message "agent: must not be null, dataHash: must not be null".
+     * the violations have no constraint descriptor
+     */
+    FAST,
+    /**
+     * Hibernate Validator, the ConstraintViolationException carries the violations with their
+     * property paths. requires hibernate-validator and jakarta.el on the classpath
+     */
+    BEAN_VALIDATION
+  }
+
+  private static volatile Mode mode = Mode.FAST;
+
+  public static Mode getMode() {
+    return mode;
+  }
+
+  public static void setMode(Mode mode) {
+    ParamsValidator.mode = mode;
+  }
+
+  static void validate(AgentSettingsParams params) {
+    if (mode == Mode.BEAN_VALIDATION) {
+      beanValidate(params);
+      return;
+    }
+    Violations<AgentSettingsParams> violations = new Violations<>(params);
+    violations.notNull(params.getSigners(), "signers", "Signers must not be null");
+    violations.notNull(params.getThreshold(), "threshold", "Threshold must not be null");
+    violations.notNull(params.getSourceAgentName(), "sourceAgentName", "sourceAgentName must not be null");
+    violations.notNull(params.getTargetAgentId(), "targetAgentId", "TargetAgentId must not be null");
+    violations.notNull(params.getMessageType(), "messageType", "MessageType must not be null");
+    violations.notNull(params.getPriority(), "priority", "Priority must not be null");
+    violations.notNull(params.getTtl(), "ttl", "TTL must not be null");
+    violations.throwIfAny();
+  }
+
+  static void validate(VerifyParams params) {
+    if (mode == Mode.BEAN_VALIDATION) {
+      beanValidate(params);
+      return;
+    }
+    Violations<VerifyParams> violations = new Violations<>(params);
+    violations.notNull(params.getAgent(), "agent", "must not be null");
+    violations.notNull(params.getSettingsDigest(), "settingsDigest", "must not be null");
+    violations.isTrue(params.isDataPresent(), "dataPresent", "Data cannot be empty");
+    violations.notNull(params.getDataHash(), "dataHash", "must not be null");
+    violations.notNull(params.getSignatures(), "signatures", "Signatures must contain at least one signature");
+    violations.throwIfAny();
+  }
+
+  /**
+   * a Validator that builds the Hibernate Validator factory on its first call,
+   * for the deprecated validator fields of the params
+   */
+  static Validator lazyValidator() {
+    return lazy(Validator.class, () -> ValidatorHolder.VALIDATOR);
+  }
+
+  /**
+   * a ValidatorFactory that builds the Hibernate Validator factory on its first call,
+   * for the deprecated factory fields of the params
+   */
+  static ValidatorFactory lazyValidatorFactory() {
+    return lazy(ValidatorFactory.class, () -> ValidatorHolder.FACTORY);
+  }
+
+  private static <T> T lazy(Class<T> type, Supplier<T> target) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+      // equals, hashCode and toString do not build the factory
+      if (method.getDeclaringClass() == Object.class) {
+        switch (method.getName()) {
+          case "equals":
+            return proxy == args[0];
+          case "hashCode":
+            return System.identityHashCode(proxy);
+          default:
+            return "lazy " + type.getSimpleName();
+        }
+      }
+      try {
+        return method.invoke(target.get(), args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }));
+  }
+
+  private static <T> void beanValidate(T params) {
+    Set<ConstraintViolation<T>> violations = ValidatorHolder.VALIDATOR.validate(params);
+    if (!violations.isEmpty()) {
+      throw new ConstraintViolationException(violations);
+    }
+  }
+
+  /**
+   * building the factory takes hundreds of milliseconds, it is only built on first use
+   */
+  private static class ValidatorHolder {
+
+    private static final ValidatorFactory FACTORY = buildFactory();
+    private static final Validator VALIDATOR = FACTORY.getValidator();
+
+    private static ValidatorFactory buildFactory() {
+      try {
+        return Validation.buildDefaultValidatorFactory();
+      } catch (RuntimeException e) {
+        throw new IllegalStateException("the BEAN_VALIDATION mode requires hibernate-validator and jakarta.el", e);
+      }
+    }
+  }
+
+  private static class Violations<T> {
+
+    private final T params;
+    // most params are valid, the violations are only built for the invalid ones
+    private Set<ConstraintViolation<T>> violations;
+    private StringBuilder message;
+
+    private Violations(T params) {
+      this.params = params;
+    }
+
+    private void notNull(Object value, String property, String violation) {
+      if (value != null) {
+        return;
+      }
+      if (message == null) {
+        violations = new LinkedHashSet<>();
+        message = new StringBuilder();
+      } else {
+        message.append(", ");
+      }
+      violations.add(new FieldViolation<>(params, property, violation));
+      message.append(property).append(": ").append(violation);
+    }
+
+    private void isTrue(boolean value, String property, String violation) {
+      notNull(value ? Boolean.TRUE : null, property, violation);
+    }
+
+    private void throwIfAny() {
+      if (message != null) {
+        throw new ConstraintViolationException(message.toString(), violations);
+      }
+    }
+  }
+}
@@ -1,19 +1,24 @@
 package org.apro.sdk.params;
 
-import jakarta.validation.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
 import org.apro.sdk.util.Utils;
 import org.web3j.abi.datatypes.*;
 import org.web3j.abi.datatypes.generated.Bytes32;
 import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
 
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.Set;
 
 import static org.apro.sdk.util.Utils.encodeSignaturesToString;
 
@@ -24,8 +29,18 @@ import static org.apro.sdk.util.Utils.encodeSignaturesToString;
 @AllArgsConstructor
 public class VerifyParams {
 
-  public static ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-  public static Validator validator = factory.getValidator();
+  /**
+   * @deprecated the params are checked by ParamsValidator, set its mode to BEAN_VALIDATION instead.
+   * the factory is only built on the first call
+   */
+  @Deprecated
+  public static ValidatorFactory factory = ParamsValidator.lazyValidatorFactory();
+
+  /**
+   * @deprecated see factory
+   */
+  @Deprecated
+  public static Validator validator = ParamsValidator.lazyValidator();
 
   @NotNull
   private String agent;
@@ -33,7 +48,9 @@ public class VerifyParams {
   @NotNull
   private String settingsDigest;
 
-  @NotNull(message = "Data cannot be empty")
+  /**
+   * the hex data, or dataBytes. setting one clears the other
+   */
   private String data;
 
   @NotNull
@@ -48,17 +65,28 @@ public class VerifyParams {
 
   private MetaDataStruct metaDataStruct;
 
-  public List<Type> toInputParameters() {
+  /**
+   * the data as bytes, set by the data(byte[]) and data(ByteBuffer) builders.
+   * a multi-megabyte payload is encoded from them without a hex copy.
+   * the last field, so the all args constructor keeps the earlier fields at their positions
+   */
+  private byte[] dataBytes;
+
+  /**
+   * the all args constructor from before dataBytes, with hex data
+   */
+  public VerifyParams(String agent, String settingsDigest, String data, String dataHash,
+      List<Sign.SignatureData> signatures, byte[] zkProofs, byte[] merkleProofs, MetaDataStruct metaDataStruct) {
+    this(agent, settingsDigest, data, dataHash, signatures, zkProofs, merkleProofs, metaDataStruct, null);
+  }
 
-    Set<ConstraintViolation<VerifyParams>> violations = validator.validate(this);
-    if (!violations.isEmpty()) {
-      throw new ConstraintViolationException(violations);
-    }
+  public List<Type> toInputParameters() {
+    validate();
 
     Address agentAddress = new Address(this.getAgent());
     Bytes32 digest = new Bytes32(Utils.toBytes(this.getSettingsDigest()));
     Bytes32 dataHashBytes = new Bytes32(Utils.toBytes(this.getDataHash()));
-    byte[] dataBytes = Utils.toBytes(this.getData());
+    byte[] dataBytes = toDataBytes();
 
     String signatureProof = encodeSignaturesToString(this.getSignatures());
 
@@ -84,4 +112,88 @@ public class VerifyParams {
 
     return List.of(agentAddress, digest, messagePayload);
   }
+
+  /**
+   * the hex data, converted from dataBytes when only they were set
+   */
+  public String getData() {
+    if (data == null && dataBytes != null) {
+      return Numeric.toHexString(dataBytes);
+    }
+    return data;
+  }
+
+  public void setData(String data) {
+    this.data = data;
+    this.dataBytes = null;
+  }
+
+  /**
+   * the data as bytes, kept without a copy
+   */
+  public void setDataBytes(byte[] dataBytes) {
+    this.dataBytes = dataBytes;
+    this.data = null;
+  }
+
+  /**
+   * the data as bytes, without a hex round trip when dataBytes were set
+   */
+  public byte[] toDataBytes() {
+    return dataBytes != null ? dataBytes : Utils.toBytes(data);
+  }
+
+  @AssertTrue(message = "Data cannot be empty")
+  public boolean isDataPresent() {
+    return data != null || dataBytes != null;
+  }
+
+  public void validate() {
+    long start = Metrics.start();
+    boolean success = false;
+    try {
+      ParamsValidator.validate(this);
+      success = true;
+    } finally {
+      Metrics.timing(Instrumentation.VALIDATE_VERIFY, start, success);
+    }
+  }
+
+  public static class VerifyParamsBuilder {
+
+    public VerifyParamsBuilder data(String data) {
+      this.data = data;
+      this.dataBytes = null;
+      return this;
+    }
+
+    /**
+     * the data as bytes, kept without a hex copy
+     */
+    public VerifyParamsBuilder data(byte[] data) {
+      return dataBytes(data);
+    }
+
+    public VerifyParamsBuilder dataBytes(byte[] dataBytes) {
+      this.dataBytes = dataBytes;
+      this.data = null;
+      return this;
+    }
+
+    /**
+     * the remaining bytes of data, the position of data is left unchanged. a heap buffer covering
+     * its whole array is kept without a copy as data(byte[]) keeps its array, so later writes to it
+     * change the params. any other buffer is copied once
+     */
+    public VerifyParamsBuilder data(ByteBuffer data) {
+      ByteBuffer remaining = data.duplicate();
+      if (remaining.hasArray() && remaining.arrayOffset() == 0 && remaining.position() == 0
+          && remaining.remaining() == remaining.array().length) {
+        return dataBytes(remaining.array());
+      }
+      byte[] copy = new byte[remaining.remaining()];
+      remaining.get(copy);
+      return dataBytes(copy);
+    }
+  }
 }
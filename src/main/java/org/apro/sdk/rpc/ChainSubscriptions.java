@@ -0,0 +1,128 @@
+package org.apro.sdk.rpc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.CompositeDisposable;
+import org.apro.sdk.index.AgentRegistryIndexer;
+import org.apro.sdk.tx.FeeOracle;
+import org.apro.sdk.tx.ReceiptWaiter;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthSubscribe;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.websocket.events.NewHeadsNotification;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Numeric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.apro.sdk.config.Constants.AGENT_REGISTERED_TOPIC;
+
+/**
+ * pushes the newHeads and AgentRegistered logs subscriptions of a websocket node to the
+ * receipt waiters and indexers, instead of them polling the node.
+ * the service must be a websocket transport, see ChainConfig.transport
+ *
+ * <pre>
+ * try (ChainSubscriptions subscriptions = new ChainSubscriptions(aiAgentCli.getWeb3jService())) {
+ *   subscriptions.attach(receiptWaiter);
+ *   subscriptions.attach(indexer, Collections.emptyList());
+ * }
+ * </pre>
+ */
+public class ChainSubscriptions implements AutoCloseable {
+
+  private final Web3jService service;
+  private final CompositeDisposable disposables = new CompositeDisposable();
+  // the indexer syncs block ranges over rpc, which must not run on the websocket thread
+  private final ExecutorService indexerExecutor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("indexer-sync-%d").setDaemon(true).build());
+
+  public ChainSubscriptions(Web3jService service) {
+    this.service = service;
+  }
+
+  /**
+   * push every new head to the waiter
+   */
+  public void attach(ReceiptWaiter waiter) {
+    disposables.add(newHeads().subscribe(
+        notification -> waiter.onNewBlock(Numeric.toBigInt(notification.getParams().getResult().getNumber())
+            .longValueExact()),
+        error -> {
+          // the waiter falls back to polling once the heads stop
+        }));
+  }
+
+  /**
+   * push every new head to the fee oracle
+   */
+  public void attach(FeeOracle feeOracle) {
+    disposables.add(newHeads().subscribe(
+        notification -> feeOracle.onNewBlock(Numeric.toBigInt(notification.getParams().getResult().getNumber())
+            .longValueExact()),
+        error -> {
+          // the oracle falls back to polling once the heads stop
+        }));
+  }
+
+  /**
+   * push the AgentRegistered logs of the addresses to the indexer, and sync it on every new head
+   * so that confirmed blocks are persisted
+   *
+   * @param addresses: the contracts emitting AgentRegistered, empty for any contract
+   */
+  public void attach(AgentRegistryIndexer indexer, List<String> addresses) {
+    disposables.add(logs(addresses)
+        .subscribe(notification -> indexer.onLog(notification.getParams().getResult()), error -> {
+          // sync still indexes the logs from eth_getLogs
+        }));
+    disposables.add(newHeads().subscribe(
+        notification -> indexerExecutor.execute(() -> {
+          try {
+            indexer.sync();
+          } catch (Exception e) {
+            // retried at the next head
+          }
+        }),
+        error -> {
+          // the indexer keeps its checkpoint, a later sync resumes from it
+        }));
+  }
+
+  @Override
+  public void close() {
+    disposables.dispose();
+    indexerExecutor.shutdown();
+  }
+
+  private Flowable<NewHeadsNotification> newHeads() {
+    return service.subscribe(
+        new Request<>("eth_subscribe", Collections.singletonList("newHeads"), service, EthSubscribe.class),
+        "eth_unsubscribe", NewHeadsNotification.class);
+  }
+
+  private Flowable<PushedLogNotification> logs(List<String> addresses) {
+    Map<String, Object> filter = new HashMap<>();
+    if (!addresses.isEmpty()) {
+      filter.put("address", addresses);
+    }
+    filter.put("topics", Collections.singletonList(AGENT_REGISTERED_TOPIC));
+    return service.subscribe(
+        new Request<>("eth_subscribe", Arrays.asList("logs", filter), service, EthSubscribe.class),
+        "eth_unsubscribe", PushedLogNotification.class);
+  }
+
+  /**
+   * a pushed log read as the Log of eth_getLogs, which keeps the removed flag of a log reorged out.
+   * the Log of web3j's LogNotification has no such flag
+   */
+  static class PushedLogNotification extends Notification<Log> {
+  }
+}
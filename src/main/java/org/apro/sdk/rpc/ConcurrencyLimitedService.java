@@ -0,0 +1,90 @@
+package org.apro.sdk.rpc;
+
+import io.reactivex.Flowable;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Async;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * caps the requests in flight on the transport, the callers beyond the cap wait for a permit.
+ * web3j's HttpService sends with OkHttp's blocking execute, which the dispatcher limits do not apply to,
+ * so the cap is held around every send instead
+ */
+public class ConcurrencyLimitedService implements Web3jService {
+
+  private final Web3jService delegate;
+  private final Semaphore permits;
+
+  public ConcurrencyLimitedService(Web3jService delegate, int maxConcurrentRequests) {
+    if (maxConcurrentRequests <= 0) {
+      throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+    }
+    this.delegate = delegate;
+    this.permits = new Semaphore(maxConcurrentRequests);
+  }
+
+  @Override
+  public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+    acquire();
+    try {
+      return delegate.send(request, responseType);
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * sent on web3j's async executor, which waits for the permit instead of the caller
+   */
+  @Override
+  public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+    return Async.run(() -> send(request, responseType));
+  }
+
+  /**
+   * a batch takes one permit, it is one http request
+   */
+  @Override
+  public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+    acquire();
+    try {
+      return delegate.sendBatch(batchRequest);
+    } finally {
+      permits.release();
+    }
+  }
+
+  @Override
+  public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+    return Async.run(() -> sendBatch(batchRequest));
+  }
+
+  @Override
+  public <T extends Notification<?>> Flowable<T> subscribe(
+      Request request, String unsubscribeMethod, Class<T> responseType) {
+    return delegate.subscribe(request, unsubscribeMethod, responseType);
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+  private void acquire() throws InterruptedIOException {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted waiting for a request permit");
+    }
+  }
+}
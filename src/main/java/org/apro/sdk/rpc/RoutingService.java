@@ -0,0 +1,282 @@
+package org.apro.sdk.rpc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.reactivex.Flowable;
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * a transport over several http endpoints of the same chain.
+ * reads go to the endpoint with the lowest EWMA latency, weighted by its error rate, and are
+ * hedged to the next endpoint once they take longer than the about-p95 latency of the first one.
+ * broadcasts are never hedged, they fail over to the next endpoint on a transport failure only,
+ * so a JSON-RPC error like nonce too low is returned as is.
+ * an endpoint failing several times in a row is ejected for a while and only tried as a last resort
+ *
+ * <pre>
+ * ChainConfig config = new ChainConfig(null, chainId, proxyAddress);
+ * config.setServerUrls(Arrays.asList(url1, url2, url3));
+ * AiAgentCli aiAgentCli = new AiAgentCli(config);
+ * </pre>
+ */
+public class RoutingService implements Web3jService {
+
+  private static final String BATCH = "batch";
+  private static final Set<String> WRITE_METHODS = new HashSet<>(Arrays.asList(
+      "eth_sendRawTransaction", "eth_sendTransaction"));
+
+  private final List<RpcEndpoint> endpoints;
+  private final boolean hedgeReads;
+  private final long minHedgeDelayNanos;
+  private final ExecutorService executor = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("rpc-routing-%d").setDaemon(true).build());
+
+  /**
+   * @param minHedgeDelayMillis: a read is never hedged before this delay
+   */
+  public RoutingService(List<RpcEndpoint> endpoints, boolean hedgeReads, long minHedgeDelayMillis) {
+    if (endpoints.isEmpty()) {
+      throw new IllegalArgumentException("no rpc endpoint");
+    }
+    this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+    this.hedgeReads = hedgeReads;
+    this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMillis);
+  }
+
+  public List<RpcEndpoint> getEndpoints() {
+    return endpoints;
+  }
+
+  @Override
+  public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+    Call<T> call = endpoint -> endpoint.getService().send(request, responseType);
+    String method = request.getMethod();
+    return isWrite(method) ? failover(rank(), method, call) : read(method, call);
+  }
+
+  @Override
+  public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+    return async(() -> send(request, responseType));
+  }
+
+  @Override
+  public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+    Call<BatchResponse> call = endpoint -> endpoint.getService().sendBatch(batchRequest);
+    for (Request<?, ? extends Response<?>> request : batchRequest.getRequests()) {
+      if (isWrite(request.getMethod())) {
+        return failover(rank(), BATCH, call);
+      }
+    }
+    return read(BATCH, call);
+  }
+
+  @Override
+  public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+    return async(() -> sendBatch(batchRequest));
+  }
+
+  @Override
+  public <T extends Notification<?>> Flowable<T> subscribe(
+      Request request, String unsubscribeMethod, Class<T> responseType) {
+    throw new UnsupportedOperationException("subscriptions require a websocket transport");
+  }
+
+  @Override
+  public void close() throws IOException {
+    executor.shutdownNow();
+    IOException failure = null;
+    for (RpcEndpoint endpoint : endpoints) {
+      try {
+        endpoint.getService().close();
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private <T> T read(String method, Call<T> call) throws IOException {
+    List<RpcEndpoint> ranked = rank();
+    if (!hedgeReads || ranked.size() == 1) {
+      return failover(ranked, method, call);
+    }
+    RpcEndpoint primary = ranked.get(0);
+    CompletableFuture<T> first = submit(primary, method, call);
+    try {
+      return first.get(primary.hedgeDelayNanos(minHedgeDelayNanos), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // the primary is slower than usual, the first of the two to answer wins
+      try {
+        return firstSuccessful(Arrays.asList(first, submit(ranked.get(1), method, call)));
+      } catch (InterruptedIOException interrupted) {
+        throw interrupted;
+      } catch (IOException failure) {
+        if (ranked.size() == 2) {
+          throw failure;
+        }
+        // both hedged attempts failed, the other endpoints are tried in turn
+        return failover(ranked.subList(2, ranked.size()), method, call);
+      }
+    } catch (ExecutionException e) {
+      return failover(ranked.subList(1, ranked.size()), method, call);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while waiting for " + primary.getUrl());
+    }
+  }
+
+  private <T> T failover(List<RpcEndpoint> ranked, String method, Call<T> call) throws IOException {
+    IOException failure = null;
+    for (RpcEndpoint endpoint : ranked) {
+      try {
+        return timed(endpoint, method, call);
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    throw failure;
+  }
+
+  private <T> CompletableFuture<T> submit(RpcEndpoint endpoint, String method, Call<T> call) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return timed(endpoint, method, call);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * one attempt on the endpoint, measured for the ranking and reported to the Instrumentation
+   * with the endpoint host
+   */
+  private static <T> T timed(RpcEndpoint endpoint, String method, Call<T> call) throws IOException {
+    Instrumentation instrumentation = Metrics.getInstrumentation();
+    long start = System.nanoTime();
+    T result;
+    try {
+      result = call.call(endpoint);
+    } catch (IOException e) {
+      endpoint.onFailure();
+      instrumentation.onEndpointRpc(endpoint.getHost(), method, System.nanoTime() - start, false);
+      throw e;
+    }
+    long elapsed = System.nanoTime() - start;
+    endpoint.onSuccess(elapsed);
+    if (instrumentation != Instrumentation.NOOP) {
+      instrumentation.onEndpointRpc(endpoint.getHost(), method, elapsed, true);
+      reportErrors(instrumentation, endpoint, method, result);
+    }
+    return result;
+  }
+
+  private static void reportErrors(Instrumentation instrumentation, RpcEndpoint endpoint, String method,
+      Object result) {
+    if (result instanceof Response) {
+      Response<?> response = (Response<?>) result;
+      if (response.hasError()) {
+        instrumentation.onEndpointRpcError(endpoint.getHost(), method, response.getError().getCode());
+      }
+    } else if (result instanceof BatchResponse) {
+      for (Response<?> response : ((BatchResponse) result).getResponses()) {
+        if (response.hasError()) {
+          instrumentation.onEndpointRpcError(endpoint.getHost(), method, response.getError().getCode());
+        }
+      }
+    }
+  }
+
+  private static <T> T firstSuccessful(List<CompletableFuture<T>> futures) throws IOException {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    AtomicInteger failures = new AtomicInteger();
+    for (CompletableFuture<T> future : futures) {
+      future.whenComplete((value, e) -> {
+        if (e == null) {
+          result.complete(value);
+        } else if (failures.incrementAndGet() == futures.size()) {
+          result.completeExceptionally(e);
+        }
+      });
+    }
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while waiting for a hedged read");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  private <T> CompletableFuture<T> async(Callable<T> call) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return call.call();
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  private List<RpcEndpoint> rank() {
+    long now = System.nanoTime();
+    List<RpcEndpoint> ranked = new ArrayList<>(endpoints);
+    // the scores are read once, a concurrent update must not break the sort contract
+    double[] scores = new double[ranked.size()];
+    for (int i = 0; i < scores.length; i++) {
+      scores[i] = ranked.get(i).score(now);
+    }
+    Integer[] order = new Integer[scores.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingDouble(i -> scores[i]));
+    List<RpcEndpoint> result = new ArrayList<>(order.length);
+    for (Integer i : order) {
+      result.add(ranked.get(i));
+    }
+    return result;
+  }
+
+  private static boolean isWrite(String method) {
+    return WRITE_METHODS.contains(method);
+  }
+
+  @FunctionalInterface
+  private interface Call<T> {
+
+    T call(RpcEndpoint endpoint) throws IOException;
+  }
+}
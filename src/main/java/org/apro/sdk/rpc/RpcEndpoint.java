@@ -0,0 +1,110 @@
+package org.apro.sdk.rpc;
+
+import lombok.Getter;
+import org.web3j.protocol.Web3jService;
+
+import java.net.URI;
+
+/**
+ * a node of a RoutingService with its EWMA latency and error rate.
+ * a JSON-RPC error response counts as a success, only transport failures count as errors
+ */
+public class RpcEndpoint {
+
+  private static final double ALPHA = 0.2;
+  private static final int MAX_CONSECUTIVE_FAILURES = 3;
+  private static final long EJECT_NANOS = 30_000_000_000L;
+  /**
+   * the latency an error rate of 1 adds to the score. the latency of an endpoint that never
+   * succeeded is 0, without this its failures would not move it down the ranking
+   */
+  private static final double ERROR_PENALTY_NANOS = 1_000_000_000d;
+
+  @Getter
+  private final String url;
+  /**
+   * the host of the url, the endpoint tag of the metrics
+   */
+  @Getter
+  private final String host;
+  @Getter
+  private final Web3jService service;
+  private final long ejectNanos;
+
+  private double latencyNanos;
+  private double latencyDeviationNanos;
+  private double errorRate;
+  private int consecutiveFailures;
+  private long ejectedUntil;
+
+  public RpcEndpoint(String url, Web3jService service) {
+    this(url, service, EJECT_NANOS);
+  }
+
+  RpcEndpoint(String url, Web3jService service, long ejectNanos) {
+    this.url = url;
+    this.host = hostOf(url);
+    this.service = service;
+    this.ejectNanos = ejectNanos;
+  }
+
+  synchronized void onSuccess(long elapsedNanos) {
+    if (latencyNanos == 0) {
+      latencyNanos = elapsedNanos;
+      latencyDeviationNanos = elapsedNanos / 2.0;
+    } else {
+      latencyDeviationNanos += ALPHA * (Math.abs(elapsedNanos - latencyNanos) - latencyDeviationNanos);
+      latencyNanos += ALPHA * (elapsedNanos - latencyNanos);
+    }
+    errorRate *= 1 - ALPHA;
+    consecutiveFailures = 0;
+  }
+
+  synchronized void onFailure() {
+    errorRate += ALPHA * (1 - errorRate);
+    if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+      ejectedUntil = System.nanoTime() + ejectNanos;
+      consecutiveFailures = 0;
+    }
+  }
+
+  /**
+   * the lower the better, an ejected endpoint ranks after all healthy ones
+   */
+  synchronized double score(long now) {
+    double score = latencyNanos * (1 + 10 * errorRate) + ERROR_PENALTY_NANOS * errorRate;
+    return isEjected(now) ? Double.MAX_VALUE / 2 + score : score;
+  }
+
+  /**
+   * about the p95 latency, estimated as the mean plus two mean deviations
+   */
+  synchronized long hedgeDelayNanos(long minNanos) {
+    return Math.max(minNanos, (long) (latencyNanos + 2 * latencyDeviationNanos));
+  }
+
+  public synchronized double getLatencyMillis() {
+    return latencyNanos / 1_000_000;
+  }
+
+  public synchronized double getErrorRate() {
+    return errorRate;
+  }
+
+  public synchronized boolean isHealthy() {
+    return !isEjected(System.nanoTime());
+  }
+
+  private static String hostOf(String url) {
+    try {
+      String host = URI.create(url).getHost();
+      return host != null ? host : url;
+    } catch (IllegalArgumentException e) {
+      return url;
+    }
+  }
+
+  private boolean isEjected(long now) {
+    return ejectedUntil != 0 && now - ejectedUntil < 0;
+  }
+}
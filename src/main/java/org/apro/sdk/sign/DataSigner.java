@@ -0,0 +1,22 @@
+package org.apro.sdk.sign;
+
+import org.web3j.crypto.Sign;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * a signer of the verify data, local or remote (HSM, KMS, another service).
+ * the future may be cancelled once the threshold is reached, a remote signer should abort its request then
+ */
+public interface DataSigner {
+
+  /**
+   * the address the signature is expected to recover to
+   */
+  String getAddress();
+
+  /**
+   * sign the keccak256 hash of the data, without the ethereum message prefix
+   */
+  CompletableFuture<Sign.SignatureData> sign(byte[] dataHash);
+}
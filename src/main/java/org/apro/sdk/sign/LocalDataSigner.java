@@ -0,0 +1,36 @@
+package org.apro.sdk.sign;
+
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Sign;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * signs with local credentials on the executor
+ */
+public class LocalDataSigner implements DataSigner {
+
+  private final Credentials credentials;
+  private final Executor executor;
+
+  public LocalDataSigner(Credentials credentials) {
+    this(credentials, ForkJoinPool.commonPool());
+  }
+
+  public LocalDataSigner(Credentials credentials, Executor executor) {
+    this.credentials = credentials;
+    this.executor = executor;
+  }
+
+  @Override
+  public String getAddress() {
+    return credentials.getAddress();
+  }
+
+  @Override
+  public CompletableFuture<Sign.SignatureData> sign(byte[] dataHash) {
+    return CompletableFuture.supplyAsync(() -> Sign.signMessage(dataHash, credentials.getEcKeyPair(), false), executor);
+  }
+}
@@ -0,0 +1,174 @@
+package org.apro.sdk.sign;
+
+import org.apro.sdk.params.AgentSettingsParams;
+import org.apro.sdk.util.Utils;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * collects the M-of-N signatures of the verify data from the signers in parallel.
+ * every signature is checked by ecrecover against the signer set of the agent, the result completes
+ * as soon as the threshold of distinct signers is reached and the signers still running are cancelled.
+ * the signatures are ordered by ascending signer address, the order the signature proof is checked in
+ *
+ * <pre>
+ * SignatureAggregator aggregator = SignatureAggregator.of(agentSettingsParams);
+ * List&lt;Sign.SignatureData&gt; signatures = aggregator.collect(data, Arrays.asList(
+ *     new LocalDataSigner(Credentials.create("${SIGNER1_PRIKEY}")),
+ *     new LocalDataSigner(Credentials.create("${SIGNER2_PRIKEY}")))).get();
+ * </pre>
+ */
+public class SignatureAggregator {
+
+  private final Set<String> signerSet = new HashSet<>();
+  private final int threshold;
+
+  /**
+   * @param signerSet: the signer addresses registered for the agent
+   * @param threshold: the signatures required
+   */
+  public SignatureAggregator(List<String> signerSet, int threshold) {
+    if (threshold <= 0 || threshold > signerSet.size()) {
+      throw new IllegalArgumentException("threshold must be between 1 and the signers length");
+    }
+    for (String signer : signerSet) {
+      this.signerSet.add(signer.toLowerCase(Locale.ROOT));
+    }
+    this.threshold = threshold;
+  }
+
+  public static SignatureAggregator of(AgentSettingsParams settings) {
+    List<String> signers = new ArrayList<>();
+    for (Address signer : settings.getSigners().getValue()) {
+      signers.add(signer.getValue());
+    }
+    return new SignatureAggregator(signers, settings.getThreshold().getValue().intValue());
+  }
+
+  /**
+   * @param data: the hex data of VerifyParams.data
+   * @return the ordered signatures of the first threshold signers to answer with a valid signature.
+   * fails with IllegalArgumentException right away when there are fewer signers than the threshold,
+   * and with IllegalStateException once the threshold can no longer be reached
+   */
+  public CompletableFuture<List<Sign.SignatureData>> collect(String data, List<? extends DataSigner> signers) {
+    return collect(Utils.toBytes(data), signers);
+  }
+
+  /**
+   * @param data: the data as bytes, e.g. VerifyParams.toDataBytes()
+   */
+  public CompletableFuture<List<Sign.SignatureData>> collect(byte[] data, List<? extends DataSigner> signers) {
+    if (signers.size() < threshold) {
+      // with no signer at all nothing would ever complete the round
+      return CompletableFuture.failedFuture(new IllegalArgumentException("only " + signers.size()
+          + " signers for a threshold of " + threshold));
+    }
+    byte[] dataHash = Hash.sha3(data);
+    Round round = new Round(signers.size());
+    List<CompletableFuture<Sign.SignatureData>> futures = new ArrayList<>(signers.size());
+    for (DataSigner signer : signers) {
+      if (!signerSet.contains(signer.getAddress().toLowerCase(Locale.ROOT))) {
+        round.onFailure(signer, new IllegalArgumentException(signer.getAddress() + " is not a signer of the agent"));
+        continue;
+      }
+      CompletableFuture<Sign.SignatureData> future;
+      try {
+        // every signer gets its own copy, a remote signer may keep or change the array
+        future = signer.sign(dataHash.clone());
+      } catch (RuntimeException e) {
+        round.onFailure(signer, e);
+        continue;
+      }
+      futures.add(future);
+      future.whenComplete((signature, e) -> {
+        if (e != null) {
+          round.onFailure(signer, e);
+        } else {
+          round.onSignature(signer, dataHash, signature);
+        }
+      });
+    }
+    // the stragglers are cancelled whether the threshold was reached, missed or timed out by the caller
+    round.result.whenComplete((signatures, e) -> futures.forEach(future -> future.cancel(true)));
+    return round.result;
+  }
+
+  private static String recover(byte[] dataHash, Sign.SignatureData signature) throws SignatureException {
+    BigInteger publicKey = Sign.signedMessageHashToKey(dataHash, signature);
+    return Numeric.prependHexPrefix(Keys.getAddress(publicKey)).toLowerCase(Locale.ROOT);
+  }
+
+  private class Round {
+
+    private final CompletableFuture<List<Sign.SignatureData>> result = new CompletableFuture<>();
+    // by signer address, sorted ascending
+    private final Map<String, Sign.SignatureData> signatures = new TreeMap<>();
+    private int remaining;
+    private Throwable lastFailure;
+
+    private Round(int signers) {
+      this.remaining = signers;
+    }
+
+    private void onSignature(DataSigner signer, byte[] dataHash, Sign.SignatureData signature) {
+      String address;
+      try {
+        address = recover(dataHash, signature);
+      } catch (SignatureException | RuntimeException e) {
+        onFailure(signer, e);
+        return;
+      }
+      if (!signerSet.contains(address)) {
+        onFailure(signer, new IllegalStateException("the signature of " + signer.getAddress()
+            + " recovers to " + address + ", not a signer of the agent"));
+        return;
+      }
+      synchronized (this) {
+        remaining--;
+        if (result.isDone()) {
+          return;
+        }
+        signatures.putIfAbsent(address, signature);
+        if (signatures.size() == threshold) {
+          result.complete(new ArrayList<>(signatures.values()));
+        } else {
+          checkReachable();
+        }
+      }
+    }
+
+    private synchronized void onFailure(DataSigner signer, Throwable e) {
+      remaining--;
+      lastFailure = e;
+      if (!result.isDone()) {
+        checkReachable();
+      }
+    }
+
+    private void checkReachable() {
+      if (signatures.size() + remaining < threshold) {
+        IllegalStateException failure = new IllegalStateException("only " + signatures.size()
+            + " of the " + threshold + " signatures required were collected");
+        if (lastFailure != null) {
+          failure.addSuppressed(lastFailure);
+        }
+        result.completeExceptionally(failure);
+      }
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package org.apro.sdk.sign;
+
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * signs the transactions of one key for one chain.
+ * Credentials.create parses the key and derives the public key with an EC point multiplication,
+ * a signer derives the credentials once and keeps them for as long as the caller keeps the signer.
+ * a caller signing with many keys keeps its signers in a TxSignerCache
+ *
+ * <pre>
+ * TxSigner signer = TxSigner.of("${PRIKEY}", aiAgentCli.getConfig().getChainId());
+ * List&lt;byte[]&gt; signedTxs = signer.signAll(rawTransactions);
+ * </pre>
+ */
+public class TxSigner {
+
+  private final Credentials credentials;
+  private final long chainId;
+
+  public TxSigner(Credentials credentials, long chainId) {
+    this.credentials = credentials;
+    this.chainId = chainId;
+  }
+
+  public static TxSigner of(String priKey, long chainId) {
+    return new TxSigner(Credentials.create(TxSignerCache.normalize(priKey)), chainId);
+  }
+
+  public String getAddress() {
+    return credentials.getAddress();
+  }
+
+  public long getChainId() {
+    return chainId;
+  }
+
+  public byte[] sign(RawTransaction tx) {
+    long start = Metrics.start();
+    byte[] signed = TransactionEncoder.signMessage(tx, chainId, credentials);
+    Metrics.timing(Instrumentation.SIGN, start, true);
+    return signed;
+  }
+
+  /**
+   * sign the transactions in parallel on the common fork join pool
+   *
+   * @return the signed transactions, in the order of txs
+   */
+  public List<byte[]> signAll(List<RawTransaction> txs) {
+    if (txs.size() < 2) {
+      List<byte[]> signed = new ArrayList<>(txs.size());
+      txs.forEach(tx -> signed.add(sign(tx)));
+      return signed;
+    }
+    return txs.parallelStream().map(this::sign).collect(Collectors.toList());
+  }
+}
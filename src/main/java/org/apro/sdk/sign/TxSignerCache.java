@@ -0,0 +1,70 @@
+package org.apro.sdk.sign;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.web3j.utils.Numeric;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.apro.sdk.config.Constants.SIGNER_KEY_CACHE_SIZE;
+
+/**
+ * the signers of the last used private keys, for a caller signing with many keys.
+ * the cache is owned by the caller, nothing is kept once the caller drops it or calls invalidateAll.
+ * the keys are normalized first, so the same key with or without the 0x prefix is derived once
+ *
+ * <pre>
+ * TxSignerCache signers = new TxSignerCache(chainId);
+ * byte[] signedTx = signers.get("${PRIKEY}").sign(rawTransaction);
+ * </pre>
+ */
+public class TxSignerCache {
+
+  private final Cache<String, TxSigner> signers;
+  private final long chainId;
+
+  public TxSignerCache(long chainId) {
+    this(chainId, SIGNER_KEY_CACHE_SIZE);
+  }
+
+  public TxSignerCache(long chainId, int maximumSize) {
+    this.chainId = chainId;
+    this.signers = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  /**
+   * the signer of the private key, derived once while the key stays in the cache
+   */
+  public TxSigner get(String priKey) {
+    String key = normalize(priKey);
+    try {
+      return signers.get(key, () -> TxSigner.of(key, chainId));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  public long size() {
+    return signers.size();
+  }
+
+  public void invalidateAll() {
+    signers.invalidateAll();
+  }
+
+  /**
+   * the key as 64 lowercase hex digits without the 0x prefix
+   */
+  static String normalize(String priKey) {
+    if (priKey == null || priKey.isEmpty()) {
+      throw new IllegalArgumentException("private key is empty");
+    }
+    return Numeric.toHexStringNoPrefixZeroPadded(Numeric.toBigInt(priKey), 64);
+  }
+}
@@ -0,0 +1,114 @@
+package org.apro.sdk.tx;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthEstimateGas;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * a gas limit linear in the calldata size, gas = baseGas + gasPerByte * bytes, times a safety margin.
+ * the gas of verify grows with the data, proofs and signatures it carries, which all land in the
+ * calldata, so a model fitted on a few eth_estimateGas samples prices a transaction without a request
+ *
+ * <pre>
+ * CalldataGasModel verifyGas = CalldataGasModel.calibrate(web3j, sender, proxy, sampleCalldata, 1.2);
+ * BigInteger gasLimit = verifyGas.estimate(calldata);
+ * </pre>
+ */
+public class CalldataGasModel {
+
+  // the gas of a non-zero calldata byte, used when a single sample cannot give a slope
+  private static final double CALLDATA_BYTE_GAS = 16;
+
+  private final double baseGas;
+  private final double gasPerByte;
+  private final double margin;
+
+  public CalldataGasModel(double baseGas, double gasPerByte, double margin) {
+    if (margin < 1) {
+      throw new IllegalArgumentException("margin must be greater than or equal to 1");
+    }
+    this.baseGas = baseGas;
+    this.gasPerByte = gasPerByte;
+    this.margin = margin;
+  }
+
+  /**
+   * fit the model with a least squares line over eth_estimateGas of the samples.
+   * the samples must be calls that succeed from the sender, e.g. verify calls with valid signatures,
+   * and should span the calldata sizes expected
+   *
+   * @param sampleCalldata: the hex calldata of the samples, selector included
+   * @param margin: the multiplier of the estimates, e.g. 1.2
+   */
+  public static CalldataGasModel calibrate(Web3j web3j, String from, String to, List<String> sampleCalldata,
+      double margin) throws IOException {
+    if (sampleCalldata.isEmpty()) {
+      throw new IllegalArgumentException("at least one sample is required");
+    }
+    int count = sampleCalldata.size();
+    double[] sizes = new double[count];
+    double[] gas = new double[count];
+    for (int i = 0; i < count; i++) {
+      String calldata = sampleCalldata.get(i);
+      EthEstimateGas response = web3j.ethEstimateGas(
+          Transaction.createEthCallTransaction(from, to, calldata)).send();
+      if (response.hasError()) {
+        throw new RuntimeException("eth_estimateGas failed for sample " + i + ": " + response.getError().getMessage());
+      }
+      sizes[i] = calldataBytes(calldata);
+      gas[i] = response.getAmountUsed().doubleValue();
+    }
+    return fit(sizes, gas, margin);
+  }
+
+  static CalldataGasModel fit(double[] sizes, double[] gas, double margin) {
+    int count = sizes.length;
+    double meanSize = 0;
+    double meanGas = 0;
+    for (int i = 0; i < count; i++) {
+      meanSize += sizes[i] / count;
+      meanGas += gas[i] / count;
+    }
+    double covariance = 0;
+    double variance = 0;
+    for (int i = 0; i < count; i++) {
+      covariance += (sizes[i] - meanSize) * (gas[i] - meanGas);
+      variance += (sizes[i] - meanSize) * (sizes[i] - meanSize);
+    }
+    // samples of one size give no slope, fall back to the calldata byte cost
+    double slope = variance > 0 ? Math.max(0, covariance / variance) : CALLDATA_BYTE_GAS;
+    return new CalldataGasModel(meanGas - slope * meanSize, slope, margin);
+  }
+
+  /**
+   * @param calldata: the hex calldata, selector included
+   */
+  public BigInteger estimate(String calldata) {
+    return estimate(calldataBytes(calldata));
+  }
+
+  public BigInteger estimate(long calldataBytes) {
+    return BigInteger.valueOf((long) Math.ceil((baseGas + gasPerByte * calldataBytes) * margin));
+  }
+
+  public double getBaseGas() {
+    return baseGas;
+  }
+
+  public double getGasPerByte() {
+    return gasPerByte;
+  }
+
+  public double getMargin() {
+    return margin;
+  }
+
+  private static long calldataBytes(String calldata) {
+    int digits = calldata.startsWith("0x") || calldata.startsWith("0X") ? calldata.length() - 2 : calldata.length();
+    return digits / 2;
+  }
+}
@@ -0,0 +1,170 @@
+package org.apro.sdk.tx;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthFeeHistory;
+import org.web3j.protocol.core.methods.response.EthGasPrice;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * keeps the gas price and the EIP-1559 fees of the chain, refreshed once per block in the background
+ * with one JSON-RPC batch of eth_gasPrice and eth_feeHistory, so that building a transaction reads
+ * them without any request. the new blocks are polled, or pushed with onNewBlock
+ *
+ * <pre>
+ * FeeOracle feeOracle = new FeeOracle(aiAgentCli.getWeb3j(), FeeOracleConfig.builder().build());
+ * Fees fees = feeOracle.getFees();
+ * </pre>
+ */
+public class FeeOracle implements AutoCloseable {
+
+  private final Web3j web3j;
+  private final FeeOracleConfig config;
+  private final ScheduledExecutorService scheduler;
+
+  private volatile Fees fees;
+
+  // only written by the scheduler thread
+  private long lastBlock = -1;
+  private long lastPushAt;
+
+  private volatile boolean closed;
+
+  public FeeOracle(Web3j web3j, FeeOracleConfig config) {
+    this.web3j = web3j;
+    this.config = config;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("fee-oracle-%d").setDaemon(true).build());
+    this.scheduler.execute(this::poll);
+  }
+
+  /**
+   * the fees of the last block seen, refreshed on the caller thread only before the first refresh
+   */
+  public Fees getFees() throws IOException {
+    Fees current = fees;
+    if (current == null) {
+      synchronized (this) {
+        current = fees;
+        if (current == null) {
+          current = fetch(-1);
+          fees = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * push a new head, e.g. from a newHeads subscription. the poll loop stops asking for
+   * the block number while heads keep being pushed
+   */
+  public void onNewBlock(long blockNumber) {
+    if (closed) {
+      return;
+    }
+    scheduler.execute(() -> {
+      lastPushAt = System.currentTimeMillis();
+      try {
+        refresh(blockNumber);
+      } catch (Exception e) {
+        // the fees of the previous block are kept until the next one
+      }
+    });
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    scheduler.shutdownNow();
+  }
+
+  private void poll() {
+    try {
+      if (System.currentTimeMillis() - lastPushAt >= 2 * config.getPollMillis()) {
+        refresh(web3j.ethBlockNumber().send().getBlockNumber().longValueExact());
+      }
+    } catch (Exception e) {
+      // a failing node is retried at the next poll, the last fees are kept
+    }
+    if (!closed) {
+      scheduler.schedule(this::poll, config.getPollMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void refresh(long block) throws IOException {
+    if (block <= lastBlock) {
+      return;
+    }
+    fees = fetch(block);
+    lastBlock = block;
+  }
+
+  private Fees fetch(long block) throws IOException {
+    BatchRequest batch = web3j.newBatch();
+    Request<?, EthGasPrice> gasPriceRequest = web3j.ethGasPrice();
+    Request<?, EthFeeHistory> feeHistoryRequest = web3j.ethFeeHistory(config.getBlockCount(),
+        DefaultBlockParameterName.LATEST, Collections.singletonList(config.getRewardPercentile()));
+    batch.add(gasPriceRequest).add(feeHistoryRequest);
+    EthGasPrice gasPrice = null;
+    EthFeeHistory feeHistory = null;
+    BatchResponse response = batch.send();
+    for (Response<?> item : response.getResponses()) {
+      if (item.getId() == gasPriceRequest.getId()) {
+        gasPrice = (EthGasPrice) item;
+      } else if (item.getId() == feeHistoryRequest.getId()) {
+        feeHistory = (EthFeeHistory) item;
+      }
+    }
+    if (gasPrice == null || gasPrice.hasError()) {
+      throw new IOException("eth_gasPrice failed"
+          + (gasPrice != null ? ": " + gasPrice.getError().getMessage() : ""));
+    }
+    if (feeHistory == null || feeHistory.hasError() || feeHistory.getFeeHistory() == null
+        || feeHistory.getFeeHistory().getBaseFeePerGas() == null
+        || feeHistory.getFeeHistory().getBaseFeePerGas().isEmpty()) {
+      return new Fees(block, gasPrice.getGasPrice(), false, null, null, null);
+    }
+    EthFeeHistory.FeeHistory history = feeHistory.getFeeHistory();
+    // the last base fee of eth_feeHistory is the one of the next block
+    List<BigInteger> baseFees = history.getBaseFeePerGas();
+    BigInteger baseFee = baseFees.get(baseFees.size() - 1);
+    BigInteger priorityFee = medianReward(history.getReward());
+    if (priorityFee == null) {
+      priorityFee = gasPrice.getGasPrice().subtract(baseFee).max(BigInteger.ZERO);
+    }
+    priorityFee = priorityFee.max(config.getMinPriorityFeePerGas());
+    BigInteger maxFee = baseFee.multiply(BigInteger.valueOf(config.getBaseFeeMultiplier())).add(priorityFee);
+    return new Fees(block, gasPrice.getGasPrice(), true, baseFee, priorityFee, maxFee);
+  }
+
+  private static BigInteger medianReward(List<List<BigInteger>> rewards) {
+    if (rewards == null) {
+      return null;
+    }
+    List<BigInteger> values = new ArrayList<>(rewards.size());
+    for (List<BigInteger> reward : rewards) {
+      if (reward != null && !reward.isEmpty()) {
+        values.add(reward.get(0));
+      }
+    }
+    if (values.isEmpty()) {
+      return null;
+    }
+    Collections.sort(values);
+    return values.get(values.size() / 2);
+  }
+}
@@ -0,0 +1,42 @@
+package org.apro.sdk.tx;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigInteger;
+
+@Getter
+@Builder
+public class FeeOracleConfig {
+
+  /**
+   * how often the block number is polled while no head is pushed, 3s for BSC
+   */
+  @Builder.Default
+  private long pollMillis = 3_000;
+
+  /**
+   * the blocks of eth_feeHistory the priority fee is taken over
+   */
+  @Builder.Default
+  private int blockCount = 5;
+
+  /**
+   * the percentile of the priority fees paid in each block
+   */
+  @Builder.Default
+  private double rewardPercentile = 50;
+
+  /**
+   * maxFeePerGas is the next base fee times this multiplier plus the priority fee,
+   * 2 keeps a transaction valid through six full blocks in a row
+   */
+  @Builder.Default
+  private int baseFeeMultiplier = 2;
+
+  /**
+   * the lowest priority fee offered
+   */
+  @Builder.Default
+  private BigInteger minPriorityFeePerGas = BigInteger.ZERO;
+}
@@ -0,0 +1,40 @@
+package org.apro.sdk.tx;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigInteger;
+
+/**
+ * the fees of a FeeOracle refresh
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class Fees {
+
+  /**
+   * the block the fees were refreshed at, -1 for the first refresh on the caller thread
+   */
+  private final long blockNumber;
+
+  /**
+   * eth_gasPrice, for legacy transactions
+   */
+  private final BigInteger gasPrice;
+
+  /**
+   * false if the node does not serve eth_feeHistory, only gasPrice is set then
+   */
+  private final boolean eip1559;
+
+  /**
+   * the base fee of the next block
+   */
+  private final BigInteger baseFeePerGas;
+
+  private final BigInteger maxPriorityFeePerGas;
+
+  private final BigInteger maxFeePerGas;
+}
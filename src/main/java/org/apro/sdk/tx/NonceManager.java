@@ -0,0 +1,157 @@
+package org.apro.sdk.tx;
+
+import org.apro.sdk.util.ChainUtil;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Response;
+
+import java.math.BigInteger;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * hands out the nonces of local signers without a round trip per transaction.
+ * the counter of an address is seeded once from its PENDING transaction count and then
+ * incremented locally, so concurrent callers never get the same nonce.
+ *
+ * <pre>
+ * BigInteger nonce = nonceManager.next(address);
+ * EthSendTransaction response = ChainUtil.broadcast(signTx(..., nonce, ...), web3j);
+ * if (response.hasError()) {
+ *   nonceManager.onBroadcastError(address, nonce, response.getError());
+ * }
+ * </pre>
+ */
+public class NonceManager {
+
+  private final Web3j web3j;
+  private final ConcurrentMap<String, AccountNonce> accounts = new ConcurrentHashMap<>();
+
+  public NonceManager(Web3j web3j) {
+    this.web3j = web3j;
+  }
+
+  /**
+   * take the next nonce of the address. a nonce released by a failed broadcast is handed out
+   * again before the counter moves on, so that it does not leave a gap
+   */
+  public BigInteger next(String address) {
+    AccountNonce account = account(address);
+    Long released = account.released.pollFirst();
+    if (released != null) {
+      return BigInteger.valueOf(released);
+    }
+    return BigInteger.valueOf(account.next.getAndIncrement());
+  }
+
+  /**
+   * the nonce the counter hands out next, without taking it
+   */
+  public BigInteger peek(String address) {
+    return BigInteger.valueOf(account(address).next.get());
+  }
+
+  /**
+   * give back a nonce whose transaction was never accepted by the node
+   */
+  public void release(String address, BigInteger nonce) {
+    AccountNonce account = account(address);
+    long value = nonce.longValueExact();
+    // the nonce was the last one taken, so simply roll the counter back
+    if (!account.next.compareAndSet(value + 1, value)) {
+      account.released.add(value);
+    }
+  }
+
+  /**
+   * reseed the counter of the address from its PENDING transaction count and forget
+   * the released nonces, the chain is authoritative after a nonce error
+   */
+  public BigInteger resync(String address) {
+    AccountNonce account = account(address);
+    long pending = fetchPending(address);
+    account.released.clear();
+    account.next.set(pending);
+    return BigInteger.valueOf(pending);
+  }
+
+  /**
+   * drop the counter of the address, the next call seeds it again from the node
+   */
+  public void reset(String address) {
+    accounts.remove(key(address));
+  }
+
+  /**
+   * handle the error of a broadcast that used the nonce:
+   * "nonce too low" resyncs the counter, an error telling that the node already holds a transaction
+   * at the nonce keeps it taken, any other error means the transaction was refused and releases the nonce for reuse
+   *
+   * @return true if the counter was resynced and the transaction must be signed again with a new nonce
+   */
+  public boolean onBroadcastError(String address, BigInteger nonce, Response.Error error) {
+    if (isNonceTooLow(error)) {
+      resync(address);
+      return true;
+    }
+    if (!isNonceHeld(error)) {
+      release(address, nonce);
+    }
+    return false;
+  }
+
+  public static boolean isNonceTooLow(Response.Error error) {
+    String message = message(error);
+    return message.contains("nonce too low") || message.contains("nonce is too low");
+  }
+
+  /**
+   * the node already holds a transaction at the nonce, this one or another: reissuing the nonce to
+   * another message would replace it or get stuck behind it
+   */
+  public static boolean isNonceHeld(Response.Error error) {
+    String message = message(error);
+    return message.contains("already known") || message.contains("known transaction")
+        || message.contains("replacement transaction underpriced");
+  }
+
+  private static String message(Response.Error error) {
+    if (error == null || error.getMessage() == null) {
+      return "";
+    }
+    return error.getMessage().toLowerCase(Locale.ROOT);
+  }
+
+  private AccountNonce account(String address) {
+    String key = key(address);
+    AccountNonce account = accounts.get(key);
+    if (account != null) {
+      return account;
+    }
+    // seed outside of the map so that a slow node does not block the other addresses
+    AccountNonce seeded = new AccountNonce(fetchPending(address));
+    AccountNonce existing = accounts.putIfAbsent(key, seeded);
+    return existing != null ? existing : seeded;
+  }
+
+  private long fetchPending(String address) {
+    return ChainUtil.getNonce(address, web3j, DefaultBlockParameterName.PENDING).longValueExact();
+  }
+
+  private static String key(String address) {
+    return address.toLowerCase(Locale.ROOT);
+  }
+
+  private static class AccountNonce {
+
+    private final AtomicLong next;
+    private final ConcurrentSkipListSet<Long> released = new ConcurrentSkipListSet<>();
+
+    private AccountNonce(long next) {
+      this.next = new AtomicLong(next);
+    }
+  }
+}
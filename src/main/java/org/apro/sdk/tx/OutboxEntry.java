@@ -0,0 +1,51 @@
+package org.apro.sdk.tx;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigInteger;
+
+/**
+ * a signed transaction of the TxOutbox, with its last recorded status
+ */
+@Getter
+@ToString(exclude = "signedTx")
+public class OutboxEntry {
+
+  private final String txHash;
+  private final String from;
+  private final BigInteger nonce;
+
+  /**
+   * the message the transaction carries, e.g. the messageId of AgentSettingsParams, empty if none
+   */
+  private final String messageId;
+
+  private final byte[] signedTx;
+
+  private volatile OutboxStatus status;
+
+  // the journal position of its signed record, guarded by the TxOutbox
+  private long position;
+
+  OutboxEntry(String txHash, String from, BigInteger nonce, String messageId, byte[] signedTx, OutboxStatus status) {
+    this.txHash = txHash;
+    this.from = from;
+    this.nonce = nonce;
+    this.messageId = messageId;
+    this.signedTx = signedTx;
+    this.status = status;
+  }
+
+  void setStatus(OutboxStatus status) {
+    this.status = status;
+  }
+
+  long getPosition() {
+    return position;
+  }
+
+  void setPosition(long position) {
+    this.position = position;
+  }
+}
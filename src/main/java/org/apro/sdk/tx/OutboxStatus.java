@@ -0,0 +1,58 @@
+package org.apro.sdk.tx;
+
+/**
+ * the states of a signed transaction in the TxOutbox
+ */
+public enum OutboxStatus {
+
+  /**
+   * signed and durable, not broadcast yet
+   */
+  SIGNED(1, false),
+
+  /**
+   * accepted by the node, no receipt yet
+   */
+  BROADCAST(2, false),
+
+  CONFIRMED(3, true),
+
+  REVERTED(4, true),
+
+  /**
+   * refused by the node for good, e.g. an invalid signature or intrinsic gas too low.
+   * a transaction refused for a while, e.g. underpriced or a full txpool, keeps its status
+   * and is broadcast again by reconcile
+   */
+  REJECTED(5, true),
+
+  /**
+   * the nonce was taken by another transaction
+   */
+  DROPPED(6, true);
+
+  private final byte code;
+  private final boolean terminal;
+
+  OutboxStatus(int code, boolean terminal) {
+    this.code = (byte) code;
+    this.terminal = terminal;
+  }
+
+  public boolean isTerminal() {
+    return terminal;
+  }
+
+  byte getCode() {
+    return code;
+  }
+
+  static OutboxStatus of(byte code) {
+    for (OutboxStatus status : values()) {
+      if (status.code == code) {
+        return status;
+      }
+    }
+    throw new IllegalArgumentException("unknown outbox status " + code);
+  }
+}
@@ -0,0 +1,234 @@
+package org.apro.sdk.tx;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apro.sdk.AiAgentCli;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * waits for the receipts of many transactions with one poll loop.
+ * a poll asks for the block number and, only when a new block arrived, requests the receipts of
+ * all pending transactions in JSON-RPC batch requests. the next poll is timed by the measured
+ * block time, so the cost is a few requests per block however many transactions are pending.
+ *
+ * <pre>
+ * ReceiptWaiter waiter = new ReceiptWaiter(aiAgentCli.getWeb3j(), ReceiptWaiterConfig.builder().build());
+ * CompletableFuture&lt;String&gt; agent = waiter.waitForAgentAddress(txHash);
+ * </pre>
+ */
+public class ReceiptWaiter implements AutoCloseable {
+
+  private final Web3j web3j;
+  private final ReceiptWaiterConfig config;
+  private final Map<String, PendingTx> pending = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService scheduler;
+
+  // only written by the scheduler thread
+  private long lastBlock = -1;
+  private long lastBlockAt;
+  private long lastPushAt;
+  private volatile long blockTimeMillis;
+
+  private volatile boolean closed;
+
+  public ReceiptWaiter(Web3j web3j, ReceiptWaiterConfig config) {
+    this.web3j = web3j;
+    this.config = config;
+    this.blockTimeMillis = config.getInitialBlockTimeMillis();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("receipt-waiter-%d").setDaemon(true).build());
+    this.scheduler.schedule(this::poll, config.getMinPollMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * the future completes with the receipt, or fails with TransactionRevertedException
+   * or TransactionTimeoutException
+   */
+  public CompletableFuture<TransactionReceipt> waitForReceipt(String txHash) {
+    if (closed) {
+      throw new IllegalStateException("receipt waiter is closed");
+    }
+    return pending.computeIfAbsent(txHash,
+        hash -> new PendingTx(System.currentTimeMillis() + config.getTimeoutMillis())).future;
+  }
+
+  /**
+   * the future completes with the agent address of the AgentRegistered log,
+   * the transaction should be the one that accepted the agent
+   */
+  public CompletableFuture<String> waitForAgentAddress(String txHash) {
+    return waitForReceipt(txHash).thenApply(receipt -> {
+      String agent = AiAgentCli.agentAddressOf(receipt);
+      if (agent == null) {
+        throw new IllegalStateException("no AgentRegistered log in transaction " + txHash);
+      }
+      return agent;
+    });
+  }
+
+  /**
+   * push a new head, e.g. from a newHeads subscription. the receipts are fetched right away
+   * and the poll loop stops asking for the block number while heads keep being pushed
+   */
+  public void onNewBlock(long blockNumber) {
+    if (closed) {
+      return;
+    }
+    scheduler.execute(() -> {
+      long now = System.currentTimeMillis();
+      lastPushAt = now;
+      expire(now);
+      try {
+        newBlock(blockNumber, now);
+      } catch (Exception e) {
+        // the poll loop retries at the next block
+      }
+    });
+  }
+
+  public int getPending() {
+    return pending.size();
+  }
+
+  /**
+   * the block time measured so far
+   */
+  public long getBlockTimeMillis() {
+    return blockTimeMillis;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    scheduler.shutdownNow();
+    for (PendingTx tx : pending.values()) {
+      tx.future.completeExceptionally(new IllegalStateException("receipt waiter is closed"));
+    }
+    pending.clear();
+  }
+
+  private void poll() {
+    long delay;
+    try {
+      delay = tick();
+    } catch (Exception e) {
+      // a failing node is retried at the next block, the timeouts still apply
+      delay = blockTimeMillis;
+    }
+    if (!closed) {
+      scheduler.schedule(this::poll, Math.max(delay, config.getMinPollMillis()), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private long tick() throws IOException {
+    long now = System.currentTimeMillis();
+    expire(now);
+    // the heads are pushed, polling is only the fallback for a dead subscription
+    if (pending.isEmpty() || now - lastPushAt < 2 * blockTimeMillis) {
+      return blockTimeMillis;
+    }
+    long block = web3j.ethBlockNumber().send().getBlockNumber().longValueExact();
+    if (!newBlock(block, now)) {
+      // the block is late, look again soon
+      return blockTimeMillis / 4;
+    }
+    return blockTimeMillis;
+  }
+
+  /**
+   * the block only counts as seen once its receipts were fetched, a failed fetch is retried
+   * for the same block at the next poll or push
+   *
+   * @return false if the block is not newer than the last one seen
+   */
+  private boolean newBlock(long block, long now) throws IOException {
+    if (block <= lastBlock) {
+      return false;
+    }
+    if (!pending.isEmpty()) {
+      fetchReceipts();
+    }
+    if (lastBlock >= 0) {
+      long observed = (now - lastBlockAt) / (block - lastBlock);
+      blockTimeMillis = Math.max(config.getMinPollMillis(), (blockTimeMillis * 7 + observed) / 8);
+    }
+    lastBlock = block;
+    lastBlockAt = now;
+    return true;
+  }
+
+  private void expire(long now) {
+    Iterator<Map.Entry<String, PendingTx>> it = pending.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, PendingTx> entry = it.next();
+      if (entry.getValue().deadline <= now) {
+        it.remove();
+        entry.getValue().future.completeExceptionally(
+            new TransactionTimeoutException(entry.getKey(), config.getTimeoutMillis()));
+      }
+    }
+  }
+
+  private void fetchReceipts() throws IOException {
+    List<String> hashes = new ArrayList<>(pending.keySet());
+    for (int from = 0; from < hashes.size(); from += config.getMaxBatchSize()) {
+      int end = Math.min(from + config.getMaxBatchSize(), hashes.size());
+      BatchRequest batch = web3j.newBatch();
+      Map<Long, String> ids = new HashMap<>();
+      for (int i = from; i < end; i++) {
+        Request<?, EthGetTransactionReceipt> request = web3j.ethGetTransactionReceipt(hashes.get(i));
+        ids.put(request.getId(), hashes.get(i));
+        batch.add(request);
+      }
+      BatchResponse response = batch.send();
+      for (Response<?> item : response.getResponses()) {
+        String hash = ids.get(item.getId());
+        if (hash == null || item.hasError()) {
+          continue;
+        }
+        Optional<TransactionReceipt> receipt = ((EthGetTransactionReceipt) item).getTransactionReceipt();
+        receipt.ifPresent(r -> complete(hash, r));
+      }
+    }
+  }
+
+  private void complete(String hash, TransactionReceipt receipt) {
+    PendingTx tx = pending.remove(hash);
+    if (tx == null) {
+      return;
+    }
+    if (receipt.isStatusOK()) {
+      tx.future.complete(receipt);
+    } else {
+      tx.future.completeExceptionally(new TransactionRevertedException(receipt));
+    }
+  }
+
+  private static class PendingTx {
+
+    private final long deadline;
+    private final CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+
+    private PendingTx(long deadline) {
+      this.deadline = deadline;
+    }
+  }
+}
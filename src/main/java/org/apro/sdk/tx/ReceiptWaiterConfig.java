@@ -0,0 +1,33 @@
+package org.apro.sdk.tx;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ReceiptWaiterConfig {
+
+  /**
+   * how long a transaction may stay without receipt before its future fails
+   */
+  @Builder.Default
+  private long timeoutMillis = 120_000;
+
+  /**
+   * the block time assumed until it is measured, 3s for BSC
+   */
+  @Builder.Default
+  private long initialBlockTimeMillis = 3_000;
+
+  /**
+   * the shortest interval between two polls
+   */
+  @Builder.Default
+  private long minPollMillis = 250;
+
+  /**
+   * the max receipts requested in one JSON-RPC batch request
+   */
+  @Builder.Default
+  private int maxBatchSize = 100;
+}
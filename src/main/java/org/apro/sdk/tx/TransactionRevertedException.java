@@ -0,0 +1,19 @@
+package org.apro.sdk.tx;
+
+import lombok.Getter;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * the transaction was mined but reverted
+ */
+@Getter
+public class TransactionRevertedException extends RuntimeException {
+
+  private final TransactionReceipt receipt;
+
+  public TransactionRevertedException(TransactionReceipt receipt) {
+    super("transaction " + receipt.getTransactionHash() + " reverted"
+        + (receipt.getRevertReason() != null ? ": " + receipt.getRevertReason() : ""));
+    this.receipt = receipt;
+  }
+}
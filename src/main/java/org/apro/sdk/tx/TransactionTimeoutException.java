@@ -0,0 +1,17 @@
+package org.apro.sdk.tx;
+
+import lombok.Getter;
+
+/**
+ * the transaction has no receipt after the timeout, it may still be pending or have been dropped
+ */
+@Getter
+public class TransactionTimeoutException extends RuntimeException {
+
+  private final String transactionHash;
+
+  public TransactionTimeoutException(String transactionHash, long timeoutMillis) {
+    super("no receipt for transaction " + transactionHash + " after " + timeoutMillis + " ms");
+    this.transactionHash = transactionHash;
+  }
+}
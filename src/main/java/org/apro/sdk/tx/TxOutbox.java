@@ -0,0 +1,732 @@
+package org.apro.sdk.tx;
+
+import cn.hutool.log.Log;
+import cn.hutool.log.LogFactory;
+import org.apro.sdk.util.ChainUtil;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * a durable journal of the signed transactions, so that a crash between signing and the receipt
+ * loses no nonce and no message. every transaction is recorded and synced before its broadcast,
+ * its status is appended as the node and the receipts report it, and on open the journal is replayed
+ * into the transactions without a final status, which reconcile confirms or broadcasts again.
+ *
+ * the journal is one append only file, memory mapped in regions of regionBytes. it starts with
+ * [int magic][int version][int regionBytes], a file of another format or region size is refused.
+ * a record is [int length][int crc32][type][body] and never spans two regions. the appends only copy
+ * into the mapping, one flusher thread syncs everything appended since its last sync with one msync and
+ * completes the futures of those records together, so a sync is shared by all concurrent writers.
+ * a record torn by a crash fails its crc32 and ends the replay, the tail after it is cleared.
+ *
+ * once the journal has grown past its first region and the records of the pending transactions take at most
+ * compactLiveRatio of it, the flusher rolls to a new journal holding only those records and unmaps the old one.
+ * a replayed journal is rolled the same way on open
+ *
+ * <pre>
+ * try (TxOutbox outbox = TxOutbox.open(Paths.get("outbox.log"), TxOutboxConfig.builder().build())) {
+ *   outbox.reconcile(aiAgentCli.getWeb3j());
+ *   OutboxEntry entry = outbox.record(address, nonce, messageId, signedTx).join();
+ *   outbox.broadcast(entry, aiAgentCli.getWeb3j());
+ *   outbox.track(entry, receiptWaiter);
+ * }
+ * </pre>
+ */
+public class TxOutbox implements AutoCloseable {
+
+  private static final Log LOG = LogFactory.get();
+
+  // "ATXO"
+  private static final int MAGIC = 0x4154584f;
+  private static final int VERSION = 1;
+  // the magic, the version and the regionBytes
+  private static final int FILE_HEADER = 12;
+
+  private static final byte SIGNED_RECORD = 1;
+  private static final byte STATUS_RECORD = 2;
+
+  // the length and the crc32 of a record
+  private static final int HEADER = 8;
+  private static final int HASH_LENGTH = 32;
+  private static final int ADDRESS_LENGTH = 20;
+
+  private static final byte[] ZEROS = new byte[64 << 10];
+
+  // releases a mapping right away instead of on its garbage collection, null if the jdk does not offer it
+  private static final MethodHandle INVOKE_CLEANER = invokeCleaner();
+
+  // the transient and the unknown errors of a broadcast keep the status, these are final
+  private static final List<String> PERMANENT_ERRORS = List.of(
+      "invalid sender", "invalid signature", "intrinsic gas too low", "exceeds block gas limit",
+      "oversized data", "transaction type not supported", "only replay-protected",
+      "max priority fee per gas higher than max fee per gas", "tip higher than fee cap", "negative value");
+
+  private final Path path;
+  private final TxOutboxConfig config;
+  // the mappings are used outside the lock by the flusher only, which is also the thread replacing them
+  private final List<MappedByteBuffer> regions = new CopyOnWriteArrayList<>();
+  // by txHash, the entries without a terminal status
+  private final Map<String, OutboxEntry> pending = new ConcurrentHashMap<>();
+  private final Thread flusher;
+
+  // guarded by this
+  private FileChannel channel;
+  private long writePos;
+  private long dirtyFrom = -1;
+  // the bytes of the records of the pending entries, what a compaction keeps
+  private long liveBytes;
+  private final ArrayDeque<CompletableFuture<Void>> commits = new ArrayDeque<>();
+  private boolean closed;
+
+  private TxOutbox(Path path, FileChannel channel, TxOutboxConfig config) throws IOException {
+    this.path = path;
+    this.channel = channel;
+    this.config = config;
+    checkHeader();
+    replay();
+    compactIfDue();
+    this.flusher = new Thread(this::flushLoop, "tx-outbox-flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  /**
+   * open the journal, replaying the transactions without a final status
+   */
+  public static TxOutbox open(Path path, TxOutboxConfig config) throws IOException {
+    if (config.getRegionBytes() <= FILE_HEADER + HEADER) {
+      throw new IllegalArgumentException("regionBytes " + config.getRegionBytes() + " is too small");
+    }
+    FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      return new TxOutbox(path, channel, config);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * the transactions without a final status, by sender and nonce
+   */
+  public List<OutboxEntry> getPending() {
+    List<OutboxEntry> entries = new ArrayList<>(pending.values());
+    entries.sort(Comparator.comparing(OutboxEntry::getFrom).thenComparing(OutboxEntry::getNonce));
+    return entries;
+  }
+
+  /**
+   * record a signed transaction before its broadcast
+   *
+   * @param messageId: the message the transaction carries, may be null
+   * @return the entry, once it is synced to disk
+   */
+  public CompletableFuture<OutboxEntry> record(String from, BigInteger nonce, String messageId, byte[] signedTx) {
+    byte[] fromBytes = Numeric.hexStringToByteArray(from);
+    if (fromBytes.length != ADDRESS_LENGTH) {
+      throw new IllegalArgumentException("from is not a valid address");
+    }
+    byte[] hash = Hash.sha3(signedTx);
+    byte[] messageIdBytes = (messageId != null ? messageId : "").getBytes(StandardCharsets.UTF_8);
+    if (messageIdBytes.length > 0xffff) {
+      throw new IllegalArgumentException("messageId is too long");
+    }
+    byte[] record = signedRecord(hash, fromBytes, nonce, messageIdBytes, signedTx);
+    int crc = crc(record);
+    OutboxEntry entry = new OutboxEntry(Numeric.toHexString(hash), from.toLowerCase(Locale.ROOT), nonce,
+        messageId != null ? messageId : "", signedTx, OutboxStatus.SIGNED);
+    CompletableFuture<Void> synced;
+    synchronized (this) {
+      // pending only once the record is in the journal, a refused append leaves nothing to reconcile
+      entry.setPosition(write(record, crc));
+      synced = sync();
+      pending.put(entry.getTxHash(), entry);
+      liveBytes += liveBytes(entry);
+    }
+    return synced.thenApply(done -> entry);
+  }
+
+  /**
+   * @return completes once the status is synced to disk
+   */
+  public CompletableFuture<Void> updateStatus(String txHash, OutboxStatus status) {
+    OutboxEntry entry = pending.get(txHash.toLowerCase(Locale.ROOT));
+    if (entry == null) {
+      throw new IllegalArgumentException("no pending transaction " + txHash);
+    }
+    return updateStatus(entry, status);
+  }
+
+  /**
+   * broadcast the transaction and record how the node answered. an IOException or an error the node
+   * may not give again, e.g. underpriced, leaves the status unchanged and the transaction is broadcast
+   * again by reconcile. a nonce too low is DROPPED only if the transaction itself has no receipt,
+   * it may have been mined since it was last checked
+   */
+  public EthSendTransaction broadcast(OutboxEntry entry, Web3j web3j) throws IOException {
+    EthSendTransaction response = ChainUtil.broadcast(entry.getSignedTx(), web3j);
+    OutboxStatus status = statusOf(entry.getStatus(), response.getError());
+    if (status == OutboxStatus.DROPPED) {
+      status = droppedOrMined(entry, web3j);
+    }
+    if (status != entry.getStatus()) {
+      updateStatus(entry, status);
+    }
+    return response;
+  }
+
+  /**
+   * record CONFIRMED or REVERTED from the receipt, a transaction timing out in the waiter stays pending
+   */
+  public CompletableFuture<TransactionReceipt> track(OutboxEntry entry, ReceiptWaiter waiter) {
+    return waiter.waitForReceipt(entry.getTxHash()).whenComplete((receipt, e) -> {
+      if (receipt != null) {
+        updateStatus(entry, OutboxStatus.CONFIRMED);
+      } else if (unwrap(e) instanceof TransactionRevertedException) {
+        updateStatus(entry, OutboxStatus.REVERTED);
+      }
+    });
+  }
+
+  /**
+   * settle the pending transactions after a restart: the mined ones get the status of their receipt,
+   * the others are broadcast again in nonce order
+   *
+   * @return the transactions accepted by the node and still waiting for a receipt, the ones the node
+   * refused for a while stay SIGNED in getPending
+   */
+  public List<OutboxEntry> reconcile(Web3j web3j) throws IOException {
+    List<OutboxEntry> entries = getPending();
+    Map<String, TransactionReceipt> receipts = fetchReceipts(web3j, entries);
+    List<OutboxEntry> inFlight = new ArrayList<>();
+    for (OutboxEntry entry : entries) {
+      TransactionReceipt receipt = receipts.get(entry.getTxHash());
+      if (receipt != null) {
+        updateStatus(entry, receipt.isStatusOK() ? OutboxStatus.CONFIRMED : OutboxStatus.REVERTED);
+        continue;
+      }
+      broadcast(entry, web3j);
+      if (entry.getStatus() == OutboxStatus.BROADCAST) {
+        inFlight.add(entry);
+      }
+    }
+    return inFlight;
+  }
+
+  /**
+   * sync the records appended so far and stop the flusher
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      notifyAll();
+    }
+    try {
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      regions.forEach(TxOutbox::unmap);
+      regions.clear();
+      channel.close();
+    }
+  }
+
+  private CompletableFuture<Void> updateStatus(OutboxEntry entry, OutboxStatus status) {
+    byte[] record = statusRecord(entry, status);
+    int crc = crc(record);
+    synchronized (this) {
+      write(record, crc);
+      CompletableFuture<Void> synced = sync();
+      boolean live = pending.containsKey(entry.getTxHash());
+      long before = live ? liveBytes(entry) : 0;
+      entry.setStatus(status);
+      if (status.isTerminal()) {
+        pending.remove(entry.getTxHash());
+      }
+      liveBytes += (live && !status.isTerminal() ? liveBytes(entry) : 0) - before;
+      return synced;
+    }
+  }
+
+  /**
+   * the status of a transaction whose nonce is too low: its receipt status if it was mined, else DROPPED.
+   * the status is kept if the receipt cannot be read
+   */
+  private static OutboxStatus droppedOrMined(OutboxEntry entry, Web3j web3j) throws IOException {
+    EthGetTransactionReceipt response = web3j.ethGetTransactionReceipt(entry.getTxHash()).send();
+    if (response.hasError()) {
+      return entry.getStatus();
+    }
+    Optional<TransactionReceipt> receipt = response.getTransactionReceipt();
+    if (!receipt.isPresent()) {
+      return OutboxStatus.DROPPED;
+    }
+    return receipt.get().isStatusOK() ? OutboxStatus.CONFIRMED : OutboxStatus.REVERTED;
+  }
+
+  static OutboxStatus statusOf(OutboxStatus current, Response.Error error) {
+    if (error == null) {
+      return OutboxStatus.BROADCAST;
+    }
+    String message = error.getMessage() != null ? error.getMessage().toLowerCase(Locale.ROOT) : "";
+    if (message.contains("already known") || message.contains("known transaction")) {
+      return OutboxStatus.BROADCAST;
+    }
+    if (NonceManager.isNonceTooLow(error)) {
+      return OutboxStatus.DROPPED;
+    }
+    for (String permanent : PERMANENT_ERRORS) {
+      if (message.contains(permanent)) {
+        return OutboxStatus.REJECTED;
+      }
+    }
+    return current;
+  }
+
+  private Map<String, TransactionReceipt> fetchReceipts(Web3j web3j, List<OutboxEntry> entries) throws IOException {
+    Map<String, TransactionReceipt> receipts = new HashMap<>();
+    for (int from = 0; from < entries.size(); from += config.getMaxBatchSize()) {
+      List<OutboxEntry> chunk = entries.subList(from, Math.min(entries.size(), from + config.getMaxBatchSize()));
+      BatchRequest batch = web3j.newBatch();
+      Map<Long, String> txHashById = new HashMap<>();
+      for (OutboxEntry entry : chunk) {
+        Request<?, EthGetTransactionReceipt> request = web3j.ethGetTransactionReceipt(entry.getTxHash());
+        txHashById.put(request.getId(), entry.getTxHash());
+        batch.add(request);
+      }
+      BatchResponse response = batch.send();
+      for (Response<?> item : response.getResponses()) {
+        String txHash = txHashById.get(item.getId());
+        if (txHash == null || item.hasError()) {
+          continue;
+        }
+        ((EthGetTransactionReceipt) item).getTransactionReceipt().ifPresent(receipt -> receipts.put(txHash, receipt));
+      }
+    }
+    return receipts;
+  }
+
+  // the caller holds the lock, returns the position of the record
+  private long write(byte[] record, int crc) {
+    if (closed) {
+      throw new IllegalStateException("outbox is closed");
+    }
+    int regionBytes = config.getRegionBytes();
+    int size = HEADER + record.length;
+    if (size > regionBytes) {
+      throw new IllegalArgumentException("a record of " + size + " bytes does not fit a region of " + regionBytes);
+    }
+    // the rest of a region a record does not fit in stays zero, the replay goes on at the next one
+    long at = place(writePos, size);
+    int offset = (int) (at % regionBytes);
+    MappedByteBuffer region = region((int) (at / regionBytes));
+    region.put(offset + HEADER, record);
+    region.putInt(offset + 4, crc);
+    region.putInt(offset, record.length);
+    if (dirtyFrom < 0) {
+      dirtyFrom = at;
+    }
+    writePos = at + size;
+    return at;
+  }
+
+  // the caller holds the lock, completes once the records written so far are synced
+  private CompletableFuture<Void> sync() {
+    CompletableFuture<Void> synced = new CompletableFuture<>();
+    commits.add(synced);
+    notifyAll();
+    return synced;
+  }
+
+  /**
+   * where a record of size bytes appended at pos starts, so that it does not span two regions
+   */
+  private long place(long pos, int size) {
+    int regionBytes = config.getRegionBytes();
+    int offset = (int) (pos % regionBytes);
+    return offset + size > regionBytes ? pos - offset + regionBytes : pos;
+  }
+
+  private void flushLoop() {
+    while (true) {
+      synchronized (this) {
+        while (commits.isEmpty() && !closed) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            closed = true;
+          }
+        }
+        if (commits.isEmpty()) {
+          return;
+        }
+      }
+      if (config.getGroupCommitMicros() > 0) {
+        try {
+          TimeUnit.MICROSECONDS.sleep(config.getGroupCommitMicros());
+        } catch (InterruptedException e) {
+          // the records waiting are synced right away
+        }
+      }
+      long from;
+      long to;
+      List<CompletableFuture<Void>> batch;
+      synchronized (this) {
+        from = dirtyFrom;
+        to = writePos;
+        batch = new ArrayList<>(commits);
+        commits.clear();
+        dirtyFrom = -1;
+      }
+      try {
+        force(from, to);
+        compactIfDue();
+        batch.forEach(synced -> synced.complete(null));
+      } catch (RuntimeException e) {
+        batch.forEach(synced -> synced.completeExceptionally(e));
+      }
+    }
+  }
+
+  private void force(long from, long to) {
+    long regionBytes = config.getRegionBytes();
+    for (int index = (int) (from / regionBytes); index <= (to - 1) / regionBytes; index++) {
+      long regionStart = index * regionBytes;
+      int start = (int) (Math.max(from, regionStart) - regionStart);
+      int end = (int) (Math.min(to, regionStart + regionBytes) - regionStart);
+      regions.get(index).force(start, end - start);
+    }
+  }
+
+  /**
+   * roll to a new journal of the pending transactions once their records take at most compactLiveRatio
+   * of the journal, which keeps it within about twice their size whatever a stuck transaction does.
+   * runs on the flusher, the appends wait for it
+   */
+  private void compactIfDue() {
+    synchronized (this) {
+      if (writePos <= config.getRegionBytes()
+          || liveBytes > (writePos - FILE_HEADER) * config.getCompactLiveRatio()) {
+        return;
+      }
+      try {
+        compact();
+      } catch (IOException | RuntimeException e) {
+        LOG.warn(e, "failed to compact the tx outbox {}, appending to it", path);
+      }
+    }
+  }
+
+  // the caller holds the lock
+  private void compact() throws IOException {
+    if (dirtyFrom >= 0) {
+      // the old journal stays complete until the new one replaces it
+      force(dirtyFrom, writePos);
+    }
+    Path next = path.resolveSibling(path.getFileName() + ".compact");
+    FileChannel nextChannel = FileChannel.open(next, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    Map<OutboxEntry, Long> positions = new HashMap<>();
+    long end = FILE_HEADER;
+    try {
+      writeHeader(nextChannel);
+      for (OutboxEntry entry : getPending()) {
+        byte[] signed = signedRecord(entry);
+        long at = writeTo(nextChannel, end, signed);
+        positions.put(entry, at);
+        end = at + HEADER + signed.length;
+        if (entry.getStatus() != OutboxStatus.SIGNED) {
+          byte[] status = statusRecord(entry, entry.getStatus());
+          end = writeTo(nextChannel, end, status) + HEADER + status.length;
+        }
+      }
+      nextChannel.force(true);
+      Files.move(next, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException | RuntimeException e) {
+      nextChannel.close();
+      Files.deleteIfExists(next);
+      throw e;
+    }
+    List<MappedByteBuffer> retired = new ArrayList<>(regions);
+    regions.clear();
+    retired.forEach(TxOutbox::unmap);
+    channel.close();
+    channel = nextChannel;
+    positions.forEach(OutboxEntry::setPosition);
+    writePos = end;
+    dirtyFrom = -1;
+    // their records were synced to the old journal and are in the new one
+    commits.forEach(synced -> synced.complete(null));
+    commits.clear();
+  }
+
+  /**
+   * @return the position the record was written at
+   */
+  private long writeTo(FileChannel target, long pos, byte[] record) throws IOException {
+    long at = place(pos, HEADER + record.length);
+    ByteBuffer framed = ByteBuffer.allocate(HEADER + record.length)
+        .putInt(record.length).putInt(crc(record)).put(record);
+    framed.flip();
+    while (framed.hasRemaining()) {
+      target.write(framed, at + framed.position());
+    }
+    return at;
+  }
+
+  private MappedByteBuffer region(int index) {
+    try {
+      // mapping past the end of the file extends it
+      while (regions.size() <= index) {
+        regions.add(channel.map(FileChannel.MapMode.READ_WRITE,
+            (long) regions.size() * config.getRegionBytes(), config.getRegionBytes()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return regions.get(index);
+  }
+
+  private void checkHeader() throws IOException {
+    if (channel.size() < FILE_HEADER) {
+      // a new journal, or one whose header was never synced and so holds no record
+      channel.truncate(0);
+      writeHeader(channel);
+      return;
+    }
+    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        throw new EOFException("truncated tx outbox header");
+      }
+    }
+    header.flip();
+    if (header.getInt() != MAGIC) {
+      throw new IOException("not a tx outbox journal");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("unsupported tx outbox journal version " + version);
+    }
+    int regionBytes = header.getInt();
+    if (regionBytes != config.getRegionBytes()) {
+      throw new IllegalArgumentException("the journal was written with regionBytes " + regionBytes
+          + ", not " + config.getRegionBytes());
+    }
+  }
+
+  private void writeHeader(FileChannel target) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(FILE_HEADER)
+        .putInt(MAGIC).putInt(VERSION).putInt(config.getRegionBytes());
+    header.flip();
+    while (header.hasRemaining()) {
+      target.write(header, header.position());
+    }
+    target.force(true);
+  }
+
+  private void replay() throws IOException {
+    int regionBytes = config.getRegionBytes();
+    long size = channel.size();
+    long pos = FILE_HEADER;
+    while (pos < size) {
+      int offset = (int) (pos % regionBytes);
+      long nextRegion = pos - offset + regionBytes;
+      if (offset + HEADER > regionBytes) {
+        pos = nextRegion;
+        continue;
+      }
+      MappedByteBuffer region = region((int) (pos / regionBytes));
+      int length = region.getInt(offset);
+      if (length == 0 && nextRegion < size) {
+        // the end of a region the next record did not fit in
+        pos = nextRegion;
+        continue;
+      }
+      if (length <= 0 || offset + HEADER + length > regionBytes) {
+        break;
+      }
+      byte[] record = new byte[length];
+      region.get(offset + HEADER, record);
+      if (crc(record) != region.getInt(offset + 4)) {
+        break;
+      }
+      apply(record, pos);
+      pos += HEADER + length;
+    }
+    liveBytes = pending.values().stream().mapToLong(TxOutbox::liveBytes).sum();
+    if (pending.isEmpty()) {
+      // nothing to reconcile, start a new journal
+      regions.forEach(TxOutbox::unmap);
+      regions.clear();
+      channel.truncate(0);
+      writeHeader(channel);
+      writePos = FILE_HEADER;
+      return;
+    }
+    clearTail(pos);
+    writePos = pos;
+  }
+
+  /**
+   * zero the journal after the last valid record, so that no older record behind a torn one
+   * is replayed after the next appends
+   */
+  private void clearTail(long pos) throws IOException {
+    int regionBytes = config.getRegionBytes();
+    int index = (int) (pos / regionBytes);
+    int offset = (int) (pos % regionBytes);
+    if (index < regions.size()) {
+      MappedByteBuffer region = regions.get(index);
+      for (int at = offset; at < regionBytes; at += ZEROS.length) {
+        region.put(at, ZEROS, 0, Math.min(ZEROS.length, regionBytes - at));
+      }
+      region.force();
+    }
+    while (regions.size() > index + 1) {
+      unmap(regions.remove(regions.size() - 1));
+    }
+    channel.truncate((long) (index + 1) * regionBytes);
+    channel.force(true);
+  }
+
+  private void apply(byte[] record, long pos) {
+    ByteBuffer in = ByteBuffer.wrap(record);
+    byte type = in.get();
+    byte[] hash = new byte[HASH_LENGTH];
+    in.get(hash);
+    String txHash = Numeric.toHexString(hash);
+    if (type == SIGNED_RECORD) {
+      byte[] from = new byte[ADDRESS_LENGTH];
+      in.get(from);
+      BigInteger nonce = BigInteger.valueOf(in.getLong());
+      byte[] messageId = new byte[in.getShort() & 0xffff];
+      in.get(messageId);
+      byte[] signedTx = new byte[in.getInt()];
+      in.get(signedTx);
+      OutboxEntry entry = new OutboxEntry(txHash, Numeric.toHexString(from), nonce,
+          new String(messageId, StandardCharsets.UTF_8), signedTx, OutboxStatus.SIGNED);
+      entry.setPosition(pos);
+      pending.put(txHash, entry);
+    } else if (type == STATUS_RECORD) {
+      OutboxStatus status = OutboxStatus.of(in.get());
+      OutboxEntry entry = status.isTerminal() ? pending.remove(txHash) : pending.get(txHash);
+      if (entry != null) {
+        entry.setStatus(status);
+      }
+    }
+  }
+
+  /**
+   * the bytes a compaction writes for the entry, its signed record and its status record if any
+   */
+  private static long liveBytes(OutboxEntry entry) {
+    long signed = HEADER + 1 + HASH_LENGTH + ADDRESS_LENGTH + 8 + 2
+        + entry.getMessageId().getBytes(StandardCharsets.UTF_8).length + 4 + entry.getSignedTx().length;
+    return entry.getStatus() != OutboxStatus.SIGNED ? signed + HEADER + 1 + HASH_LENGTH + 1 : signed;
+  }
+
+  private static byte[] signedRecord(OutboxEntry entry) {
+    return signedRecord(Numeric.hexStringToByteArray(entry.getTxHash()),
+        Numeric.hexStringToByteArray(entry.getFrom()), entry.getNonce(),
+        entry.getMessageId().getBytes(StandardCharsets.UTF_8), entry.getSignedTx());
+  }
+
+  private static byte[] signedRecord(byte[] hash, byte[] from, BigInteger nonce, byte[] messageId, byte[] signedTx) {
+    return ByteBuffer.allocate(1 + HASH_LENGTH + ADDRESS_LENGTH + 8 + 2 + messageId.length + 4 + signedTx.length)
+        .put(SIGNED_RECORD).put(hash).put(from).putLong(nonce.longValueExact())
+        .putShort((short) messageId.length).put(messageId)
+        .putInt(signedTx.length).put(signedTx)
+        .array();
+  }
+
+  private static byte[] statusRecord(OutboxEntry entry, OutboxStatus status) {
+    return ByteBuffer.allocate(1 + HASH_LENGTH + 1)
+        .put(STATUS_RECORD).put(Numeric.hexStringToByteArray(entry.getTxHash())).put(status.getCode())
+        .array();
+  }
+
+  private static int crc(byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    return (int) crc.getValue();
+  }
+
+  private static MethodHandle invokeCleaner() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      return MethodHandles.lookup()
+          .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+          .bindTo(theUnsafe.get(null));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * release the mapping, which must not be used anymore. without invokeCleaner it is released
+   * by the garbage collector
+   */
+  private static void unmap(MappedByteBuffer region) {
+    if (INVOKE_CLEANER == null) {
+      return;
+    }
+    try {
+      INVOKE_CLEANER.invokeExact((ByteBuffer) region);
+    } catch (Throwable e) {
+      LOG.debug(e, "failed to unmap a tx outbox region");
+    }
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+}
@@ -0,0 +1,35 @@
+package org.apro.sdk.tx;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class TxOutboxConfig {
+
+  /**
+   * the journal is mapped in regions of this size, a record must fit in one region
+   */
+  @Builder.Default
+  private int regionBytes = 64 << 20;
+
+  /**
+   * how long the flusher waits for more records before an fsync, 0 to sync as soon as the previous one returns.
+   * the records appended during an fsync are always synced together by the next one
+   */
+  @Builder.Default
+  private long groupCommitMicros = 0;
+
+  /**
+   * the journal rolls to a new one holding only the pending transactions once it is past its first region
+   * and their records take at most this share of it
+   */
+  @Builder.Default
+  private double compactLiveRatio = 0.5;
+
+  /**
+   * the max receipts requested in one JSON-RPC batch request by reconcile
+   */
+  @Builder.Default
+  private int maxBatchSize = 100;
+}
@@ -0,0 +1,255 @@
+package org.apro.sdk.tx;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import org.apro.sdk.AiAgentCli;
+import org.apro.sdk.params.VerifyParams;
+import org.apro.sdk.util.ChainUtil;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sends verify transactions of one signer at the rate the node ingests them.
+ * the submitted messages wait in a bounded queue, are encoded and signed on a cpu pool and
+ * broadcast on an io pool, with at most maxInFlight messages between the two.
+ * submit blocks while the queue is full, which pushes back on the producer.
+ *
+ * <pre>
+ * try (VerifyPipeline pipeline = new VerifyPipeline(aiAgentCli, credentials, proxyAddress,
+ *     new NonceManager(aiAgentCli.getWeb3j()), config)) {
+ *   CompletableFuture&lt;EthSendTransaction&gt; sent = pipeline.submit(verifyParams);
+ * }
+ * </pre>
+ */
+public class VerifyPipeline implements AutoCloseable {
+
+  private static final long POLL_MILLIS = 100;
+
+  private final AiAgentCli cli;
+  private final Credentials credentials;
+  private final String proxy;
+  private final NonceManager nonceManager;
+  private final VerifyPipelineConfig config;
+
+  private final BlockingQueue<Task> queue;
+  private final Semaphore inFlight;
+  private final ExecutorService cpuPool;
+  private final ExecutorService ioPool;
+  private final Thread dispatcher;
+
+  @Getter
+  private final VerifyPipelineMetrics metrics = new VerifyPipelineMetrics();
+
+  private volatile boolean running = true;
+
+  public VerifyPipeline(AiAgentCli cli, Credentials credentials, String proxy,
+      NonceManager nonceManager, VerifyPipelineConfig config) {
+    if (config.getGasPrice() == null || config.getGasLimit() == null) {
+      throw new IllegalArgumentException("gasPrice|gasLimit must not be null");
+    }
+    this.cli = cli;
+    this.credentials = credentials;
+    this.proxy = proxy;
+    this.nonceManager = nonceManager;
+    this.config = config;
+    this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+    this.inFlight = new Semaphore(config.getMaxInFlight());
+    this.cpuPool = Executors.newFixedThreadPool(config.getCpuThreads(),
+        new ThreadFactoryBuilder().setNameFormat("verify-sign-%d").setDaemon(true).build());
+    this.ioPool = Executors.newFixedThreadPool(config.getIoThreads(),
+        new ThreadFactoryBuilder().setNameFormat("verify-broadcast-%d").setDaemon(true).build());
+    this.dispatcher = new Thread(this::dispatch, "verify-dispatcher");
+    this.dispatcher.setDaemon(true);
+    this.dispatcher.start();
+  }
+
+  /**
+   * queue the message, blocking while the queue is full.
+   * the future completes with the broadcast response, which may carry the node's error
+   */
+  public CompletableFuture<EthSendTransaction> submit(VerifyParams params) throws InterruptedException {
+    checkRunning();
+    Task task = new Task(params);
+    queue.put(task);
+    return accepted(task);
+  }
+
+  /**
+   * queue the message, waiting at most the timeout for space in the queue
+   *
+   * @return the future of the broadcast response, or null if the queue stayed full
+   */
+  public CompletableFuture<EthSendTransaction> trySubmit(VerifyParams params, long timeout, TimeUnit unit)
+      throws InterruptedException {
+    checkRunning();
+    Task task = new Task(params);
+    if (!queue.offer(task, timeout, unit)) {
+      return null;
+    }
+    return accepted(task);
+  }
+
+  public int getQueued() {
+    return queue.size();
+  }
+
+  public int getInFlight() {
+    return config.getMaxInFlight() - inFlight.availablePermits();
+  }
+
+  /**
+   * stop taking new messages, wait until the queued and in-flight messages are broadcast
+   * and shut down the pools
+   */
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    dispatcher.join();
+    failQueued(new IllegalStateException("pipeline is closed"));
+    inFlight.acquire(config.getMaxInFlight());
+    inFlight.release(config.getMaxInFlight());
+    cpuPool.shutdown();
+    ioPool.shutdown();
+  }
+
+  private void checkRunning() {
+    if (!running) {
+      throw new IllegalStateException("pipeline is closed");
+    }
+  }
+
+  private CompletableFuture<EthSendTransaction> accepted(Task task) {
+    metrics.submitted.increment();
+    // the dispatcher exits once it sees the pipeline closed and the queue empty, a task put
+    // after its last look at the queue is taken back here and failed
+    if (!running && queue.remove(task)) {
+      fail(task, new IllegalStateException("pipeline is closed"));
+    }
+    return task.future;
+  }
+
+  private void fail(Task task, Throwable e) {
+    metrics.failed.increment();
+    task.future.completeExceptionally(e);
+  }
+
+  private void failQueued(Throwable e) {
+    List<Task> leftover = new ArrayList<>();
+    queue.drainTo(leftover);
+    leftover.forEach(task -> fail(task, e));
+  }
+
+  private void dispatch() {
+    while (running || !queue.isEmpty()) {
+      Task task = null;
+      try {
+        task = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (task == null) {
+          continue;
+        }
+        inFlight.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        // nothing dispatches the queued tasks any more, stop taking new ones and fail them all
+        running = false;
+        if (task != null) {
+          fail(task, e);
+        }
+        failQueued(e);
+        return;
+      }
+      Task dispatched = task;
+      metrics.queueWaitNanos.add(System.nanoTime() - dispatched.queuedAt);
+      CompletableFuture
+          .supplyAsync(() -> sign(dispatched), cpuPool)
+          .thenApplyAsync(signed -> broadcast(dispatched, signed), ioPool)
+          .whenComplete((response, e) -> {
+            inFlight.release();
+            if (e != null) {
+              fail(dispatched, e instanceof CompletionException ? e.getCause() : e);
+            } else {
+              dispatched.future.complete(response);
+            }
+          });
+    }
+  }
+
+  private SignedTx sign(Task task) {
+    long start = System.nanoTime();
+    String address = credentials.getAddress();
+    BigInteger nonce = nonceManager.next(address);
+    try {
+      RawTransaction rawTransaction = cli.buildVerifyTx(nonce, config.getGasPrice(), config.getGasLimit(),
+          proxy, task.params);
+      byte[] signedTx = ChainUtil.signTx(rawTransaction, cli.getConfig().getChainId(), credentials);
+      metrics.signed.increment();
+      return new SignedTx(nonce, signedTx);
+    } catch (RuntimeException e) {
+      nonceManager.release(address, nonce);
+      throw e;
+    } finally {
+      metrics.signNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  private EthSendTransaction broadcast(Task task, SignedTx signed) {
+    long start = System.nanoTime();
+    EthSendTransaction response;
+    try {
+      response = ChainUtil.broadcast(signed.signedTx, cli.getWeb3j());
+    } catch (IOException e) {
+      // the node may or may not have the transaction, so the nonce is neither released nor reused
+      throw new CompletionException(e);
+    } finally {
+      metrics.broadcastNanos.add(System.nanoTime() - start);
+    }
+    if (response.hasError()) {
+      boolean resynced = nonceManager.onBroadcastError(credentials.getAddress(), signed.nonce, response.getError());
+      if (resynced && !task.retried) {
+        task.retried = true;
+        return broadcast(task, sign(task));
+      }
+      metrics.failed.increment();
+      return response;
+    }
+    metrics.broadcast.increment();
+    return response;
+  }
+
+  private static class Task {
+
+    private final VerifyParams params;
+    private final long queuedAt = System.nanoTime();
+    private final CompletableFuture<EthSendTransaction> future = new CompletableFuture<>();
+    private boolean retried;
+
+    private Task(VerifyParams params) {
+      this.params = params;
+    }
+  }
+
+  private static class SignedTx {
+
+    private final BigInteger nonce;
+    private final byte[] signedTx;
+
+    private SignedTx(BigInteger nonce, byte[] signedTx) {
+      this.nonce = nonce;
+      this.signedTx = signedTx;
+    }
+  }
+}
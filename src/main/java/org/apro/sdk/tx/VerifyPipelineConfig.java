@@ -0,0 +1,39 @@
+package org.apro.sdk.tx;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigInteger;
+
+@Getter
+@Builder
+public class VerifyPipelineConfig {
+
+  /**
+   * the verify messages waiting to be encoded, submit blocks when the queue is full
+   */
+  @Builder.Default
+  private int queueCapacity = 10_000;
+
+  /**
+   * the max messages taken from the queue whose broadcast has not completed yet
+   */
+  @Builder.Default
+  private int maxInFlight = 1_000;
+
+  /**
+   * the threads encoding and signing the transactions
+   */
+  @Builder.Default
+  private int cpuThreads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * the threads broadcasting the signed transactions
+   */
+  @Builder.Default
+  private int ioThreads = 64;
+
+  private BigInteger gasPrice;
+
+  private BigInteger gasLimit;
+}
@@ -0,0 +1,64 @@
+package org.apro.sdk.tx;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the per-stage counters of a VerifyPipeline, the times are the summed nanoseconds of each stage
+ */
+public class VerifyPipelineMetrics {
+
+  final LongAdder submitted = new LongAdder();
+  final LongAdder signed = new LongAdder();
+  final LongAdder broadcast = new LongAdder();
+  final LongAdder failed = new LongAdder();
+  final LongAdder queueWaitNanos = new LongAdder();
+  final LongAdder signNanos = new LongAdder();
+  final LongAdder broadcastNanos = new LongAdder();
+
+  public long getSubmitted() {
+    return submitted.sum();
+  }
+
+  public long getSigned() {
+    return signed.sum();
+  }
+
+  /**
+   * the transactions the node accepted
+   */
+  public long getBroadcast() {
+    return broadcast.sum();
+  }
+
+  /**
+   * the messages failed in any stage, including broadcasts rejected by the node
+   */
+  public long getFailed() {
+    return failed.sum();
+  }
+
+  public long getQueueWaitNanos() {
+    return queueWaitNanos.sum();
+  }
+
+  public long getSignNanos() {
+    return signNanos.sum();
+  }
+
+  public long getBroadcastNanos() {
+    return broadcastNanos.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "VerifyPipelineMetrics{"
+        + "submitted=" + getSubmitted()
+        + ", signed=" + getSigned()
+        + ", broadcast=" + getBroadcast()
+        + ", failed=" + getFailed()
+        + ", queueWaitNanos=" + getQueueWaitNanos()
+        + ", signNanos=" + getSignNanos()
+        + ", broadcastNanos=" + getBroadcastNanos()
+        + '}';
+  }
+}
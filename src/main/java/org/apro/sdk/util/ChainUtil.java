@@ -1,7 +1,22 @@
 package org.apro.sdk.util;
 
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.apro.sdk.abi.Multicall3;
+import org.apro.sdk.config.ChainConfig;
+import org.apro.sdk.config.ExecutorType;
+import org.apro.sdk.config.TransportType;
+import org.apro.sdk.metrics.InstrumentedService;
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
+import org.apro.sdk.metrics.PayloadInterceptor;
+import org.apro.sdk.rpc.ConcurrencyLimitedService;
+import org.apro.sdk.rpc.RoutingService;
+import org.apro.sdk.rpc.RpcEndpoint;
+import org.apro.sdk.sign.TxSigner;
 import org.web3j.abi.FunctionEncoder;
 import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
 import org.web3j.abi.datatypes.Address;
 import org.web3j.abi.datatypes.Function;
 import org.web3j.abi.datatypes.Type;
@@ -9,30 +24,139 @@ import org.web3j.crypto.Credentials;
 import org.web3j.crypto.RawTransaction;
 import org.web3j.crypto.TransactionEncoder;
 import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
 import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
 import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.EthCall;
 import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
 import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.protocol.websocket.WebSocketService;
 import org.web3j.utils.Numeric;
 
 import java.io.IOException;
+import java.net.ConnectException;
+import java.lang.reflect.InvocationTargetException;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class ChainUtil {
 
+  /**
+   * build the transport selected by config.transport, a websocket transport is connected before it is returned.
+   * http with several serverUrls builds a RoutingService over them.
+   * the requests are reported to the installed Instrumentation, see Metrics
+   */
+  public static Web3jService buildWeb3jService(ChainConfig config) {
+    return new InstrumentedService(buildTransport(config));
+  }
+
+  private static Web3jService buildTransport(ChainConfig config) {
+    if (config.getTransport() == TransportType.HTTP
+        && config.getServerUrls() != null && !config.getServerUrls().isEmpty()) {
+      List<RpcEndpoint> endpoints = new ArrayList<>();
+      for (String url : config.getServerUrls()) {
+        endpoints.add(new RpcEndpoint(url, limit(buildHttpService(config, url), config)));
+      }
+      return new RoutingService(endpoints, config.isHedgeReads(), config.getHedgeMinDelayMillis());
+    }
+    if (config.getTransport() == TransportType.WEBSOCKET) {
+      WebSocketService webSocketService = new WebSocketService(config.getServerUrl(), false);
+      try {
+        webSocketService.connect();
+      } catch (ConnectException e) {
+        throw new RuntimeException("failed to connect to " + config.getServerUrl(), e);
+      }
+      return webSocketService;
+    }
+    return limit(buildHttpService(config), config);
+  }
+
+  /**
+   * cap the requests in flight on an http transport at maxConcurrentRequests, zero or less for no cap
+   */
+  private static Web3jService limit(HttpService service, ChainConfig config) {
+    if (config.getMaxConcurrentRequests() <= 0) {
+      return service;
+    }
+    return new ConcurrencyLimitedService(service, config.getMaxConcurrentRequests());
+  }
+
+  /**
+   * build the http transport of the config, with the OkHttp connection pool sized by connectionPoolSize
+   * instead of the OkHttp default of 5 idle connections. it does not cap the requests in flight,
+   * buildWeb3jService wraps it in a ConcurrencyLimitedService of maxConcurrentRequests for that
+   */
+  public static HttpService buildHttpService(ChainConfig config) {
+    return buildHttpService(config, config.getServerUrl());
+  }
+
+  public static HttpService buildHttpService(ChainConfig config, String url) {
+    OkHttpClient httpClient = new OkHttpClient.Builder()
+        .addInterceptor(new PayloadInterceptor())
+        .connectionPool(new ConnectionPool(config.getConnectionPoolSize(),
+            config.getConnectionKeepAliveSeconds(), TimeUnit.SECONDS))
+        .build();
+    return new HttpService(url, httpClient);
+  }
+
+  /**
+   * build an executor of the type, or null for the web3j default executor
+   */
+  public static ExecutorService buildExecutor(ExecutorType type) {
+    if (type == null || type == ExecutorType.WEB3J) {
+      return null;
+    }
+    // looked up reflectively so that the sdk still compiles and runs on JDK 17
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("virtual threads require JDK 21 or above", e);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("failed to create the virtual thread executor", e);
+    }
+  }
+
+  /**
+   * the credentials of the key are derived for this call only and not kept.
+   * to sign many transactions with the same key, keep a TxSigner or a TxSignerCache instead
+   */
   public static byte[] signTx(RawTransaction tx, long chainId, String priKey) {
-    return TransactionEncoder.signMessage(tx, chainId, Credentials.create(priKey));
+    return TxSigner.of(priKey, chainId).sign(tx);
   }
 
   public static byte[] signTx(RawTransaction tx, long chainId, Credentials credentials) {
-    return TransactionEncoder.signMessage(tx, chainId, credentials);
+    long start = Metrics.start();
+    byte[] signed = TransactionEncoder.signMessage(tx, chainId, credentials);
+    Metrics.timing(Instrumentation.SIGN, start, true);
+    return signed;
   }
 
   public static EthSendTransaction broadcast(String hexSignedTransaction, Web3j web3j)
       throws IOException {
-    return web3j.ethSendRawTransaction(hexSignedTransaction).send();
+    long start = Metrics.start();
+    boolean success = false;
+    try {
+      EthSendTransaction response = web3j.ethSendRawTransaction(hexSignedTransaction).send();
+      success = !response.hasError();
+      return response;
+    } finally {
+      Metrics.timing(Instrumentation.BROADCAST, start, success);
+    }
   }
 
   public static EthSendTransaction broadcast(byte[] signedTransaction, Web3j web3j)
@@ -41,34 +165,235 @@ public class ChainUtil {
     return broadcast(hexValue, web3j);
   }
 
+  public static CompletableFuture<EthSendTransaction> broadcastAsync(String hexSignedTransaction,
+      Web3j web3j, Executor executor) {
+    long start = Metrics.start();
+    return sendAsync(web3j.ethSendRawTransaction(hexSignedTransaction), executor)
+        .whenComplete((response, e) ->
+            Metrics.timing(Instrumentation.BROADCAST, start, e == null && !response.hasError()));
+  }
+
+  public static CompletableFuture<EthSendTransaction> broadcastAsync(byte[] signedTransaction,
+      Web3j web3j, Executor executor) {
+    return broadcastAsync(Numeric.toHexString(signedTransaction), web3j, executor);
+  }
+
   public static BigInteger getNonce(String address, Web3j web3j) {
+    return getNonce(address, web3j, DefaultBlockParameterName.LATEST);
+  }
+
+  /**
+   * get the transaction count of the address at the block,
+   * PENDING also counts the transactions in the node's mempool
+   */
+  public static BigInteger getNonce(String address, Web3j web3j, DefaultBlockParameterName block) {
+    long start = Metrics.start();
+    boolean success = false;
     try {
-      EthGetTransactionCount response = web3j.ethGetTransactionCount(address,
-          DefaultBlockParameterName.LATEST).send();
-      return response.getTransactionCount();
+      EthGetTransactionCount response = web3j.ethGetTransactionCount(address, block).send();
+      BigInteger nonce = response.getTransactionCount();
+      success = true;
+      return nonce;
     } catch (IOException e) {
       throw new RuntimeException("io error", e);
     } catch (Exception e) {
       throw new RuntimeException(e);
+    } finally {
+      Metrics.timing(Instrumentation.GET_NONCE, start, success);
     }
   }
 
+  public static CompletableFuture<BigInteger> getNonceAsync(String address, Web3j web3j,
+      Executor executor) {
+    long start = Metrics.start();
+    return sendAsync(web3j.ethGetTransactionCount(address, DefaultBlockParameterName.LATEST), executor)
+        .thenApply(EthGetTransactionCount::getTransactionCount)
+        .whenComplete((nonce, e) -> Metrics.timing(Instrumentation.GET_NONCE, start, e == null));
+  }
+
   public static List<Type> getResult(Web3j web3j, String to, Function function)
       throws IOException {
-    String encodedFunction = FunctionEncoder.encode(function);
-    Transaction transaction = Transaction.createEthCallTransaction(
+    return getResult(web3j, to, FunctionEncoder.encode(function), function.getOutputParameters());
+  }
+
+  /**
+   * eth_call with calldata that is already encoded, e.g. a precomputed selector from Constants
+   *
+   * @param data: the hex calldata, selector included
+   * @param outputParameters: the output types of the function
+   */
+  public static List<Type> getResult(Web3j web3j, String to, String data,
+      List<TypeReference<Type>> outputParameters) throws IOException {
+    long start = Metrics.start();
+    boolean success = false;
+    try {
+      EthCall response = web3j.ethCall(createEthCall(to, data), DefaultBlockParameterName.LATEST).send();
+      List<Type> result = decodeResult(response, outputParameters);
+      success = true;
+      return result;
+    } finally {
+      Metrics.timing(Instrumentation.GET_RESULT, start, success);
+    }
+  }
+
+  public static CompletableFuture<List<Type>> getResultAsync(Web3j web3j, String to,
+      Function function, Executor executor) {
+    return getResultAsync(web3j, to, FunctionEncoder.encode(function), function.getOutputParameters(), executor);
+  }
+
+  public static CompletableFuture<List<Type>> getResultAsync(Web3j web3j, String to, String data,
+      List<TypeReference<Type>> outputParameters, Executor executor) {
+    long start = Metrics.start();
+    return sendAsync(web3j.ethCall(createEthCall(to, data), DefaultBlockParameterName.LATEST), executor)
+        .thenApply(response -> decodeResult(response, outputParameters))
+        .whenComplete((result, e) -> Metrics.timing(Instrumentation.GET_RESULT, start, e == null));
+  }
+
+  /**
+   * send the request without blocking the caller.
+   * the request runs on the executor, or on web3j's own async executor when the executor is null
+   */
+  public static <T extends Response<?>> CompletableFuture<T> sendAsync(Request<?, T> request,
+      Executor executor) {
+    if (executor == null) {
+      return request.sendAsync();
+    }
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return request.send();
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  /**
+   * execute the eth_calls as JSON-RPC batch requests of at most maxBatchSize calls each,
+   * the decoded results are returned in the order of the functions
+   *
+   * @param to: the contract address of each call
+   * @param functions: the function of each call
+   * @param maxBatchSize: the max calls per http request, zero or less sends all in one request
+   */
+  public static List<List<Type>> getResults(Web3j web3j, List<String> to, List<Function> functions,
+      int maxBatchSize) throws IOException {
+    List<String> data = new ArrayList<>(functions.size());
+    List<List<TypeReference<Type>>> outputParameters = new ArrayList<>(functions.size());
+    for (Function function : functions) {
+      data.add(FunctionEncoder.encode(function));
+      outputParameters.add(function.getOutputParameters());
+    }
+    return getResults(web3j, to, data, outputParameters, maxBatchSize);
+  }
+
+  /**
+   * the batch variant of getResult with encoded calldata
+   */
+  public static List<List<Type>> getResults(Web3j web3j, List<String> to, List<String> data,
+      List<List<TypeReference<Type>>> outputParameters, int maxBatchSize) throws IOException {
+    if (to.size() != data.size() || to.size() != outputParameters.size()) {
+      throw new IllegalArgumentException("to, data and outputParameters must have the same size");
+    }
+    List<EthCall> responses = sendEthCalls(web3j, to, data, maxBatchSize);
+    List<List<Type>> results = new ArrayList<>(responses.size());
+    for (int i = 0; i < responses.size(); i++) {
+      results.add(decodeResult(responses.get(i), outputParameters.get(i)));
+    }
+    return results;
+  }
+
+  /**
+   * the variant of getResults that folds the calls into Multicall3 aggregate3 eth_calls of at most
+   * maxBatchSize calls each, the aggregate3 calls themselves are sent in one JSON-RPC batch request.
+   * a reverted call fails the whole batch, as an error response does in getResults
+   *
+   * @param multicallAddress: the Multicall3 contract, see Constants.MULTICALL3_ADDRESS
+   */
+  public static List<List<Type>> getResultsMulticall(Web3j web3j, String multicallAddress, List<String> to,
+      List<String> data, List<List<TypeReference<Type>>> outputParameters, int maxBatchSize) throws IOException {
+    if (to.size() != data.size() || to.size() != outputParameters.size()) {
+      throw new IllegalArgumentException("to, data and outputParameters must have the same size");
+    }
+    int size = data.size();
+    int chunk = maxBatchSize > 0 ? maxBatchSize : Math.max(size, 1);
+    List<String> aggregates = new ArrayList<>();
+    for (int from = 0; from < size; from += chunk) {
+      int end = Math.min(from + chunk, size);
+      aggregates.add(Multicall3.encodeAggregate3(to.subList(from, end), data.subList(from, end)));
+    }
+    List<EthCall> responses = sendEthCalls(web3j, Collections.nCopies(aggregates.size(), multicallAddress),
+        aggregates, 0);
+    List<List<Type>> results = new ArrayList<>(size);
+    for (EthCall response : responses) {
+      if (response.getError() != null) {
+        throw new RuntimeException(response.getError().getMessage());
+      }
+      List<Multicall3.Result> aggregated = Multicall3.decodeAggregate3(response.getValue());
+      if (aggregated.size() != Math.min(chunk, size - results.size())) {
+        throw new RuntimeException("unexpected aggregate3 result count " + aggregated.size());
+      }
+      for (Multicall3.Result result : aggregated) {
+        int index = results.size();
+        if (!result.isSuccess()) {
+          throw new RuntimeException("call " + index + " to " + to.get(index) + " reverted");
+        }
+        results.add(FunctionReturnDecoder.decode(Numeric.toHexString(result.getReturnData()),
+            outputParameters.get(index)));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * send the eth_calls as JSON-RPC batch requests of at most maxBatchSize calls each
+   *
+   * @return the responses in the order of the calls
+   */
+  private static List<EthCall> sendEthCalls(Web3j web3j, List<String> to, List<String> data, int maxBatchSize)
+      throws IOException {
+    int size = data.size();
+    int chunk = maxBatchSize > 0 ? maxBatchSize : Math.max(size, 1);
+    List<EthCall> results = new ArrayList<>(Collections.nCopies(size, null));
+    for (int from = 0; from < size; from += chunk) {
+      int end = Math.min(from + chunk, size);
+      BatchRequest batch = web3j.newBatch();
+      Map<Long, Integer> indexes = new HashMap<>();
+      for (int i = from; i < end; i++) {
+        Request<?, EthCall> request = web3j.ethCall(createEthCall(to.get(i), data.get(i)),
+            DefaultBlockParameterName.LATEST);
+        indexes.put(request.getId(), i);
+        batch.add(request);
+      }
+      // the node is free to answer a batch in any order, so match the responses by id
+      BatchResponse response = batch.send();
+      for (Response<?> item : response.getResponses()) {
+        Integer index = indexes.remove(item.getId());
+        if (index == null) {
+          throw new RuntimeException("unexpected batch response id " + item.getId());
+        }
+        results.set(index, (EthCall) item);
+      }
+      if (!indexes.isEmpty()) {
+        throw new RuntimeException("missing batch responses for ids " + indexes.keySet());
+      }
+    }
+    return results;
+  }
+
+  private static Transaction createEthCall(String to, String data) {
+    return Transaction.createEthCallTransaction(
         Address.DEFAULT.getValue(),
         to,
-        encodedFunction
+        data
     );
+  }
 
-    EthCall response = web3j.ethCall(transaction, DefaultBlockParameterName.LATEST).send();
-
+  private static List<Type> decodeResult(EthCall response, List<TypeReference<Type>> outputParameters) {
     if (response.getError() != null) {
       throw new RuntimeException(response.getError().getMessage());
     } else {
       String value = response.getValue();
-      return FunctionReturnDecoder.decode(value, function.getOutputParameters());
+      return FunctionReturnDecoder.decode(value, outputParameters);
     }
   }
 }
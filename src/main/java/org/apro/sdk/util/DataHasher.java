@@ -0,0 +1,113 @@
+package org.apro.sdk.util;
+
+import org.bouncycastle.jcajce.provider.digest.Keccak;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * the keccak256 dataHash of VerifyParams, computed incrementally over the payload as it is read,
+ * without the hex string Utils.toKeccak256 takes. a file is hashed through read only memory mappings
+ * of MAP_WINDOW bytes at a time, so the payload is never held on the heap as a whole
+ *
+ * <pre>
+ * String dataHash = DataHasher.hex(Paths.get("payload.bin"));
+ * String dataHash = new DataHasher().update(header).update(inputStream).hex();
+ * </pre>
+ */
+public class DataHasher {
+
+  // the size of the memory mappings of a file region
+  private static final long MAP_WINDOW = 64L << 20;
+
+  private static final int STREAM_BUFFER = 64 << 10;
+
+  private final Keccak.Digest256 digest = new Keccak.Digest256();
+
+  public DataHasher update(byte[] data) {
+    digest.update(data);
+    return this;
+  }
+
+  public DataHasher update(byte[] data, int offset, int length) {
+    digest.update(data, offset, length);
+    return this;
+  }
+
+  /**
+   * hash the remaining bytes of data, its position is left unchanged
+   */
+  public DataHasher update(ByteBuffer data) {
+    digest.update(data.duplicate());
+    return this;
+  }
+
+  /**
+   * hash the stream to its end, the stream is not closed
+   */
+  public DataHasher update(InputStream in) throws IOException {
+    byte[] buffer = new byte[STREAM_BUFFER];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      digest.update(buffer, 0, read);
+    }
+    return this;
+  }
+
+  /**
+   * hash the region [position, position + size) of the file, mapped read only
+   */
+  public DataHasher update(FileChannel channel, long position, long size) throws IOException {
+    if (position < 0 || size < 0 || position + size > channel.size()) {
+      throw new IllegalArgumentException("the region is outside of the file");
+    }
+    long end = position + size;
+    for (long offset = position; offset < end; offset += MAP_WINDOW) {
+      MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_WINDOW, end - offset));
+      digest.update(window);
+    }
+    return this;
+  }
+
+  /**
+   * the hash of everything updated so far, the hasher is reset for a new payload
+   */
+  public byte[] digest() {
+    return digest.digest();
+  }
+
+  /**
+   * the hex of digest(), as VerifyParams.dataHash
+   */
+  public String hex() {
+    return Numeric.toHexString(digest());
+  }
+
+  public static String hex(byte[] data) {
+    return new DataHasher().update(data).hex();
+  }
+
+  public static String hex(ByteBuffer data) {
+    return new DataHasher().update(data).hex();
+  }
+
+  public static String hex(InputStream in) throws IOException {
+    return new DataHasher().update(in).hex();
+  }
+
+  public static String hex(FileChannel channel, long position, long size) throws IOException {
+    return new DataHasher().update(channel, position, size).hex();
+  }
+
+  public static String hex(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return hex(channel, 0, channel.size());
+    }
+  }
+}
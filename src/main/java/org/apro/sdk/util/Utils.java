@@ -39,8 +39,24 @@ public class Utils {
     return ETH_ADDRESS_PATTERN.matcher(address).matches();
   }
 
+  /**
+   * the same check as UUID_REGEX, a version 4 UUID in the 8-4-4-4-12 form, without the regex engine
+   */
   public static boolean checkUUID(String uuid) {
-    return UUID_REGEX.matcher(uuid).matches();
+    if (uuid.length() != 36 || uuid.charAt(14) != '4') {
+      return false;
+    }
+    for (int i = 0; i < 36; i++) {
+      char c = uuid.charAt(i);
+      if (i == 8 || i == 13 || i == 18 || i == 23) {
+        if (c != '-') {
+          return false;
+        }
+      } else if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F')) {
+        return false;
+      }
+    }
+    return true;
   }
 
   public static String generateUUID() {
@@ -0,0 +1,185 @@
+package org.apro.sdk;
+
+import org.apro.sdk.config.ChainConfig;
+import org.apro.sdk.config.Constants;
+import org.apro.sdk.params.AgentSettingsParams;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.Transaction;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AiAgentCliTest {
+
+  private static final String PROXY = "0x" + "11".repeat(20);
+  private static final String MANAGER = "0x" + "22".repeat(20);
+  private static final String SOURCE_AGENT_ID = "2c167873-a6fc-4cee-b505-6c1ae2cd4763";
+  private static final String TAKEN_SOURCE_AGENT_ID = "9e0c2a51-5f3e-4d7b-9a8c-2b1f6e4d3c21";
+
+  private final StubWeb3jService node = new StubWeb3jService(AiAgentCliTest::respond);
+  private final AiAgentCli cli = new AiAgentCli(new ChainConfig(null, TestFixtures.CHAIN_ID, PROXY), node);
+
+  @AfterEach
+  void shutdown() {
+    cli.close();
+  }
+
+  @Test
+  void checksTheVersionAndTheSourceAgentIdTogether() throws Exception {
+    // the version and the isValidSourceAgentId calls only return once both are in flight
+    CyclicBarrier bothInFlight = new CyclicBarrier(2);
+    StubWeb3jService concurrentNode = new StubWeb3jService(request -> {
+      if (!callData(request).contains(Constants.AGENT_MANAGER_SELECTOR)) {
+        try {
+          bothInFlight.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+          throw new IOException("the version and the source agent id were not requested together", e);
+        }
+      }
+      return respond(request);
+    });
+    ExecutorService executor = Executors.newCachedThreadPool();
+    ChainConfig config = new ChainConfig(null, TestFixtures.CHAIN_ID, PROXY);
+    config.setExecutor(executor);
+    AgentSettingsParams params = agentSettingsParams(SOURCE_AGENT_ID).build();
+    try (AiAgentCli concurrentCli = new AiAgentCli(config, concurrentNode)) {
+      concurrentCli.buildRegisterAgentTx(BigInteger.ONE, BigInteger.ONE, BigInteger.valueOf(1_000_000), PROXY,
+          params);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals("1.0", params.getVersion().getValue());
+  }
+
+  @Test
+  void leavesTheCallerParamsUnchanged() throws Exception {
+    AgentSettingsParams params = agentSettingsParams(null).build();
+
+    List<RawTransaction> txs = buildRegisterAgentTxs(List.of(params));
+
+    assertEquals(1, txs.size());
+    assertNull(params.getVersion());
+    assertNull(params.getSourceAgentId());
+    assertNull(params.getMessageId());
+    assertNull(params.getTimestamp());
+  }
+
+  @Test
+  void pairsEachTxWithTheParamsOfItsIndex() throws Exception {
+    List<String> sourceAgentIds = List.of(SOURCE_AGENT_ID,
+        "5a0f4d1c-3b7e-4f21-9c8d-2e6b1a7f0c35", "e8c2b9a4-7d61-4f0e-8a3b-9f5c1d2e4b76");
+    List<AgentSettingsParams> params = new ArrayList<>();
+    for (String sourceAgentId : sourceAgentIds) {
+      params.add(agentSettingsParams(sourceAgentId).build());
+    }
+
+    List<RawTransaction> txs = buildRegisterAgentTxs(params);
+
+    assertEquals(3, txs.size());
+    for (int i = 0; i < txs.size(); i++) {
+      assertEquals(BigInteger.valueOf(7 + i), txs.get(i).getNonce());
+      String encodedId = Hex.toHexString(sourceAgentIds.get(i).getBytes(StandardCharsets.UTF_8));
+      assertTrue(txs.get(i).getData().contains(encodedId));
+    }
+    // one isValidSourceAgentId call per source agent id
+    assertEquals(List.of(3), node.getBatchSizes());
+  }
+
+  @Test
+  void rejectsARepeatedSourceAgentId() {
+    List<AgentSettingsParams> params = List.of(
+        agentSettingsParams(SOURCE_AGENT_ID).build(),
+        agentSettingsParams(null).build(),
+        agentSettingsParams(SOURCE_AGENT_ID).priority(new Uint8(2)).build());
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> buildRegisterAgentTxs(params));
+    assertEquals("Agent source id is repeated: " + SOURCE_AGENT_ID, e.getMessage());
+    // refused before any isValidSourceAgentId call
+    assertTrue(node.getBatchSizes().isEmpty());
+  }
+
+  @Test
+  void failsOnASourceAgentIdAlreadyRegistered() {
+    List<AgentSettingsParams> params = List.of(
+        agentSettingsParams(SOURCE_AGENT_ID).build(),
+        agentSettingsParams(TAKEN_SOURCE_AGENT_ID).build());
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> buildRegisterAgentTxs(params));
+    assertEquals("Agent source id is already existed: " + TAKEN_SOURCE_AGENT_ID, e.getMessage());
+  }
+
+  @Test
+  void rejectsAnotherVersion() {
+    List<AgentSettingsParams> params = List.of(agentSettingsParams(null).version(new Utf8String("2.0")).build());
+
+    assertThrows(IllegalArgumentException.class, () -> buildRegisterAgentTxs(params));
+  }
+
+  private List<RawTransaction> buildRegisterAgentTxs(List<AgentSettingsParams> params) throws Exception {
+    return cli.buildRegisterAgentTxs(BigInteger.valueOf(7), BigInteger.ONE, BigInteger.valueOf(1_000_000), PROXY,
+        params);
+  }
+
+  private static AgentSettingsParams.AgentSettingsParamsBuilder agentSettingsParams(String sourceAgentId) {
+    return AgentSettingsParams.builder()
+        .signers(new DynamicArray<>(Address.class, List.of(new Address(TestFixtures.credentials(0).getAddress()))))
+        .threshold(new Uint8(1))
+        .converterAddress(Address.DEFAULT)
+        .sourceAgentId(sourceAgentId != null ? new Utf8String(sourceAgentId) : null)
+        .sourceAgentName(new Utf8String("sdk test"))
+        .targetAgentId(new Utf8String("c1dd33c9-8196-4c7d-b035-1baab7966c73"))
+        .messageType(new Uint8(2))
+        .priority(new Uint8(1))
+        .ttl(new Uint256(3600));
+  }
+
+  /**
+   * the eth_call results by selector: the manager of the proxy, the version of the manager,
+   * and whether a source agent id is still free
+   */
+  private static Object respond(Request<?, ?> request) {
+    if (!"eth_call".equals(request.getMethod())) {
+      throw new UnsupportedOperationException(request.getMethod());
+    }
+    String data = callData(request);
+    if (data.contains(Constants.AGENT_MANAGER_SELECTOR)) {
+      return "0x" + FunctionEncoder.encodeConstructor(Collections.singletonList(new Address(MANAGER)));
+    }
+    if (data.contains(Constants.AGENT_VERSION_SELECTOR)) {
+      return "0x" + FunctionEncoder.encodeConstructor(Collections.singletonList(new Utf8String("1.0")));
+    }
+    boolean taken = data.contains(Hex.toHexString(TAKEN_SOURCE_AGENT_ID.getBytes(StandardCharsets.UTF_8)));
+    return "0x" + FunctionEncoder.encodeConstructor(Collections.singletonList(new Bool(!taken)));
+  }
+
+  private static String callData(Request<?, ?> request) {
+    return ((Transaction) request.getParams().get(0)).getData();
+  }
+}
@@ -0,0 +1,104 @@
+package org.apro.sdk;
+
+import org.apro.sdk.config.ChainConfig;
+import org.apro.sdk.config.Constants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.Transaction;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CallBatchTest {
+
+  private static final String PROXY = "0x" + "11".repeat(20);
+  private static final String MANAGER = "0x" + "22".repeat(20);
+  private static final String MULTICALL = Constants.MULTICALL3_ADDRESS.toLowerCase();
+
+  private final StubWeb3jService node = new StubWeb3jService(this::respond);
+  private boolean revertIsValidSourceAgentId;
+  private AiAgentCli cli;
+
+  @AfterEach
+  void shutdown() {
+    if (cli != null) {
+      cli.close();
+    }
+  }
+
+  @Test
+  void foldsTheCallsIntoOneAggregate3() throws IOException {
+    cli = cli(MULTICALL);
+    CallBatch batch = cli.batch()
+        .getManager(PROXY)
+        .getAgentVersion(PROXY)
+        .isValidSourceAgentId(PROXY, "2c167873-a6fc-4cee-b505-6c1ae2cd4763");
+    int methodsBefore = node.getMethods().size();
+
+    assertEquals(List.of(MANAGER, "1.0", true), batch.execute());
+    assertEquals(List.of(1), node.getBatchSizes());
+    assertEquals(methodsBefore + 1, node.getMethods().size());
+  }
+
+  @Test
+  void returnsTheSameResultsWithoutMulticall() throws IOException {
+    cli = cli(null);
+    CallBatch batch = cli.batch()
+        .getManager(PROXY)
+        .getAgentVersion(PROXY)
+        .isValidSourceAgentId(PROXY, "2c167873-a6fc-4cee-b505-6c1ae2cd4763");
+
+    assertEquals(List.of(MANAGER, "1.0", true), batch.execute());
+    assertEquals(List.of(3), node.getBatchSizes());
+  }
+
+  @Test
+  void failsOnAFailedFoldedCall() throws IOException {
+    cli = cli(MULTICALL);
+    revertIsValidSourceAgentId = true;
+    CallBatch batch = cli.batch()
+        .getManager(PROXY)
+        .isValidSourceAgentId(PROXY, "2c167873-a6fc-4cee-b505-6c1ae2cd4763");
+
+    RuntimeException e = assertThrows(RuntimeException.class, batch::execute);
+    assertEquals("call 1 to " + MANAGER + " reverted", e.getMessage());
+  }
+
+  private AiAgentCli cli(String multicallAddress) {
+    ChainConfig config = new ChainConfig(null, TestFixtures.CHAIN_ID, PROXY);
+    config.setMulticallAddress(multicallAddress);
+    return new AiAgentCli(config, node);
+  }
+
+  private Object respond(Request<?, ?> request) {
+    Transaction call = (Transaction) request.getParams().get(0);
+    if (MULTICALL.equals(call.getTo().toLowerCase())) {
+      return Multicall3Node.respond(call.getData(), this::call);
+    }
+    return "0x" + call(call.getTo(), call.getData());
+  }
+
+  /**
+   * the single calls by selector: the manager of the proxy, the version of the manager,
+   * and isValidSourceAgentId otherwise
+   */
+  private String call(String target, String calldata) {
+    if (calldata.startsWith(Constants.AGENT_MANAGER_SELECTOR)) {
+      return FunctionEncoder.encodeConstructor(Collections.singletonList(new Address(MANAGER)));
+    }
+    if (calldata.startsWith(Constants.AGENT_VERSION_SELECTOR)) {
+      return FunctionEncoder.encodeConstructor(Collections.singletonList(new Utf8String("1.0")));
+    }
+    return revertIsValidSourceAgentId ? null
+        : FunctionEncoder.encodeConstructor(Collections.singletonList(new Bool(true)));
+  }
+}
@@ -0,0 +1,64 @@
+package org.apro.sdk;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.DynamicStruct;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * the Multicall3 side of a stub node: reads the calls folded into aggregate3 calldata and encodes
+ * the (bool,bytes)[] result with web3j, independently of the Multicall3 encoder under test
+ */
+public class Multicall3Node {
+
+  private static final int WORD = 32;
+
+  @FunctionalInterface
+  public interface CallHandler {
+
+    /**
+     * @return the hex return data of the call, or null for a reverted call
+     */
+    String call(String target, String calldata);
+  }
+
+  /**
+   * run every call of the aggregate3 calldata through the handler
+   *
+   * @return the hex aggregate3 result with the 0x prefix
+   */
+  public static String respond(String aggregate3Calldata, CallHandler handler) {
+    byte[] in = Numeric.hexStringToByteArray(aggregate3Calldata);
+    // skip the selector, the arguments start with the offset of the array
+    byte[] arguments = Arrays.copyOfRange(in, 4, in.length);
+    int array = readInt(arguments, 0);
+    int count = readInt(arguments, array);
+    int heads = array + WORD;
+    List<DynamicStruct> results = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int element = heads + readInt(arguments, heads + WORD * i);
+      String target = Numeric.toHexString(Arrays.copyOfRange(arguments, element + 12, element + WORD));
+      int bytes = element + readInt(arguments, element + 2 * WORD);
+      int length = readInt(arguments, bytes);
+      String calldata = Numeric.toHexString(Arrays.copyOfRange(arguments, bytes + WORD, bytes + WORD + length));
+      String returnData = handler.call(target, calldata);
+      results.add(new DynamicStruct(
+          new Bool(returnData != null),
+          new DynamicBytes(returnData != null ? Numeric.hexStringToByteArray(returnData) : new byte[0])));
+    }
+    return "0x" + FunctionEncoder.encodeConstructor(Collections.singletonList(
+        new DynamicArray<>(DynamicStruct.class, results)));
+  }
+
+  private static int readInt(byte[] in, int word) {
+    return new BigInteger(1, Arrays.copyOfRange(in, word, word + WORD)).intValueExact();
+  }
+}
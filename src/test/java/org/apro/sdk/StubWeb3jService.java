@@ -0,0 +1,124 @@
+package org.apro.sdk;
+
+import io.reactivex.Flowable;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+
+/**
+ * a node answering every request with the handler, and recording the requests it was sent
+ */
+public class StubWeb3jService implements Web3jService {
+
+  @FunctionalInterface
+  public interface Handler {
+
+    /**
+     * @return the result of the request, or a Response.Error for a JSON-RPC error
+     * @throws IOException for a transport failure
+     */
+    Object handle(Request<?, ?> request) throws IOException;
+  }
+
+  private final Handler handler;
+  private volatile UnaryOperator<List<Response<?>>> batchTransformer = UnaryOperator.identity();
+
+  private final List<String> methods = new CopyOnWriteArrayList<>();
+  private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+  public StubWeb3jService(Handler handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * reorder or drop the responses of every batch, as a node is free to
+   */
+  public StubWeb3jService withBatchTransformer(UnaryOperator<List<Response<?>>> batchTransformer) {
+    this.batchTransformer = batchTransformer;
+    return this;
+  }
+
+  public List<String> getMethods() {
+    return methods;
+  }
+
+  public List<Integer> getBatchSizes() {
+    return batchSizes;
+  }
+
+  @Override
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+    methods.add(request.getMethod());
+    return (T) respond(request, responseType);
+  }
+
+  @Override
+  public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+    try {
+      return CompletableFuture.completedFuture(send(request, responseType));
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+    List<Request<?, ? extends Response<?>>> requests = batchRequest.getRequests();
+    batchSizes.add(requests.size());
+    List<Response<?>> responses = new ArrayList<>(requests.size());
+    for (Request<?, ? extends Response<?>> request : requests) {
+      methods.add(request.getMethod());
+      responses.add(respond(request, request.getResponseType()));
+    }
+    return new BatchResponse(requests, batchTransformer.apply(responses));
+  }
+
+  @Override
+  public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+    try {
+      return CompletableFuture.completedFuture(sendBatch(batchRequest));
+    } catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  @Override
+  public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+      Class<T> responseType) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void close() {
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private Response<?> respond(Request<?, ?> request, Class<? extends Response> responseType) throws IOException {
+    Object result = handler.handle(request);
+    Response response;
+    try {
+      response = responseType.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+    response.setId(request.getId());
+    response.setJsonrpc("2.0");
+    if (result instanceof Response.Error) {
+      response.setError((Response.Error) result);
+    } else {
+      response.setResult(result);
+    }
+    return response;
+  }
+}
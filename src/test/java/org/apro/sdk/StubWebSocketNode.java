@@ -0,0 +1,123 @@
+package org.apro.sdk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.web3j.protocol.ObjectMapperFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * an in-process websocket node answering eth_subscribe, which pushes the notifications the tests ask for
+ */
+public class StubWebSocketNode extends WebSocketServer {
+
+  private final ObjectMapper mapper = ObjectMapperFactory.getObjectMapper();
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final AtomicInteger subscriptionIds = new AtomicInteger();
+  // the subscription id by type, e.g. newHeads or logs
+  private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+  private volatile WebSocket client;
+
+  public StubWebSocketNode() {
+    super(new InetSocketAddress("localhost", 0));
+    setReuseAddr(true);
+  }
+
+  /**
+   * the url of the started node
+   */
+  public String getUrl() throws InterruptedException {
+    if (!started.await(5, TimeUnit.SECONDS)) {
+      throw new IllegalStateException("the websocket node did not start");
+    }
+    return "ws://localhost:" + getPort();
+  }
+
+  /**
+   * wait until the client subscribed to each type
+   */
+  public void awaitSubscriptions(String... types) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    for (String type : types) {
+      while (!subscriptions.containsKey(type)) {
+        if (System.currentTimeMillis() > deadline) {
+          throw new IllegalStateException("no " + type + " subscription");
+        }
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  /**
+   * push the result to the subscription of the type, e.g. a head or a log as the node encodes it
+   */
+  public void push(String type, Map<String, Object> result) {
+    ObjectNode params = mapper.createObjectNode();
+    params.put("subscription", subscriptions.get(type));
+    params.set("result", mapper.valueToTree(result));
+    ObjectNode notification = mapper.createObjectNode();
+    notification.put("jsonrpc", "2.0");
+    notification.put("method", "eth_subscription");
+    notification.set("params", params);
+    client.send(notification.toString());
+  }
+
+  @Override
+  public void onStart() {
+    started.countDown();
+  }
+
+  @Override
+  public void onOpen(WebSocket conn, ClientHandshake handshake) {
+    client = conn;
+  }
+
+  @Override
+  public void onMessage(WebSocket conn, String message) {
+    JsonNode request;
+    try {
+      request = mapper.readTree(message);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    ObjectNode reply = mapper.createObjectNode();
+    reply.put("jsonrpc", "2.0");
+    reply.set("id", request.get("id"));
+    String method = request.get("method").asText();
+    if ("eth_subscribe".equals(method)) {
+      String id = "0x" + Integer.toHexString(subscriptionIds.incrementAndGet());
+      reply.put("result", id);
+      conn.send(reply.toString());
+      // known once the reply is sent, so that nothing is pushed before the client has the id
+      subscriptions.put(request.get("params").get(0).asText(), id);
+      return;
+    }
+    if ("eth_unsubscribe".equals(method)) {
+      reply.put("result", true);
+    } else {
+      ObjectNode error = reply.putObject("error");
+      error.put("code", -32601);
+      error.put("message", "the method " + method + " does not exist");
+    }
+    conn.send(reply.toString());
+  }
+
+  @Override
+  public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+  }
+
+  @Override
+  public void onError(WebSocket conn, Exception e) {
+  }
+}
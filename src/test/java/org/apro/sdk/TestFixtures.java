@@ -0,0 +1,166 @@
+package org.apro.sdk;
+
+import org.apro.sdk.params.AgentHeader;
+import org.apro.sdk.params.AgentSettingsParams;
+import org.apro.sdk.params.AgentSettingsStruct;
+import org.apro.sdk.params.VerifyParams;
+import org.apro.sdk.util.Utils;
+import org.bouncycastle.util.encoders.Hex;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * deterministic inputs shared by the tests and the benchmarks
+ */
+public class TestFixtures {
+
+  public static final String AGENT = "0x5E787A4131Cf9fC902C99235df5C8314C816DA11";
+  public static final String SETTINGS_DIGEST = "0x" + "ab".repeat(32);
+  public static final long CHAIN_ID = 97;
+
+  public static Credentials credentials(int index) {
+    return Credentials.create(ECKeyPair.create(BigInteger.valueOf(1000L + index)));
+  }
+
+  /**
+   * hex data of size bytes
+   */
+  public static String data(int size) {
+    byte[] bytes = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bytes[i] = (byte) ('a' + i % 26);
+    }
+    return Hex.toHexString(bytes);
+  }
+
+  public static List<Sign.SignatureData> signatures(String data, int count) {
+    List<Sign.SignatureData> signatures = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      signatures.add(Sign.signMessage(Utils.toBytes(data), credentials(i).getEcKeyPair()));
+    }
+    return signatures;
+  }
+
+  public static VerifyParams.VerifyParamsBuilder verifyParams(String data, int signatureCount) {
+    return verifyParams(data, signatures(data, signatureCount));
+  }
+
+  /**
+   * the params over signatures made once, e.g. outside of a benchmark loop
+   */
+  public static VerifyParams.VerifyParamsBuilder verifyParams(String data, List<Sign.SignatureData> signatures) {
+    return VerifyParams.builder()
+        .agent(AGENT)
+        .settingsDigest(SETTINGS_DIGEST)
+        .data(data)
+        .dataHash(Hex.toHexString(Utils.toKeccak256(data)))
+        .signatures(signatures);
+  }
+
+  public static AgentSettingsParams agentSettingsParams(int signerCount) {
+    return AgentSettingsParams.builder()
+        .signers(new DynamicArray<>(Address.class, signers(signerCount)))
+        .threshold(new Uint8(signerCount))
+        .converterAddress(Address.DEFAULT)
+        .version(new Utf8String("1.0"))
+        .messageId(new Utf8String("333833c0-0b15-449c-815e-8040eff67c8d"))
+        .sourceAgentId(new Utf8String("2c167873-a6fc-4cee-b505-6c1ae2cd4763"))
+        .sourceAgentName(new Utf8String("sdk benchmark"))
+        .targetAgentId(new Utf8String("c1dd33c9-8196-4c7d-b035-1baab7966c73"))
+        .timestamp(new Uint256(1735689600L))
+        .messageType(new Uint8(2))
+        .priority(new Uint8(1))
+        .ttl(new Uint256(3600))
+        .build();
+  }
+
+  public static AgentHeader agentHeader() {
+    return new AgentHeader(
+        new Utf8String("1.0"),
+        new Utf8String("333833c0-0b15-449c-815e-8040eff67c8d"),
+        new Utf8String("2c167873-a6fc-4cee-b505-6c1ae2cd4763"),
+        new Utf8String("sdk benchmark"),
+        new Utf8String("c1dd33c9-8196-4c7d-b035-1baab7966c73"),
+        new Uint256(1735689600L),
+        new Uint8(2),
+        new Uint8(1),
+        new Uint256(3600));
+  }
+
+  /**
+   * the ABI bytes AgentHeader.build decodes
+   */
+  public static byte[] agentHeaderBytes() {
+    return Numeric.hexStringToByteArray(FunctionEncoder.encodeConstructor(agentHeader().getValue()));
+  }
+
+  /**
+   * the ABI bytes AgentSettingsStruct.build decodes
+   */
+  public static byte[] agentSettingsBytes(int signerCount) {
+    List<Type> values = Arrays.asList(
+        new DynamicArray<>(Address.class, signers(signerCount)),
+        new Uint8(signerCount),
+        Address.DEFAULT,
+        agentHeader());
+    return Numeric.hexStringToByteArray(FunctionEncoder.encodeConstructor(values));
+  }
+
+  /**
+   * a JSON agent message of about size bytes, price ticks with repeated keys and drifting values
+   */
+  public static byte[] agentMessage(int size) {
+    StringBuilder message = new StringBuilder(size + 128);
+    message.append("{\"agent\":\"").append(AGENT).append("\",\"messageId\":\"333833c0-0b15-449c-815e-8040eff67c8d\",\"ticks\":[");
+    long price = 9_653_021_000L;
+    for (int i = 0; message.length() < size; i++) {
+      price += (i * 7919L) % 2001 - 1000;
+      if (i > 0) {
+        message.append(',');
+      }
+      message.append("{\"symbol\":\"BTC/USD\",\"price\":").append(price)
+          .append(",\"timestamp\":").append(1735689600000L + i * 250L)
+          .append(",\"source\":\"").append(i % 3 == 0 ? "binance" : i % 3 == 1 ? "okx" : "coinbase").append("\"}");
+    }
+    message.append("]}");
+    return message.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * the data of an AgentRegistered log, the abi encoded agent settings with the ids
+   */
+  public static String agentRegisteredData(String sourceAgentId, String messageId) {
+    AgentHeader header = new AgentHeader(new Utf8String("1.0"), new Utf8String(messageId),
+        new Utf8String(sourceAgentId), new Utf8String("sdk test"),
+        new Utf8String("c1dd33c9-8196-4c7d-b035-1baab7966c73"), new Uint256(1_700_000_000L), new Uint8(2),
+        new Uint8(1), new Uint256(3600));
+    AgentSettingsStruct settings = new AgentSettingsStruct(
+        new DynamicArray<>(Address.class, List.of(new Address(credentials(0).getAddress()))),
+        new Uint8(1), new Address(AGENT), header);
+    return "0x" + FunctionEncoder.encodeConstructor(Collections.singletonList(settings));
+  }
+
+  private static List<Address> signers(int count) {
+    List<Address> signers = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      signers.add(new Address(credentials(i).getAddress()));
+    }
+    return signers;
+  }
+}
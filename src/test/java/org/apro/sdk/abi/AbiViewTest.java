@@ -0,0 +1,207 @@
+package org.apro.sdk.abi;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.params.AgentHeader;
+import org.apro.sdk.params.AgentSettingsStruct;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AbiViewTest {
+
+  private static final String CONVERTER = "0x" + "c0".repeat(20);
+  // multibyte characters and more than one word
+  private static final String LONG_NAME = "agent ünïcödé 名前 " + "x".repeat(40);
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 2, 7})
+  void readsTheSettingsAsAgentSettingsStructBuildDecodesThem(int signerCount) {
+    byte[] bytes = settingsBytes(signerCount, header("1.0", "", LONG_NAME));
+
+    AgentSettingsStruct struct = AgentSettingsStruct.build(bytes);
+    AgentSettingsView view = AgentSettingsView.wrap(bytes);
+
+    assertEquals(signerCount, view.getSignerCount());
+    assertArrayEquals(struct.getSigners(), view.getSigners());
+    for (int i = 0; i < signerCount; i++) {
+      assertEquals(struct.getSigners()[i], view.getSigner(i));
+    }
+    assertEquals(struct.getThreshold(), view.getThreshold());
+    assertEquals(struct.getConvertAddress(), view.getConvertAddress());
+    assertHeaderEquals(struct.getAgentConfig(), view.getAgentConfig());
+    assertSettingsEquals(struct, view.toAgentSettingsStruct());
+    assertThrows(IndexOutOfBoundsException.class, () -> view.getSigner(signerCount));
+  }
+
+  @Test
+  void readsEmptyAndMultibyteStringsAsAgentHeaderBuildDecodesThem() {
+    AgentHeader header = header("", "", LONG_NAME);
+    byte[] bytes = headerBytes(header);
+
+    AgentHeader decoded = AgentHeader.build(bytes);
+    AgentHeaderView view = AgentHeaderView.wrap(bytes);
+
+    assertEquals("", view.getVersion());
+    assertEquals("", view.getTargetAgentId());
+    assertEquals(LONG_NAME, view.getSourceAgentName());
+    assertHeaderEquals(decoded, view);
+    assertHeaderEquals(decoded, view.toAgentHeader());
+  }
+
+  @Test
+  void readsAViewAtTheBufferPositionOfAHeapOrADirectBuffer() {
+    byte[] bytes = headerBytes(header("1.0", "7b1e2a4c-9d3f-4e5a-8c6b-0f1e2d3c4b5a", LONG_NAME));
+    AgentHeader decoded = AgentHeader.build(bytes);
+    byte[] prefixed = new byte[bytes.length + 64];
+    System.arraycopy(bytes, 0, prefixed, 64, bytes.length);
+    ByteBuffer direct = ByteBuffer.allocateDirect(prefixed.length).put(prefixed);
+
+    assertHeaderEquals(decoded, AgentHeaderView.wrap((ByteBuffer) ByteBuffer.wrap(prefixed).position(64)));
+    assertHeaderEquals(decoded, AgentHeaderView.wrap((ByteBuffer) direct.position(64)));
+  }
+
+  @Test
+  void readsTheSettingsOfAnAgentRegisteredLog() {
+    String sourceAgentId = "da3bdf1e-4f5c-49bc-a1f5-1b8e6f4c2c11";
+    String messageId = "7b1e2a4c-9d3f-4e5a-8c6b-0f1e2d3c4b5a";
+
+    AgentSettingsView view = AgentSettingsView.ofEventData(
+        Numeric.hexStringToByteArray(TestFixtures.agentRegisteredData(sourceAgentId, messageId)));
+
+    assertEquals(1, view.getSignerCount());
+    assertEquals(TestFixtures.credentials(0).getAddress(), view.getSigner(0));
+    assertEquals(sourceAgentId, view.getAgentConfig().getSourceAgentId());
+    assertEquals(messageId, view.getAgentConfig().getMessageId());
+  }
+
+  @Test
+  void rejectsAnOffsetPastTheEnd() {
+    byte[] bytes = headerBytes(header("1.0", "", LONG_NAME));
+    // the offset of the sourceAgentId
+    setWord(bytes, 2, BigInteger.valueOf(bytes.length));
+
+    assertThrows(IllegalArgumentException.class, () -> AgentHeaderView.wrap(bytes).getSourceAgentId());
+  }
+
+  @Test
+  void rejectsAnOffsetThatDoesNotFitAnInt() {
+    byte[] bytes = headerBytes(header("1.0", "", LONG_NAME));
+    setWord(bytes, 2, BigInteger.ONE.shiftLeft(200));
+    byte[] negative = headerBytes(header("1.0", "", LONG_NAME));
+    setWord(negative, 2, BigInteger.valueOf(0x80000000L));
+
+    assertThrows(IllegalArgumentException.class, () -> AgentHeaderView.wrap(bytes).getSourceAgentId());
+    assertThrows(IllegalArgumentException.class, () -> AgentHeaderView.wrap(negative).getSourceAgentId());
+  }
+
+  @Test
+  void rejectsALengthPastTheEnd() {
+    byte[] bytes = headerBytes(header("1.0", "", LONG_NAME));
+    int sourceAgentName = Numeric.toBigInt(Arrays.copyOfRange(bytes, 3 * 32, 4 * 32)).intValueExact();
+    // the largest int, whose end overflows an int
+    setWordAt(bytes, sourceAgentName, BigInteger.valueOf(Integer.MAX_VALUE));
+
+    assertThrows(IllegalArgumentException.class, () -> AgentHeaderView.wrap(bytes).getSourceAgentName());
+  }
+
+  @Test
+  void rejectsASignerCountPastTheEnd() {
+    byte[] bytes = settingsBytes(2, header("1.0", "", LONG_NAME));
+    int signers = Numeric.toBigInt(Arrays.copyOfRange(bytes, 0, 32)).intValueExact();
+    setWordAt(bytes, signers, BigInteger.valueOf(Integer.MAX_VALUE));
+    AgentSettingsView view = AgentSettingsView.wrap(bytes);
+
+    assertThrows(IllegalArgumentException.class, view::getSignerCount);
+    assertThrows(IllegalArgumentException.class, view::getSigners);
+  }
+
+  @Test
+  void rejectsTruncatedData() {
+    byte[] bytes = settingsBytes(2, header("1.0", "", LONG_NAME));
+    AgentSettingsView view = AgentSettingsView.wrap(Arrays.copyOf(bytes, bytes.length - 32));
+
+    // the length word of the targetAgentId, the last string
+    assertThrows(IllegalArgumentException.class, () -> view.getAgentConfig().getTargetAgentId());
+  }
+
+  private static AgentHeader header(String version, String targetAgentId, String sourceAgentName) {
+    return new AgentHeader(new Utf8String(version), new Utf8String("333833c0-0b15-449c-815e-8040eff67c8d"),
+        new Utf8String("2c167873-a6fc-4cee-b505-6c1ae2cd4763"), new Utf8String(sourceAgentName),
+        new Utf8String(targetAgentId), new Uint256(1_735_689_600L), new Uint8(2), new Uint8(255),
+        new Uint256(BigInteger.ONE.shiftLeft(255)));
+  }
+
+  private static byte[] headerBytes(AgentHeader header) {
+    return Numeric.hexStringToByteArray(FunctionEncoder.encodeConstructor(header.getValue()));
+  }
+
+  private static byte[] settingsBytes(int signerCount, AgentHeader header) {
+    List<Address> signers = new ArrayList<>(signerCount);
+    for (int i = 0; i < signerCount; i++) {
+      signers.add(new Address(TestFixtures.credentials(i).getAddress()));
+    }
+    List<Type> values = Arrays.asList(
+        new DynamicArray<>(Address.class, signers),
+        new Uint8(Math.max(1, signerCount)),
+        new Address(CONVERTER),
+        header);
+    return Numeric.hexStringToByteArray(FunctionEncoder.encodeConstructor(values));
+  }
+
+  private static void setWord(byte[] bytes, int index, BigInteger value) {
+    setWordAt(bytes, index * 32, value);
+  }
+
+  private static void setWordAt(byte[] bytes, int position, BigInteger value) {
+    System.arraycopy(Numeric.toBytesPadded(value, 32), 0, bytes, position, 32);
+  }
+
+  private static void assertSettingsEquals(AgentSettingsStruct expected, AgentSettingsStruct actual) {
+    assertArrayEquals(expected.getSigners(), actual.getSigners());
+    assertEquals(expected.getThreshold(), actual.getThreshold());
+    assertEquals(expected.getConvertAddress(), actual.getConvertAddress());
+    assertHeaderEquals(expected.getAgentConfig(), actual.getAgentConfig());
+  }
+
+  private static void assertHeaderEquals(AgentHeader expected, AgentHeaderView actual) {
+    assertEquals(expected.getVersion(), actual.getVersion());
+    assertEquals(expected.getMessageId(), actual.getMessageId());
+    assertEquals(expected.getSourceAgentId(), actual.getSourceAgentId());
+    assertEquals(expected.getSourceAgentName(), actual.getSourceAgentName());
+    assertEquals(expected.getTargetAgentId(), actual.getTargetAgentId());
+    assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    assertEquals(expected.getMessageType(), actual.getMessageType());
+    assertEquals(expected.getPriority(), actual.getPriority());
+    assertEquals(expected.getTtl(), actual.getTtl());
+  }
+
+  private static void assertHeaderEquals(AgentHeader expected, AgentHeader actual) {
+    assertEquals(expected.getVersion(), actual.getVersion());
+    assertEquals(expected.getMessageId(), actual.getMessageId());
+    assertEquals(expected.getSourceAgentId(), actual.getSourceAgentId());
+    assertEquals(expected.getSourceAgentName(), actual.getSourceAgentName());
+    assertEquals(expected.getTargetAgentId(), actual.getTargetAgentId());
+    assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    assertEquals(expected.getMessageType(), actual.getMessageType());
+    assertEquals(expected.getPriority(), actual.getPriority());
+    assertEquals(expected.getTtl(), actual.getTtl());
+  }
+}
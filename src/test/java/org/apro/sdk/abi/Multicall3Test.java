@@ -0,0 +1,96 @@
+package org.apro.sdk.abi;
+
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.DynamicStruct;
+import org.web3j.utils.Numeric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Multicall3Test {
+
+  private static final List<String> TARGETS = List.of(
+      "0x" + "11".repeat(20), "0x" + "22".repeat(20), "0x" + "33".repeat(20), "0x" + "44".repeat(20));
+  // a bare selector, a whole word, a partial word and no calldata at all
+  private static final List<String> CALLDATA = List.of(
+      "0x12345678", "0x" + "ab".repeat(32), "0x" + "cd".repeat(37), "0x");
+
+  @Test
+  void encodesAsWeb3jDynamicStructs() {
+    List<DynamicStruct> calls = new ArrayList<>();
+    for (int i = 0; i < TARGETS.size(); i++) {
+      calls.add(new DynamicStruct(new Address(TARGETS.get(i)), new Bool(true),
+          new DynamicBytes(Numeric.hexStringToByteArray(CALLDATA.get(i)))));
+    }
+
+    assertEquals(web3jAggregate3(calls), Multicall3.encodeAggregate3(TARGETS, CALLDATA));
+  }
+
+  @Test
+  void encodesNoCall() {
+    assertEquals(web3jAggregate3(Collections.emptyList()),
+        Multicall3.encodeAggregate3(Collections.emptyList(), Collections.emptyList()));
+  }
+
+  @Test
+  void rejectsAnInvalidTarget() {
+    assertThrows(IllegalArgumentException.class, () ->
+        Multicall3.encodeAggregate3(List.of("0x" + "11".repeat(21)), List.of("0x12345678")));
+  }
+
+  @Test
+  void decodesAResultWithAFailedCall() {
+    byte[] value = Numeric.hexStringToByteArray("0x" + "00".repeat(31) + "01");
+    // Error(string) revert data, not a multiple of 32 bytes
+    byte[] revert = Numeric.hexStringToByteArray("0x08c379a0" + "ee".repeat(40));
+    String hex = web3jResult(List.of(
+        new DynamicStruct(new Bool(true), new DynamicBytes(value)),
+        new DynamicStruct(new Bool(false), new DynamicBytes(revert)),
+        new DynamicStruct(new Bool(true), new DynamicBytes(new byte[0]))));
+
+    List<Multicall3.Result> results = Multicall3.decodeAggregate3(hex);
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).isSuccess());
+    assertArrayEquals(value, results.get(0).getReturnData());
+    assertFalse(results.get(1).isSuccess());
+    assertArrayEquals(revert, results.get(1).getReturnData());
+    assertTrue(results.get(2).isSuccess());
+    assertEquals(0, results.get(2).getReturnData().length);
+  }
+
+  @Test
+  void decodesNoResult() {
+    assertTrue(Multicall3.decodeAggregate3(web3jResult(Collections.emptyList())).isEmpty());
+  }
+
+  @Test
+  void rejectsATruncatedResult() {
+    String hex = web3jResult(List.of(new DynamicStruct(new Bool(true), new DynamicBytes(new byte[40]))));
+
+    assertThrows(IllegalArgumentException.class, () ->
+        Multicall3.decodeAggregate3(hex.substring(0, hex.length() - 64)));
+  }
+
+  private static String web3jAggregate3(List<DynamicStruct> calls) {
+    return FunctionEncoder.buildMethodId(Multicall3.AGGREGATE3_SIGNATURE)
+        + FunctionEncoder.encodeConstructor(Collections.singletonList(new DynamicArray<>(DynamicStruct.class, calls)));
+  }
+
+  private static String web3jResult(List<DynamicStruct> results) {
+    return "0x" + FunctionEncoder.encodeConstructor(Collections.singletonList(
+        new DynamicArray<>(DynamicStruct.class, results)));
+  }
+}
@@ -0,0 +1,84 @@
+package org.apro.sdk.abi;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.config.Constants;
+import org.apro.sdk.params.MetaDataStruct;
+import org.apro.sdk.params.VerifyParams;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.utils.Numeric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifyCalldataEncoderTest {
+
+  static Stream<Arguments> cases() {
+    List<Arguments> cases = new ArrayList<>();
+    for (int signatureCount : new int[]{0, 1, 3}) {
+      // a partial word, a whole word and several words plus a partial one
+      for (int dataSize : new int[]{1, 31, 32, 33, 100}) {
+        for (boolean proofs : new boolean[]{false, true}) {
+          for (boolean metaData : new boolean[]{false, true}) {
+            cases.add(Arguments.of(signatureCount, dataSize, proofs, metaData));
+          }
+        }
+      }
+    }
+    return cases.stream();
+  }
+
+  @ParameterizedTest(name = "signatures={0} data={1} proofs={2} metaData={3}")
+  @MethodSource("cases")
+  void encodesAsFunctionEncoder(int signatureCount, int dataSize, boolean proofs, boolean metaData) {
+    String expected = functionEncoder(params(signatureCount, dataSize, proofs, metaData));
+
+    assertEquals(expected, VerifyCalldataEncoder.encodeHex(params(signatureCount, dataSize, proofs, metaData)));
+    // a small buffer that has to grow
+    byte[] grown = new VerifyCalldataEncoder(8).toByteArray(params(signatureCount, dataSize, proofs, metaData));
+    assertEquals(expected, Numeric.toHexString(grown));
+  }
+
+  @Test
+  void encodesByteDataAsHexData() {
+    String data = TestFixtures.data(77);
+    VerifyParams hexData = TestFixtures.verifyParams(data, 2).build();
+    VerifyParams byteData = TestFixtures.verifyParams(data, 2).data((String) null)
+        .data(Numeric.hexStringToByteArray(data)).build();
+
+    assertArrayEquals(new VerifyCalldataEncoder().toByteArray(hexData), new VerifyCalldataEncoder().toByteArray(byteData));
+  }
+
+  @Test
+  void dropsALargeThreadLocalBufferAfterUse() {
+    VerifyCalldataEncoder.encodeHex(params(1, 2 * VerifyCalldataEncoder.MAX_RETAINED_CAPACITY, false, false));
+
+    assertTrue(VerifyCalldataEncoder.localCapacity() <= VerifyCalldataEncoder.MAX_RETAINED_CAPACITY);
+  }
+
+  private static VerifyParams params(int signatureCount, int dataSize, boolean proofs, boolean metaData) {
+    VerifyParams.VerifyParamsBuilder builder = TestFixtures.verifyParams(TestFixtures.data(dataSize), signatureCount);
+    if (proofs) {
+      builder.zkProofs(new byte[]{1, 2, 3}).merkleProofs(new byte[70]);
+    }
+    if (metaData) {
+      builder.metaDataStruct(new MetaDataStruct("application/json", "utf-8", "gzip"));
+    }
+    return builder.build();
+  }
+
+  private static String functionEncoder(VerifyParams params) {
+    return FunctionEncoder.encode(new Function(Constants.VERIFY_FUNCTION_NAME, params.toInputParameters(),
+        Collections.emptyList()));
+  }
+}
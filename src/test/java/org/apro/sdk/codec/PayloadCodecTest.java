@@ -0,0 +1,39 @@
+package org.apro.sdk.codec;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PayloadCodecTest {
+
+  private static final int MAX = 64 << 10;
+
+  static Stream<Arguments> codecs() {
+    return Stream.of(
+        Arguments.of(new GzipCodec(MAX)),
+        Arguments.of(new Lz4Codec(MAX)),
+        Arguments.of(new DeflateCodec(9, MAX)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("codecs")
+  void decodesUpToTheMaxDecodedSize(PayloadCodec codec) {
+    byte[] data = new byte[MAX];
+
+    assertArrayEquals(data, codec.decode(codec.encode(data)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("codecs")
+  void refusesDataDecodingPastTheMaxDecodedSize(PayloadCodec codec) {
+    byte[] bomb = codec.encode(new byte[16 * MAX]);
+
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(bomb));
+    assertThrows(IllegalArgumentException.class, () -> codec.decode(codec.encode(new byte[MAX + 1])));
+  }
+}
@@ -0,0 +1,257 @@
+package org.apro.sdk.index;
+
+import org.apro.sdk.StubWeb3jService;
+import org.apro.sdk.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.apro.sdk.config.Constants.AGENT_REGISTERED_TOPIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgentRegistryIndexerTest {
+
+  @TempDir
+  Path dir;
+
+  private final AtomicLong head = new AtomicLong();
+  // the widest eth_getLogs range the node accepts
+  private final AtomicInteger maxRange = new AtomicInteger(Integer.MAX_VALUE);
+  private final List<Log> chain = new CopyOnWriteArrayList<>();
+  // the ranges the node answered, as {from, to}
+  private final List<long[]> served = new CopyOnWriteArrayList<>();
+  private final StubWeb3jService node = new StubWeb3jService(this::handle);
+  private final Web3j web3j = Web3j.build(node);
+
+  @Test
+  void growsTheRangeWhileTheLogsAreFew() throws IOException {
+    head.set(99);
+
+    try (AgentRegistryIndexer indexer = indexer(config().initialBlockRange(10).maxBlockRange(40))) {
+      assertEquals(0, indexer.sync());
+      assertEquals(99, indexer.getCheckpoint());
+    }
+
+    assertEquals(List.of("0-9", "10-29", "30-69", "70-99"), served());
+  }
+
+  @Test
+  void keepsTheRangeOnceItReturnsTheTargetLogs() throws IOException {
+    head.set(39);
+    for (int i = 0; i < 3; i++) {
+      chain.add(log(5, i, false, TestFixtures.agentRegisteredData("source-" + i, "message-" + i)));
+    }
+
+    try (AgentRegistryIndexer indexer = indexer(config().initialBlockRange(10).targetLogsPerRange(2))) {
+      assertEquals(3, indexer.sync());
+    }
+
+    assertEquals(List.of("0-9", "10-19", "20-39"), served());
+  }
+
+  @Test
+  void shrinksTheRangeTheNodeRejects() throws IOException {
+    head.set(200);
+    maxRange.set(30);
+    chain.add(log(120, 0, false, TestFixtures.agentRegisteredData("source-0", "message-0")));
+
+    try (AgentRegistryIndexer indexer = indexer(config().initialBlockRange(100).maxBlockRange(400))) {
+      assertEquals(1, indexer.sync());
+      assertEquals(200, indexer.getCheckpoint());
+      assertNotNull(indexer.findBySourceAgentId("source-0"));
+    }
+
+    assertEquals("0-24", served().get(0));
+    long next = 0;
+    for (long[] range : served) {
+      assertEquals(next, range[0], "the ranges leave no gap");
+      assertTrue(range[1] - range[0] < 30);
+      next = range[1] + 1;
+    }
+    assertEquals(201, next);
+  }
+
+  @Test
+  void failsWhenTheNodeRejectsASingleBlock() throws IOException {
+    head.set(10);
+    maxRange.set(0);
+
+    try (AgentRegistryIndexer indexer = indexer(config().initialBlockRange(8))) {
+      RuntimeException e = assertThrows(RuntimeException.class, indexer::sync);
+      assertEquals("block range is too wide", e.getMessage());
+      assertEquals(-1, indexer.getCheckpoint());
+    }
+  }
+
+  @Test
+  void reloadsTheIndexAndResumesFromTheCheckpoint() throws IOException {
+    head.set(115);
+    chain.add(log(40, 0, false, TestFixtures.agentRegisteredData("source-0", "message-0")));
+    chain.add(log(105, 1, false, TestFixtures.agentRegisteredData("source-1", "message-1")));
+
+    try (AgentRegistryIndexer indexer = indexer(config().confirmations(15))) {
+      // the log at block 105 is not confirmed yet
+      assertEquals(1, indexer.sync());
+      assertEquals(100, indexer.getCheckpoint());
+    }
+
+    node.getMethods().clear();
+    served.clear();
+    try (AgentRegistryIndexer indexer = indexer(config().confirmations(15))) {
+      assertEquals(100, indexer.getCheckpoint());
+      assertEquals(1, indexer.size());
+      AgentRecord record = indexer.findBySourceAgentId("source-0");
+      assertEquals("message-0", record.getMessageId());
+      assertEquals(40, record.getBlockNumber());
+      assertEquals(record, indexer.findByAgent(agent(0).toUpperCase().replace("0X", "0x")));
+      assertEquals(record, indexer.findByMessageId("message-0"));
+
+      // nothing new is confirmed, the node is not asked for logs
+      assertEquals(0, indexer.sync());
+      assertEquals(List.of("eth_blockNumber"), node.getMethods());
+
+      head.set(120);
+      assertEquals(1, indexer.sync());
+      assertEquals(List.of("101-105"), served());
+      assertEquals(2, indexer.size());
+    }
+  }
+
+  @Test
+  void skipsTheRemovedLogs() throws IOException {
+    head.set(20);
+    chain.add(log(5, 0, true, TestFixtures.agentRegisteredData("source-0", "message-0")));
+    chain.add(log(6, 1, false, TestFixtures.agentRegisteredData("source-1", "message-1")));
+
+    try (AgentRegistryIndexer indexer = indexer(config())) {
+      assertEquals(1, indexer.sync());
+      assertNull(indexer.findBySourceAgentId("source-0"));
+      assertNotNull(indexer.findBySourceAgentId("source-1"));
+    }
+  }
+
+  @Test
+  void dropsTheRecordOfARemovedPushedLog() throws IOException {
+    try (AgentRegistryIndexer indexer = indexer(config())) {
+      Log first = log(5, 0, false, TestFixtures.agentRegisteredData("source-0", "message-0"));
+      indexer.onLog(first);
+      assertNotNull(indexer.findBySourceAgentId("source-0"));
+
+      indexer.onLog(log(5, 0, true, first.getData()));
+      assertNull(indexer.findBySourceAgentId("source-0"));
+      assertNull(indexer.findByAgent(agent(0)));
+      assertEquals(0, indexer.size());
+    }
+  }
+
+  @Test
+  void keepsALaterRecordWhenAnEarlierOneIsRemoved() throws IOException {
+    try (AgentRegistryIndexer indexer = indexer(config())) {
+      String firstData = TestFixtures.agentRegisteredData("source-0", "message-0");
+      indexer.onLog(log(5, 0, false, firstData));
+      // the same agent registered again with a new message
+      indexer.onLog(log(6, 0, false, TestFixtures.agentRegisteredData("source-0", "message-1")));
+
+      indexer.onLog(log(5, 0, true, firstData));
+
+      assertEquals("message-1", indexer.findByAgent(agent(0)).getMessageId());
+      assertEquals("message-1", indexer.findBySourceAgentId("source-0").getMessageId());
+      assertNull(indexer.findByMessageId("message-0"));
+    }
+  }
+
+  @Test
+  void skipsTheLogsItCannotDecode() throws IOException {
+    head.set(20);
+    chain.add(log(3, 0, false, "0x1234"));
+    chain.add(log(4, 1, false, TestFixtures.agentRegisteredData("source-1", "message-1")));
+
+    try (AgentRegistryIndexer indexer = indexer(config())) {
+      assertEquals(1, indexer.sync());
+      assertEquals(20, indexer.getCheckpoint());
+      assertNotNull(indexer.findBySourceAgentId("source-1"));
+
+      indexer.onLog(log(7, 2, false, "0x"));
+      assertEquals(1, indexer.size());
+    }
+  }
+
+  @Test
+  void ignoresAPushedLogOfAnotherEvent() throws IOException {
+    try (AgentRegistryIndexer indexer = indexer(config())) {
+      Log log = log(5, 0, false, TestFixtures.agentRegisteredData("source-0", "message-0"));
+      log.setTopics(List.of("0x" + "44".repeat(32), log.getTopics().get(1)));
+
+      indexer.onLog(log);
+
+      assertEquals(0, indexer.size());
+    }
+  }
+
+  private Object handle(Request<?, ?> request) {
+    if ("eth_blockNumber".equals(request.getMethod())) {
+      return Numeric.encodeQuantity(BigInteger.valueOf(head.get()));
+    }
+    EthFilter filter = (EthFilter) request.getParams().get(0);
+    long from = Numeric.decodeQuantity(filter.getFromBlock().getValue()).longValueExact();
+    long to = Numeric.decodeQuantity(filter.getToBlock().getValue()).longValueExact();
+    if (to - from + 1 > maxRange.get()) {
+      return new Response.Error(-32005, "block range is too wide");
+    }
+    served.add(new long[]{from, to});
+    return chain.stream()
+        .filter(log -> log.getBlockNumber().longValueExact() >= from && log.getBlockNumber().longValueExact() <= to)
+        .collect(Collectors.toList());
+  }
+
+  private List<String> served() {
+    return served.stream().map(range -> range[0] + "-" + range[1]).collect(Collectors.toList());
+  }
+
+  private AgentRegistryIndexer indexer(AgentRegistryIndexerConfig.AgentRegistryIndexerConfigBuilder config)
+      throws IOException {
+    return new AgentRegistryIndexer(web3j, dir, config.build());
+  }
+
+  private static AgentRegistryIndexerConfig.AgentRegistryIndexerConfigBuilder config() {
+    return AgentRegistryIndexerConfig.builder().confirmations(0);
+  }
+
+  private static String agent(int index) {
+    return TestFixtures.credentials(index).getAddress();
+  }
+
+  // an AgentRegistered log emitted for the agent of the index
+  private static Log log(long block, int index, boolean removed, String data) {
+    Log log = new Log();
+    log.setRemoved(removed);
+    log.setLogIndex("0x" + Integer.toHexString(index));
+    log.setTransactionIndex("0x0");
+    log.setTransactionHash(Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(block * 100 + index), 64));
+    log.setBlockHash(Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(block), 64));
+    log.setBlockNumber(Numeric.encodeQuantity(BigInteger.valueOf(block)));
+    log.setAddress("0x" + "33".repeat(20));
+    log.setData(data);
+    log.setTopics(List.of(AGENT_REGISTERED_TOPIC,
+        Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(agent(index)), 64)));
+    return log;
+  }
+}
@@ -0,0 +1,161 @@
+package org.apro.sdk.merkle;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.params.VerifyParams;
+import org.apro.sdk.sign.LocalDataSigner;
+import org.apro.sdk.sign.SignatureAggregator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MerkleTreeTest {
+
+  // 4099 leaves and their 2050 parents are more than the 2048 nodes of a fork join task
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 5, 7, 8, 33, 4099})
+  void everyProofLeadsToTheRoot(int size) {
+    List<byte[]> dataHashes = dataHashes(size);
+
+    MerkleTree tree = MerkleTree.build(dataHashes);
+
+    assertEquals(size, tree.size());
+    assertArrayEquals(referenceRoot(dataHashes), tree.getRoot());
+    for (int i = 0; i < size; i++) {
+      assertArrayEquals(tree.getRoot(), MerkleTree.verify(tree.encodeProof(i), dataHashes.get(i)), "leaf " + i);
+    }
+  }
+
+  @Test
+  void theRootOfASingleLeafIsItsHash() {
+    byte[] dataHash = dataHashes(1).get(0);
+
+    MerkleTree tree = MerkleTree.build(Collections.singletonList(dataHash));
+
+    assertArrayEquals(Hash.sha3(dataHash), tree.getRoot());
+    assertEquals(0, tree.proof(0).size());
+    assertEquals(3 * MerkleTree.HASH_LENGTH, tree.encodeProof(0).length);
+  }
+
+  @Test
+  void theOddLastNodeMovesUpWithoutASibling() {
+    MerkleTree tree = MerkleTree.build(dataHashes(5));
+
+    // the fifth leaf is moved up twice and only meets the root of the first four
+    assertEquals(1, tree.proof(4).size());
+    assertEquals(3, tree.proof(0).size());
+  }
+
+  @Test
+  void rejectsAProofOfAnotherLeafOrATamperedProof() {
+    List<byte[]> dataHashes = dataHashes(7);
+    MerkleTree tree = MerkleTree.build(dataHashes);
+
+    assertNull(MerkleTree.verify(tree.encodeProof(2), dataHashes.get(3)));
+    byte[] tampered = tree.encodeProof(2);
+    tampered[tampered.length - 1] ^= 1;
+    assertNull(MerkleTree.verify(tampered, dataHashes.get(2)));
+    assertThrows(IllegalArgumentException.class,
+        () -> MerkleTree.verify(Arrays.copyOf(tree.encodeProof(2), 3 * MerkleTree.HASH_LENGTH + 1), dataHashes.get(2)));
+  }
+
+  @Test
+  void rejectsNoLeafOrAHashOfAnotherLength() {
+    assertThrows(IllegalArgumentException.class, () -> MerkleTree.build(Collections.emptyList()));
+    assertThrows(IllegalArgumentException.class, () -> MerkleTree.build(List.of(new byte[31])));
+    assertThrows(IllegalArgumentException.class, () -> MerkleTree.build(new byte[33]));
+    assertThrows(IndexOutOfBoundsException.class, () -> MerkleTree.build(dataHashes(3)).proof(3));
+  }
+
+  @Test
+  void signsTheRootOnceAndProvesEveryMessageOfABatch() throws Exception {
+    MerkleBatch batch = new MerkleBatch(TestFixtures.AGENT, TestFixtures.SETTINGS_DIGEST);
+    List<String> data = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      data.add(TestFixtures.data(32 + i));
+      assertEquals(i, batch.add(data.get(i)));
+    }
+    SignatureAggregator aggregator = new SignatureAggregator(List.of(
+        TestFixtures.credentials(0).getAddress(),
+        TestFixtures.credentials(1).getAddress(),
+        TestFixtures.credentials(2).getAddress()), 2);
+
+    List<VerifyParams> verifyParams = batch.sign(aggregator, List.of(
+        new LocalDataSigner(TestFixtures.credentials(0)),
+        new LocalDataSigner(TestFixtures.credentials(1)))).get(5, TimeUnit.SECONDS);
+
+    byte[] root = batch.buildTree().getRoot();
+    List<Sign.SignatureData> rootSignatures = verifyParams.get(0).getSignatures();
+    assertEquals(2, rootSignatures.size());
+    for (int i = 0; i < verifyParams.size(); i++) {
+      VerifyParams params = verifyParams.get(i);
+      assertEquals(data.get(i), params.getData());
+      assertEquals(Numeric.toHexString(Hash.sha3(Numeric.hexStringToByteArray(data.get(i)))), params.getDataHash());
+      assertEquals(rootSignatures, params.getSignatures());
+      assertArrayEquals(root, MerkleTree.verify(params.getMerkleProofs(),
+          Numeric.hexStringToByteArray(params.getDataHash())));
+    }
+  }
+
+  @Test
+  void refusesATreeOfAnotherBatch() {
+    MerkleBatch batch = new MerkleBatch(TestFixtures.AGENT, TestFixtures.SETTINGS_DIGEST);
+    batch.add(TestFixtures.data(32));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> batch.toVerifyParams(MerkleTree.build(dataHashes(2)), Collections.emptyList()));
+  }
+
+  private static List<byte[]> dataHashes(int size) {
+    List<byte[]> dataHashes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      dataHashes.add(Hash.sha3(Numeric.toBytesPadded(BigInteger.valueOf(i), 32)));
+    }
+    return dataHashes;
+  }
+
+  /**
+   * the OpenZeppelin layout built level by level with web3j's keccak256
+   */
+  private static byte[] referenceRoot(List<byte[]> dataHashes) {
+    List<byte[]> level = new ArrayList<>();
+    for (byte[] dataHash : dataHashes) {
+      level.add(Hash.sha3(dataHash));
+    }
+    while (level.size() > 1) {
+      List<byte[]> parents = new ArrayList<>();
+      for (int i = 0; i < level.size(); i += 2) {
+        if (i + 1 == level.size()) {
+          parents.add(level.get(i));
+          continue;
+        }
+        byte[] left = level.get(i);
+        byte[] right = level.get(i + 1);
+        boolean sorted = Numeric.toBigInt(left).compareTo(Numeric.toBigInt(right)) <= 0;
+        parents.add(Hash.sha3(sorted ? concat(left, right) : concat(right, left)));
+      }
+      level = parents;
+    }
+    return level.get(0);
+  }
+
+  private static byte[] concat(byte[] a, byte[] b) {
+    byte[] out = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, out, a.length, b.length);
+    return out;
+  }
+}
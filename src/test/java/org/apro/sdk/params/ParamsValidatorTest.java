@@ -0,0 +1,74 @@
+package org.apro.sdk.params;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.ElementKind;
+import org.apro.sdk.TestFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParamsValidatorTest {
+
+  @AfterEach
+  void resetMode() {
+    ParamsValidator.setMode(ParamsValidator.Mode.FAST);
+  }
+
+  @Test
+  void fastModeReportsTheViolations() {
+    VerifyParams params = TestFixtures.verifyParams(TestFixtures.data(32), 1).agent(null).dataHash(null).build();
+
+    ConstraintViolationException e = assertThrows(ConstraintViolationException.class, params::validate);
+    assertEquals("agent: must not be null, dataHash: must not be null", e.getMessage());
+    assertEquals(Set.of("agent", "dataHash"), paths(e));
+    for (ConstraintViolation<?> violation : e.getConstraintViolations()) {
+      assertEquals("must not be null", violation.getMessage());
+      assertSame(params, violation.getRootBean());
+      assertEquals(ElementKind.PROPERTY, violation.getPropertyPath().iterator().next().getKind());
+    }
+  }
+
+  @Test
+  void fastAndBeanValidationModesReportTheSamePaths() {
+    AgentSettingsParams params = new AgentSettingsParams();
+
+    Set<String> fast = paths(assertThrows(ConstraintViolationException.class, params::validate));
+    ParamsValidator.setMode(ParamsValidator.Mode.BEAN_VALIDATION);
+    Set<String> beanValidation = paths(assertThrows(ConstraintViolationException.class, params::validate));
+
+    assertEquals(beanValidation, fast);
+  }
+
+  @Test
+  void beanValidationModeReportsTheViolations() {
+    ParamsValidator.setMode(ParamsValidator.Mode.BEAN_VALIDATION);
+    VerifyParams params = TestFixtures.verifyParams(TestFixtures.data(32), 1).agent(null).dataHash(null).build();
+
+    ConstraintViolationException e = assertThrows(ConstraintViolationException.class, params::validate);
+    assertEquals(Set.of("agent", "dataHash"), paths(e));
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  void keepsTheDeprecatedValidatorFields() {
+    VerifyParams params = TestFixtures.verifyParams(TestFixtures.data(32), 1).agent(null).build();
+
+    assertEquals(1, VerifyParams.validator.validate(params).size());
+    assertTrue(AgentSettingsParams.factory.getValidator().validate(new AgentSettingsParams()).size() > 0);
+  }
+
+  private static Set<String> paths(ConstraintViolationException e) {
+    return e.getConstraintViolations().stream()
+        .map(ConstraintViolation::getPropertyPath)
+        .map(Object::toString)
+        .collect(Collectors.toSet());
+  }
+}
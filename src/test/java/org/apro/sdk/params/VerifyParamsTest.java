@@ -0,0 +1,81 @@
+package org.apro.sdk.params;
+
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.abi.VerifyCalldataEncoder;
+import org.apro.sdk.config.Constants;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.utils.Numeric;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VerifyParamsTest {
+
+  private static final String DATA = "0x" + TestFixtures.data(300);
+  private static final byte[] DATA_BYTES = Numeric.hexStringToByteArray(DATA);
+
+  @Test
+  void encodesByteDataAsHexData() {
+    String expected = calldata(TestFixtures.verifyParams(DATA, 2).build());
+
+    assertEquals(expected, calldata(TestFixtures.verifyParams(DATA, 2).data(DATA_BYTES).build()));
+    assertEquals(expected, calldata(TestFixtures.verifyParams(DATA, 2).data(ByteBuffer.wrap(DATA_BYTES)).build()));
+    ByteBuffer direct = ByteBuffer.allocateDirect(DATA_BYTES.length).put(DATA_BYTES).flip();
+    assertEquals(expected, calldata(TestFixtures.verifyParams(DATA, 2).data(direct).build()));
+  }
+
+  @Test
+  void copiesAPartOfABuffer() {
+    byte[] framed = new byte[DATA_BYTES.length + 10];
+    System.arraycopy(DATA_BYTES, 0, framed, 5, DATA_BYTES.length);
+    ByteBuffer buffer = ByteBuffer.wrap(framed, 5, DATA_BYTES.length);
+
+    VerifyParams params = TestFixtures.verifyParams(DATA, 2).data(buffer).build();
+    framed[5]++;
+
+    assertArrayEquals(DATA_BYTES, params.toDataBytes());
+    assertEquals(5, buffer.position());
+  }
+
+  @Test
+  void keepsTheDataLastSet() {
+    VerifyParams bytesLast = TestFixtures.verifyParams("0x01", 1).data(DATA_BYTES).build();
+    assertEquals(DATA, bytesLast.getData());
+
+    VerifyParams hexLast = TestFixtures.verifyParams(DATA, 1).data(new byte[]{1}).data(DATA).build();
+    assertArrayEquals(DATA_BYTES, hexLast.toDataBytes());
+    assertNull(hexLast.getDataBytes());
+
+    hexLast.setDataBytes(new byte[]{2});
+    assertEquals("0x02", hexLast.getData());
+    hexLast.setData(DATA);
+    assertArrayEquals(DATA_BYTES, hexLast.toDataBytes());
+  }
+
+  @Test
+  void keepsTheConstructorWithoutDataBytes() {
+    VerifyParams built = TestFixtures.verifyParams(DATA, 2).build();
+
+    VerifyParams constructed = new VerifyParams(built.getAgent(), built.getSettingsDigest(), DATA,
+        built.getDataHash(), built.getSignatures(), null, null, null);
+
+    assertNull(constructed.getDataBytes());
+    assertEquals(calldata(built), calldata(constructed));
+  }
+
+  /**
+   * the calldata of VerifyCalldataEncoder, checked against FunctionEncoder
+   */
+  private static String calldata(VerifyParams params) {
+    String calldata = VerifyCalldataEncoder.encodeHex(params);
+    assertEquals(FunctionEncoder.encode(new Function(Constants.VERIFY_FUNCTION_NAME, params.toInputParameters(),
+        Collections.emptyList())), calldata);
+    return calldata;
+  }
+}
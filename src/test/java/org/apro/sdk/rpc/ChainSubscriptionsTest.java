@@ -0,0 +1,125 @@
+package org.apro.sdk.rpc;
+
+import org.apro.sdk.StubWeb3jService;
+import org.apro.sdk.StubWebSocketNode;
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.index.AgentRecord;
+import org.apro.sdk.index.AgentRegistryIndexer;
+import org.apro.sdk.index.AgentRegistryIndexerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.websocket.WebSocketService;
+import org.web3j.utils.Numeric;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.apro.sdk.config.Constants.AGENT_REGISTERED_TOPIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChainSubscriptionsTest {
+
+  private static final String SOURCE_AGENT_ID = "da3bdf1e-4f5c-49bc-a1f5-1b8e6f4c2c11";
+  private static final String MESSAGE_ID = "7b1e2a4c-9d3f-4e5a-8c6b-0f1e2d3c4b5a";
+
+  @TempDir
+  Path dir;
+
+  private StubWebSocketNode node;
+  private WebSocketService webSocketService;
+
+  @BeforeEach
+  void connect() throws Exception {
+    node = new StubWebSocketNode();
+    node.start();
+    webSocketService = new WebSocketService(node.getUrl(), false);
+    webSocketService.connect();
+  }
+
+  @AfterEach
+  void disconnect() throws Exception {
+    webSocketService.close();
+    node.stop();
+  }
+
+  @Test
+  void indexesPushedLogsAndDropsThemOnceRemoved() throws Exception {
+    try (AgentRegistryIndexer indexer = indexer(request -> "0x0");
+         ChainSubscriptions subscriptions = new ChainSubscriptions(webSocketService)) {
+      subscriptions.attach(indexer, Collections.emptyList());
+      node.awaitSubscriptions("logs", "newHeads");
+
+      node.push("logs", log(false));
+      await(() -> indexer.findBySourceAgentId(SOURCE_AGENT_ID) != null);
+      AgentRecord record = indexer.findBySourceAgentId(SOURCE_AGENT_ID);
+      assertEquals(TestFixtures.AGENT.toLowerCase(), record.getAgent().toLowerCase());
+      assertEquals(MESSAGE_ID, record.getMessageId());
+      assertEquals(16, record.getBlockNumber());
+
+      // the same log again, reorged out of its block
+      node.push("logs", log(true));
+      await(() -> indexer.findBySourceAgentId(SOURCE_AGENT_ID) == null);
+      assertEquals(0, indexer.size());
+    }
+  }
+
+  @Test
+  void syncsTheIndexerOnEveryPushedHead() throws Exception {
+    StubWeb3jService.Handler handler = request -> {
+      if ("eth_blockNumber".equals(request.getMethod())) {
+        return "0x64";
+      }
+      return Collections.emptyList();
+    };
+    try (AgentRegistryIndexer indexer = indexer(handler);
+         ChainSubscriptions subscriptions = new ChainSubscriptions(webSocketService)) {
+      subscriptions.attach(indexer, Collections.emptyList());
+      node.awaitSubscriptions("logs", "newHeads");
+
+      Map<String, Object> head = new HashMap<>();
+      head.put("number", "0x64");
+      head.put("hash", "0x" + "ab".repeat(32));
+      node.push("newHeads", head);
+
+      // up to the head less the confirmations
+      await(() -> indexer.getCheckpoint() == 0x64 - 15);
+    }
+  }
+
+  private AgentRegistryIndexer indexer(StubWeb3jService.Handler handler) throws Exception {
+    return new AgentRegistryIndexer(Web3j.build(new StubWeb3jService(handler)), dir,
+        AgentRegistryIndexerConfig.builder().build());
+  }
+
+  // an AgentRegistered log as the node pushes it, with the quantities hex encoded
+  private static Map<String, Object> log(boolean removed) {
+    Map<String, Object> log = new HashMap<>();
+    log.put("removed", removed);
+    log.put("logIndex", "0x0");
+    log.put("transactionIndex", "0x0");
+    log.put("transactionHash", "0x" + "11".repeat(32));
+    log.put("blockHash", "0x" + "22".repeat(32));
+    log.put("blockNumber", "0x10");
+    log.put("address", "0x" + "33".repeat(20));
+    log.put("data", TestFixtures.agentRegisteredData(SOURCE_AGENT_ID, MESSAGE_ID));
+    log.put("topics", List.of(AGENT_REGISTERED_TOPIC,
+        Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(TestFixtures.AGENT), 64)));
+    return log;
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "timed out");
+      Thread.sleep(10);
+    }
+  }
+}
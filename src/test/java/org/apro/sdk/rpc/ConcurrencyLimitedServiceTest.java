@@ -0,0 +1,78 @@
+package org.apro.sdk.rpc;
+
+import org.apro.sdk.StubWeb3jService;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitedServiceTest {
+
+  private static final int MAX_CONCURRENT_REQUESTS = 3;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private final StubWeb3jService node = new StubWeb3jService(request -> {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(20);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    inFlight.decrementAndGet();
+    return "0x1";
+  });
+
+  @Test
+  void capsTheBlockingRequestsInFlight() throws Exception {
+    Web3j web3j = Web3j.build(new ConcurrencyLimitedService(node, MAX_CONCURRENT_REQUESTS));
+    ExecutorService callers = Executors.newFixedThreadPool(12);
+    try {
+      List<CompletableFuture<BigInteger>> calls = new ArrayList<>();
+      for (int i = 0; i < 12; i++) {
+        calls.add(CompletableFuture.supplyAsync(() -> {
+          try {
+            return web3j.ethBlockNumber().send().getBlockNumber();
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        }, callers));
+      }
+      for (CompletableFuture<BigInteger> call : calls) {
+        assertEquals(BigInteger.ONE, call.join());
+      }
+    } finally {
+      callers.shutdown();
+    }
+    assertEquals(MAX_CONCURRENT_REQUESTS, maxInFlight.get());
+  }
+
+  @Test
+  void capsTheAsyncRequestsInFlight() {
+    Web3j web3j = Web3j.build(new ConcurrencyLimitedService(node, MAX_CONCURRENT_REQUESTS));
+    List<CompletableFuture<EthBlockNumber>> calls = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      calls.add(web3j.ethBlockNumber().sendAsync());
+    }
+    calls.forEach(call -> assertEquals(BigInteger.ONE, call.join().getBlockNumber()));
+    // web3j's async executor may run fewer requests at a time than the cap
+    assertTrue(maxInFlight.get() <= MAX_CONCURRENT_REQUESTS);
+  }
+
+  @Test
+  void refusesANonPositiveCap() {
+    assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimitedService(node, 0));
+  }
+}
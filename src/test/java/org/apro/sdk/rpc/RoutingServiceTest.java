@@ -0,0 +1,153 @@
+package org.apro.sdk.rpc;
+
+import org.apro.sdk.StubWeb3jService;
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingServiceTest {
+
+  private static final long SLOW_MILLIS = 20;
+  private static final long EJECT_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+  private final AtomicBoolean flakyDown = new AtomicBoolean();
+  private final AtomicBoolean slowDown = new AtomicBoolean();
+
+  private final StubWeb3jService flakyService = new StubWeb3jService(request -> {
+    if (flakyDown.get()) {
+      throw new IOException("connection refused");
+    }
+    return "0x1";
+  });
+  private final StubWeb3jService slowService = new StubWeb3jService(request -> {
+    if (slowDown.get()) {
+      throw new IOException("connection refused");
+    }
+    sleep(SLOW_MILLIS);
+    return "0x1";
+  });
+
+  private final RpcEndpoint flaky = new RpcEndpoint("http://flaky", flakyService, EJECT_NANOS);
+  private final RpcEndpoint slow = new RpcEndpoint("http://slow", slowService, EJECT_NANOS);
+  private final Web3j web3j = Web3j.build(new RoutingService(List.of(flaky, slow), false, 0));
+
+  @AfterEach
+  void shutdown() {
+    Metrics.setInstrumentation(null);
+    web3j.shutdown();
+  }
+
+  @Test
+  void demotesAnEndpointThatNeverSucceeded() throws IOException {
+    flakyDown.set(true);
+    for (int i = 0; i < 5; i++) {
+      assertEquals(BigInteger.ONE, blockNumber());
+    }
+
+    // the first call fails over, after that the failing endpoint ranks below the slow one
+    assertEquals(1, flakyService.getMethods().size());
+    assertEquals(5, slowService.getMethods().size());
+    assertTrue(flaky.getErrorRate() > 0);
+    assertTrue(flaky.isHealthy());
+  }
+
+  @Test
+  void triesAnUnmeasuredEndpointOnceThenPrefersTheFaster() throws IOException {
+    for (int i = 0; i < 6; i++) {
+      blockNumber();
+    }
+
+    assertEquals(5, flakyService.getMethods().size());
+    assertEquals(1, slowService.getMethods().size());
+  }
+
+  @Test
+  void ejectsAnEndpointAndTakesItBackAfterTheWindow() throws IOException {
+    // measure both, the flaky endpoint is the faster one
+    blockNumber();
+    blockNumber();
+    for (int i = 0; i < 3; i++) {
+      flaky.onFailure();
+    }
+    assertFalse(flaky.isHealthy());
+
+    int flakyCalls = flakyService.getMethods().size();
+    blockNumber();
+    assertEquals(flakyCalls, flakyService.getMethods().size());
+
+    sleep(TimeUnit.NANOSECONDS.toMillis(EJECT_NANOS) + 50);
+    assertTrue(flaky.isHealthy());
+    slowDown.set(true);
+    assertEquals(BigInteger.ONE, blockNumber());
+    assertEquals(flakyCalls + 1, flakyService.getMethods().size());
+    assertTrue(flaky.getErrorRate() < 0.5);
+  }
+
+  @Test
+  void reportsEveryAttemptWithTheEndpointHost() throws IOException {
+    List<String> attempts = new CopyOnWriteArrayList<>();
+    Metrics.setInstrumentation(new Instrumentation() {
+      @Override
+      public void onEndpointRpc(String endpoint, String method, long elapsedNanos, boolean success) {
+        attempts.add(endpoint + " " + method + " " + success);
+      }
+    });
+    flakyDown.set(true);
+
+    blockNumber();
+
+    assertEquals(List.of("flaky eth_blockNumber false", "slow eth_blockNumber true"), attempts);
+  }
+
+  @Test
+  void failsOverToTheOtherEndpointsOnceBothHedgedReadsFail() throws IOException {
+    StubWeb3jService lateFailure = new StubWeb3jService(request -> {
+      sleep(5 * SLOW_MILLIS);
+      throw new IOException("connection reset");
+    });
+    StubWeb3jService failure = new StubWeb3jService(request -> {
+      throw new IOException("connection refused");
+    });
+    StubWeb3jService healthy = new StubWeb3jService(request -> "0x1");
+    // unmeasured endpoints rank in their order, the first one is hedged after SLOW_MILLIS
+    Web3j hedged = Web3j.build(new RoutingService(List.of(
+        new RpcEndpoint("http://late", lateFailure, EJECT_NANOS),
+        new RpcEndpoint("http://failing", failure, EJECT_NANOS),
+        new RpcEndpoint("http://healthy", healthy, EJECT_NANOS)), true, SLOW_MILLIS));
+    try {
+      assertEquals(BigInteger.ONE, hedged.ethBlockNumber().send().getBlockNumber());
+    } finally {
+      hedged.shutdown();
+    }
+
+    assertEquals(1, lateFailure.getMethods().size());
+    assertEquals(1, failure.getMethods().size());
+    assertEquals(1, healthy.getMethods().size());
+  }
+
+  private BigInteger blockNumber() throws IOException {
+    return web3j.ethBlockNumber().send().getBlockNumber();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
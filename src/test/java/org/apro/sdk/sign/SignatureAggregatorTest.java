@@ -0,0 +1,63 @@
+package org.apro.sdk.sign;
+
+import org.apro.sdk.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.web3j.crypto.Sign;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignatureAggregatorTest {
+
+  private static final String DATA = TestFixtures.data(64);
+
+  private final SignatureAggregator aggregator = new SignatureAggregator(List.of(
+      TestFixtures.credentials(0).getAddress(),
+      TestFixtures.credentials(1).getAddress(),
+      TestFixtures.credentials(2).getAddress()), 2);
+
+  @Test
+  void failsRightAwayWithoutSigners() {
+    CompletableFuture<List<Sign.SignatureData>> result = aggregator.collect(DATA, Collections.emptyList());
+
+    assertTrue(result.isCompletedExceptionally());
+    ExecutionException e = assertThrows(ExecutionException.class, result::get);
+    assertInstanceOf(IllegalArgumentException.class, e.getCause());
+  }
+
+  @Test
+  void failsRightAwayWithFewerSignersThanTheThreshold() {
+    CompletableFuture<List<Sign.SignatureData>> result = aggregator.collect(DATA, List.of(signer(0)));
+
+    assertTrue(result.isCompletedExceptionally());
+  }
+
+  @Test
+  void collectsTheThresholdOfSignatures() throws Exception {
+    List<Sign.SignatureData> signatures = aggregator.collect(DATA, List.of(signer(0), signer(1), signer(2)))
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals(2, signatures.size());
+  }
+
+  @Test
+  void failsOnceTheThresholdCannotBeReached() {
+    DataSigner outsider = new LocalDataSigner(TestFixtures.credentials(9));
+    CompletableFuture<List<Sign.SignatureData>> result = aggregator.collect(DATA, List.of(signer(0), outsider));
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+  }
+
+  private static DataSigner signer(int index) {
+    return new LocalDataSigner(TestFixtures.credentials(index));
+  }
+}
@@ -0,0 +1,40 @@
+package org.apro.sdk.sign;
+
+import org.apro.sdk.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.web3j.utils.Numeric;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TxSignerCacheTest {
+
+  private static final String KEY = Numeric.toHexStringNoPrefixZeroPadded(
+      TestFixtures.credentials(0).getEcKeyPair().getPrivateKey(), 64);
+
+  @Test
+  void derivesAKeyOnceWithOrWithoutThePrefix() {
+    TxSignerCache signers = new TxSignerCache(TestFixtures.CHAIN_ID);
+    TxSigner signer = signers.get(KEY);
+
+    assertSame(signer, signers.get("0x" + KEY));
+    assertSame(signer, signers.get("0x" + KEY.toUpperCase()));
+    assertEquals(1, signers.size());
+    assertEquals(TestFixtures.credentials(0).getAddress(), signer.getAddress());
+  }
+
+  @Test
+  void keepsNothingAfterInvalidateAll() {
+    TxSignerCache signers = new TxSignerCache(TestFixtures.CHAIN_ID);
+    signers.get(KEY);
+    signers.invalidateAll();
+
+    assertEquals(0, signers.size());
+  }
+
+  @Test
+  void rejectsAnEmptyKey() {
+    assertThrows(IllegalArgumentException.class, () -> new TxSignerCache(TestFixtures.CHAIN_ID).get(""));
+  }
+}
@@ -0,0 +1,92 @@
+package org.apro.sdk.tx;
+
+import org.apro.sdk.StubWeb3jService;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CalldataGasModelTest {
+
+  private static final String FROM = "0x" + "11".repeat(20);
+  private static final String TO = "0x" + "22".repeat(20);
+  private static final double DELTA = 1e-6;
+
+  @Test
+  void fitsTheLineThroughExactSamples() {
+    CalldataGasModel model = CalldataGasModel.fit(new double[] {100, 500, 1000}, new double[] {
+        30_000 + 16 * 100, 30_000 + 16 * 500, 30_000 + 16 * 1000}, 1);
+
+    assertEquals(30_000, model.getBaseGas(), DELTA);
+    assertEquals(16, model.getGasPerByte(), DELTA);
+  }
+
+  @Test
+  void fitsTheLeastSquaresLineThroughNoisySamples() {
+    // gas = 1000 + 10 * size, off by +5, -5, +5, -5
+    CalldataGasModel model = CalldataGasModel.fit(new double[] {0, 1, 2, 3},
+        new double[] {1005, 1005, 1025, 1025}, 1);
+
+    assertEquals(8, model.getGasPerByte(), DELTA);
+    assertEquals(1003, model.getBaseGas(), DELTA);
+  }
+
+  @Test
+  void fallsBackToTheCalldataByteGasForSamplesOfOneSize() {
+    CalldataGasModel model = CalldataGasModel.fit(new double[] {200, 200}, new double[] {40_000, 42_000}, 1);
+
+    assertEquals(16, model.getGasPerByte(), DELTA);
+    // the line goes through the mean of the samples
+    assertEquals(41_000 - 16 * 200, model.getBaseGas(), DELTA);
+  }
+
+  @Test
+  void neverFitsANegativeSlope() {
+    CalldataGasModel model = CalldataGasModel.fit(new double[] {100, 200}, new double[] {50_000, 40_000}, 1);
+
+    assertEquals(0, model.getGasPerByte(), DELTA);
+    assertEquals(45_000, model.getBaseGas(), DELTA);
+  }
+
+  @Test
+  void roundsTheEstimateWithTheMarginUp() {
+    CalldataGasModel model = new CalldataGasModel(21_000, 16, 1.2);
+
+    // (21000 + 16 * 4) * 1.2 = 25276.8
+    assertEquals(BigInteger.valueOf(25_277), model.estimate("0x12345678"));
+    assertEquals(model.estimate("12345678"), model.estimate("0x12345678"));
+    assertThrows(IllegalArgumentException.class, () -> new CalldataGasModel(21_000, 16, 0.9));
+  }
+
+  @Test
+  void calibratesOnTheEstimatesOfTheSamples() throws IOException {
+    Web3j web3j = Web3j.build(new StubWeb3jService(request -> {
+      Transaction transaction = (Transaction) request.getParams().get(0);
+      long bytes = (transaction.getData().length() - 2) / 2;
+      return Numeric.encodeQuantity(BigInteger.valueOf(50_000 + 20 * bytes));
+    }));
+
+    CalldataGasModel model = CalldataGasModel.calibrate(web3j, FROM, TO,
+        List.of("0x" + "ab".repeat(100), "0x" + "ab".repeat(400), "0x" + "ab".repeat(1600)), 1.1);
+
+    assertEquals(50_000, model.getBaseGas(), DELTA);
+    assertEquals(20, model.getGasPerByte(), DELTA);
+    assertEquals(1.1, model.getMargin(), DELTA);
+  }
+
+  @Test
+  void failsTheCalibrationOnARevertedSample() {
+    Web3j web3j = Web3j.build(new StubWeb3jService(request -> new Response.Error(3, "execution reverted")));
+
+    assertThrows(RuntimeException.class, () -> CalldataGasModel.calibrate(web3j, FROM, TO, List.of("0x1234"), 1.1));
+    assertThrows(IllegalArgumentException.class, () -> CalldataGasModel.calibrate(web3j, FROM, TO, List.of(), 1.1));
+  }
+}
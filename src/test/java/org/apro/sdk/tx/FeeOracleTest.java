@@ -0,0 +1,134 @@
+package org.apro.sdk.tx;
+
+import org.apro.sdk.StubWeb3jService;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthFeeHistory;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeeOracleTest {
+
+  private static final BigInteger GWEI = BigInteger.TEN.pow(9);
+  // no poll but the first one while a test runs
+  private static final FeeOracleConfig CONFIG = FeeOracleConfig.builder().pollMillis(60_000).build();
+
+  @Test
+  void takesThePriorityFeeAsTheMedianReward() throws IOException {
+    Object feeHistory = feeHistory(List.of(5L, 1L, 3L, 2L, 4L), 10);
+    try (FeeOracle oracle = new FeeOracle(web3j(gwei(12), feeHistory), CONFIG)) {
+      Fees fees = oracle.getFees();
+
+      assertTrue(fees.isEip1559());
+      assertEquals(gwei(12), fees.getGasPrice());
+      // the last base fee, the one of the next block
+      assertEquals(gwei(10), fees.getBaseFeePerGas());
+      assertEquals(gwei(3), fees.getMaxPriorityFeePerGas());
+      // twice the base fee plus the priority fee
+      assertEquals(gwei(23), fees.getMaxFeePerGas());
+    }
+  }
+
+  @Test
+  void takesThePriorityFeeFromTheGasPriceWithoutRewards() throws IOException {
+    Object feeHistory = feeHistory(List.of(), 10);
+    try (FeeOracle oracle = new FeeOracle(web3j(gwei(12), feeHistory), CONFIG)) {
+      Fees fees = oracle.getFees();
+
+      assertEquals(gwei(2), fees.getMaxPriorityFeePerGas());
+      assertEquals(gwei(22), fees.getMaxFeePerGas());
+    }
+  }
+
+  @Test
+  void raisesThePriorityFeeToTheMinimum() throws IOException {
+    FeeOracleConfig config = FeeOracleConfig.builder().pollMillis(60_000).minPriorityFeePerGas(gwei(4)).build();
+    try (FeeOracle oracle = new FeeOracle(web3j(gwei(12), feeHistory(List.of(1L, 1L, 1L), 10)), config)) {
+      assertEquals(gwei(4), oracle.getFees().getMaxPriorityFeePerGas());
+    }
+  }
+
+  @Test
+  void fallsBackToTheGasPriceOnANodeWithoutFeeHistory() throws IOException {
+    Object unsupported = new Response.Error(-32601, "the method eth_feeHistory does not exist/is not available");
+    try (FeeOracle oracle = new FeeOracle(web3j(gwei(5), unsupported), CONFIG)) {
+      Fees fees = oracle.getFees();
+
+      assertFalse(fees.isEip1559());
+      assertEquals(gwei(5), fees.getGasPrice());
+      assertNull(fees.getBaseFeePerGas());
+      assertNull(fees.getMaxPriorityFeePerGas());
+      assertNull(fees.getMaxFeePerGas());
+    }
+  }
+
+  @Test
+  void failsWithoutAGasPrice() {
+    Object error = new Response.Error(-32000, "header not found");
+    try (FeeOracle oracle = new FeeOracle(web3j(error, feeHistory(List.of(1L), 10)), CONFIG)) {
+      assertThrows(IOException.class, oracle::getFees);
+    }
+  }
+
+  @Test
+  void refreshesOnAPushedHead() throws Exception {
+    try (FeeOracle oracle = new FeeOracle(web3j(gwei(12), feeHistory(List.of(1L), 10)), CONFIG)) {
+      oracle.onNewBlock(100);
+
+      long deadline = System.currentTimeMillis() + 5_000;
+      while (oracle.getFees().getBlockNumber() != 100) {
+        assertTrue(System.currentTimeMillis() < deadline, "the pushed head was not refreshed");
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  private static Web3j web3j(Object gasPrice, Object feeHistory) {
+    return Web3j.build(new StubWeb3jService(request -> {
+      switch (request.getMethod()) {
+        case "eth_gasPrice":
+          return gasPrice instanceof BigInteger ? Numeric.encodeQuantity((BigInteger) gasPrice) : gasPrice;
+        case "eth_feeHistory":
+          return feeHistory;
+        default:
+          return "0x10";
+      }
+    }));
+  }
+
+  /**
+   * an eth_feeHistory result of one reward per block, in gwei, with the next base fee last
+   */
+  private static EthFeeHistory.FeeHistory feeHistory(List<Long> rewards, long nextBaseFee) {
+    List<List<String>> reward = new ArrayList<>();
+    List<String> baseFeePerGas = new ArrayList<>();
+    for (long value : rewards) {
+      reward.add(List.of(Numeric.encodeQuantity(gwei(value))));
+      baseFeePerGas.add(Numeric.encodeQuantity(gwei(nextBaseFee)));
+    }
+    baseFeePerGas.add(Numeric.encodeQuantity(gwei(nextBaseFee)));
+    Map<String, Object> result = new HashMap<>();
+    result.put("oldestBlock", "0x1");
+    result.put("reward", reward);
+    result.put("baseFeePerGas", baseFeePerGas);
+    return ObjectMapperFactory.getObjectMapper().convertValue(result, EthFeeHistory.FeeHistory.class);
+  }
+
+  private static BigInteger gwei(long value) {
+    return BigInteger.valueOf(value).multiply(GWEI);
+  }
+}
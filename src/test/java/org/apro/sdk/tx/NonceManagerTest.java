@@ -0,0 +1,193 @@
+package org.apro.sdk.tx;
+
+import org.apro.sdk.StubWeb3jService;
+import org.apro.sdk.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Response;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NonceManagerTest {
+
+  private static final String ADDRESS = TestFixtures.credentials(0).getAddress();
+  private static final long SEED = 40;
+  private static final int THREADS = 8;
+
+  // the PENDING transaction count of the node
+  private final AtomicLong pending = new AtomicLong(SEED);
+  private final StubWeb3jService node = new StubWeb3jService(
+      request -> Numeric.encodeQuantity(BigInteger.valueOf(pending.get())));
+  private final NonceManager nonceManager = new NonceManager(Web3j.build(node));
+
+  @Test
+  void handsOutDistinctNoncesToConcurrentCallers() throws Exception {
+    List<List<Long>> taken = run(1_000, nonces -> nonces.add(nonceManager.next(ADDRESS).longValueExact()));
+
+    Set<Long> distinct = new HashSet<>();
+    taken.forEach(distinct::addAll);
+    assertEquals(THREADS * 1_000, distinct.size());
+    assertEquals(range(SEED, SEED + THREADS * 1_000), distinct);
+  }
+
+  @Test
+  void rollsTheCounterBackWhenTheLastNonceIsReleased() {
+    BigInteger nonce = nonceManager.next(ADDRESS);
+
+    nonceManager.release(ADDRESS, nonce);
+
+    assertEquals(nonce, nonceManager.peek(ADDRESS));
+    assertEquals(nonce, nonceManager.next(ADDRESS));
+  }
+
+  @Test
+  void reusesAReleasedNonceBeforeTheCounterMovesOn() {
+    BigInteger first = nonceManager.next(ADDRESS);
+    BigInteger second = nonceManager.next(ADDRESS);
+
+    nonceManager.release(ADDRESS, first);
+
+    // not the last one taken, the counter stays
+    assertEquals(second.add(BigInteger.ONE), nonceManager.peek(ADDRESS));
+    assertEquals(first, nonceManager.next(ADDRESS));
+    assertEquals(second.add(BigInteger.ONE), nonceManager.next(ADDRESS));
+  }
+
+  @Test
+  void leavesNoGapWhenConcurrentCallersReleaseAndTakeAgain() throws Exception {
+    List<List<Long>> held = run(500, nonces -> {
+      long nonce = nonceManager.next(ADDRESS).longValueExact();
+      if (ThreadLocalRandom.current().nextBoolean()) {
+        nonceManager.release(ADDRESS, BigInteger.valueOf(nonce));
+      } else {
+        nonces.add(nonce);
+      }
+    });
+
+    Set<Long> accounted = new HashSet<>();
+    for (List<Long> nonces : held) {
+      for (long nonce : nonces) {
+        assertTrue(accounted.add(nonce), "nonce " + nonce + " was handed out twice");
+      }
+    }
+    // the released nonces left are handed out before the counter
+    long top = nonceManager.peek(ADDRESS).longValueExact();
+    long nonce;
+    while ((nonce = nonceManager.next(ADDRESS).longValueExact()) != top) {
+      assertTrue(accounted.add(nonce), "nonce " + nonce + " was released but still held");
+    }
+    assertEquals(range(SEED, top), accounted);
+  }
+
+  @Test
+  void resyncsFromTheNodeAfterANonceTooLow() {
+    BigInteger first = nonceManager.next(ADDRESS);
+    BigInteger second = nonceManager.next(ADDRESS);
+    nonceManager.release(ADDRESS, first);
+    // another sender of the key used the nonces up to 50
+    pending.set(51);
+
+    assertTrue(nonceManager.onBroadcastError(ADDRESS, second, error("nonce too low: next nonce 51, tx nonce 41")));
+
+    assertEquals(BigInteger.valueOf(51), nonceManager.peek(ADDRESS));
+    // the released nonce is forgotten
+    assertEquals(BigInteger.valueOf(51), nonceManager.next(ADDRESS));
+  }
+
+  @Test
+  void keepsANonceTheNodeAlreadyHolds() {
+    for (String message : List.of("already known", "known transaction: 0xab", "replacement transaction underpriced")) {
+      BigInteger nonce = nonceManager.next(ADDRESS);
+
+      assertFalse(nonceManager.onBroadcastError(ADDRESS, nonce, error(message)));
+
+      assertEquals(nonce.add(BigInteger.ONE), nonceManager.next(ADDRESS), message);
+    }
+  }
+
+  @Test
+  void releasesTheNonceOfARefusedTransaction() {
+    BigInteger nonce = nonceManager.next(ADDRESS);
+
+    assertFalse(nonceManager.onBroadcastError(ADDRESS, nonce, error("insufficient funds for gas * price + value")));
+
+    assertEquals(nonce, nonceManager.next(ADDRESS));
+  }
+
+  @Test
+  void seedsOncePerAddressWhateverItsCase() {
+    nonceManager.next(ADDRESS.toLowerCase());
+    nonceManager.next(ADDRESS.toUpperCase().replace("0X", "0x"));
+
+    assertEquals(BigInteger.valueOf(SEED + 2), nonceManager.peek(ADDRESS));
+    assertEquals(1, node.getMethods().size());
+
+    nonceManager.reset(ADDRESS);
+    assertEquals(BigInteger.valueOf(SEED), nonceManager.peek(ADDRESS));
+    assertEquals(2, node.getMethods().size());
+  }
+
+  /**
+   * run the action the times on each of THREADS threads started together
+   *
+   * @return the nonces each thread collected
+   */
+  private static List<List<Long>> run(int times, Action action) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<List<Long>>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          List<Long> nonces = new ArrayList<>();
+          start.await();
+          for (int j = 0; j < times; j++) {
+            action.run(nonces);
+          }
+          return nonces;
+        }));
+      }
+      start.countDown();
+      List<List<Long>> results = new ArrayList<>();
+      for (Future<List<Long>> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @FunctionalInterface
+  private interface Action {
+
+    void run(List<Long> nonces);
+  }
+
+  private static Set<Long> range(long from, long to) {
+    Set<Long> range = new HashSet<>();
+    for (long i = from; i < to; i++) {
+      range.add(i);
+    }
+    return range;
+  }
+
+  private static Response.Error error(String message) {
+    return new Response.Error(-32000, message);
+  }
+}
@@ -0,0 +1,98 @@
+package org.apro.sdk.tx;
+
+import org.apro.sdk.StubWeb3jService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReceiptWaiterTest {
+
+  private static final String TX_HASH = "0x" + "cd".repeat(32);
+  private static final String NEXT_HASH = "0x" + "ab".repeat(32);
+  private static final String REVERTED_HASH = "0x" + "ef".repeat(32);
+
+  private final AtomicInteger failures = new AtomicInteger();
+  private final StubWeb3jService service = new StubWeb3jService(this::handle);
+  private final Web3j web3j = Web3j.build(service);
+  // the heads are pushed by the tests, a long poll interval keeps the poll loop out of the way
+  private final ReceiptWaiter waiter = new ReceiptWaiter(web3j, ReceiptWaiterConfig.builder()
+      .minPollMillis(60_000)
+      .build());
+
+  @AfterEach
+  void shutdown() {
+    waiter.close();
+    web3j.shutdown();
+  }
+
+  @Test
+  void completesOnAPushedHead() throws Exception {
+    CompletableFuture<TransactionReceipt> receipt = waiter.waitForReceipt(TX_HASH);
+    waiter.onNewBlock(10);
+
+    assertEquals(TX_HASH, receipt.get(5, TimeUnit.SECONDS).getTransactionHash());
+    assertEquals(0, waiter.getPending());
+  }
+
+  @Test
+  void failsOnARevertedReceipt() {
+    CompletableFuture<TransactionReceipt> receipt = waiter.waitForReceipt(REVERTED_HASH);
+    waiter.onNewBlock(10);
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> receipt.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(TransactionRevertedException.class, e.getCause());
+  }
+
+  @Test
+  void refetchesTheSameHeadAfterAFailedFetch() throws Exception {
+    failures.set(1);
+    CompletableFuture<TransactionReceipt> receipt = waiter.waitForReceipt(TX_HASH);
+    waiter.onNewBlock(10);
+    waiter.onNewBlock(10);
+
+    assertEquals(TX_HASH, receipt.get(5, TimeUnit.SECONDS).getTransactionHash());
+    assertEquals(List.of("eth_getTransactionReceipt", "eth_getTransactionReceipt"), service.getMethods());
+  }
+
+  @Test
+  void waitsForANewerHeadAfterAFetchedOne() throws Exception {
+    CompletableFuture<TransactionReceipt> first = waiter.waitForReceipt(TX_HASH);
+    waiter.onNewBlock(10);
+    first.get(5, TimeUnit.SECONDS);
+
+    CompletableFuture<TransactionReceipt> next = waiter.waitForReceipt(NEXT_HASH);
+    waiter.onNewBlock(10);
+    waiter.onNewBlock(11);
+
+    assertEquals(NEXT_HASH, next.get(5, TimeUnit.SECONDS).getTransactionHash());
+    assertEquals(List.of(1, 1), service.getBatchSizes());
+  }
+
+  private Object handle(Request<?, ?> request) throws IOException {
+    if (!"eth_getTransactionReceipt".equals(request.getMethod())) {
+      throw new IOException("unexpected " + request.getMethod());
+    }
+    if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+      throw new IOException("connection reset");
+    }
+    String hash = (String) request.getParams().get(0);
+    TransactionReceipt receipt = new TransactionReceipt();
+    receipt.setTransactionHash(hash);
+    receipt.setBlockNumber("0xa");
+    receipt.setStatus(REVERTED_HASH.equals(hash) ? "0x0" : "0x1");
+    return receipt;
+  }
+}
@@ -0,0 +1,289 @@
+package org.apro.sdk.tx;
+
+import org.apro.sdk.StubWeb3jService;
+import org.apro.sdk.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TxOutboxTest {
+
+  private static final String FROM = TestFixtures.credentials(0).getAddress();
+  private static final int REGION_BYTES = 4096;
+  // about a quarter of a region, so that a few records roll over to the next one
+  private static final int TX_LENGTH = 1000;
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void replaysTheTransactionsWithoutAFinalStatus() throws IOException {
+    Path path = dir.resolve("outbox.log");
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      OutboxEntry confirmed = outbox.record(FROM, BigInteger.ONE, "m1", signedTx(1)).join();
+      OutboxEntry broadcast = outbox.record(FROM, BigInteger.TWO, "m2", signedTx(2)).join();
+      outbox.record(FROM, BigInteger.valueOf(3), null, signedTx(3)).join();
+      outbox.updateStatus(confirmed.getTxHash(), OutboxStatus.CONFIRMED).join();
+      outbox.updateStatus(broadcast.getTxHash(), OutboxStatus.BROADCAST).join();
+    }
+
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      List<OutboxEntry> pending = outbox.getPending();
+      assertEquals(List.of(2L, 3L), nonces(pending));
+      assertEquals(OutboxStatus.BROADCAST, pending.get(0).getStatus());
+      assertEquals("m2", pending.get(0).getMessageId());
+      assertEquals(OutboxStatus.SIGNED, pending.get(1).getStatus());
+      assertEquals("", pending.get(1).getMessageId());
+      assertEquals(FROM.toLowerCase(), pending.get(1).getFrom());
+      assertArrayEquals(signedTx(3), pending.get(1).getSignedTx());
+    }
+  }
+
+  @Test
+  void dropsATornTail() throws IOException {
+    Path path = dir.resolve("outbox.log");
+    long torn;
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      outbox.record(FROM, BigInteger.ONE, "m1", signedTx(1)).join();
+      torn = outbox.record(FROM, BigInteger.TWO, "m2", signedTx(2)).join().getPosition();
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.truncate(torn + 100);
+    }
+
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      assertEquals(List.of(1L), nonces(outbox.getPending()));
+      outbox.record(FROM, BigInteger.valueOf(3), "m3", signedTx(3)).join();
+    }
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      assertEquals(List.of(1L, 3L), nonces(outbox.getPending()));
+    }
+  }
+
+  @Test
+  void endsTheReplayAtACorruptRecordAndClearsTheRecordsBehindIt() throws IOException {
+    Path path = dir.resolve("outbox.log");
+    long corrupt;
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      outbox.record(FROM, BigInteger.ONE, "m1", signedTx(1)).join();
+      corrupt = outbox.record(FROM, BigInteger.TWO, "m2", signedTx(2)).join().getPosition();
+      outbox.record(FROM, BigInteger.valueOf(3), "m3", signedTx(3)).join();
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      // a byte of the signed transaction, past the length and the crc32
+      channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xff}), corrupt + 200);
+    }
+
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      assertEquals(List.of(1L), nonces(outbox.getPending()));
+      outbox.record(FROM, BigInteger.valueOf(4), "m4", signedTx(4)).join();
+    }
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      // the record after the corrupt one stays cleared
+      assertEquals(List.of(1L, 4L), nonces(outbox.getPending()));
+    }
+  }
+
+  @Test
+  void replaysRecordsAcrossRegions() throws IOException {
+    Path path = dir.resolve("outbox.log");
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      for (int i = 1; i <= 10; i++) {
+        outbox.record(FROM, BigInteger.valueOf(i), "m" + i, signedTx(i)).join();
+      }
+    }
+    assertTrue(Files.size(path) >= 3L * REGION_BYTES);
+
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      List<OutboxEntry> pending = outbox.getPending();
+      assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), nonces(pending));
+      for (OutboxEntry entry : pending) {
+        assertArrayEquals(signedTx(entry.getNonce().intValue()), entry.getSignedTx());
+      }
+    }
+  }
+
+  @Test
+  void rollsToAJournalOfThePendingTransactionsOnceTheFirstRegionIsSettled() throws IOException {
+    Path path = dir.resolve("outbox.log");
+    OutboxEntry rolled;
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      for (int i = 1; i <= 3; i++) {
+        OutboxEntry entry = outbox.record(FROM, BigInteger.valueOf(i), "m" + i, signedTx(i)).join();
+        outbox.updateStatus(entry.getTxHash(), OutboxStatus.CONFIRMED).join();
+      }
+      // does not fit the first region
+      rolled = outbox.record(FROM, BigInteger.valueOf(4), "m4", signedTx(4)).join();
+
+      assertTrue(rolled.getPosition() < REGION_BYTES);
+      assertTrue(Files.size(path) < REGION_BYTES);
+      assertFalse(Files.exists(dir.resolve("outbox.log.compact")));
+
+      outbox.updateStatus(rolled.getTxHash(), OutboxStatus.BROADCAST).join();
+      outbox.record(FROM, BigInteger.valueOf(5), "m5", signedTx(5)).join();
+    }
+
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      List<OutboxEntry> pending = outbox.getPending();
+      assertEquals(List.of(4L, 5L), nonces(pending));
+      assertEquals(OutboxStatus.BROADCAST, pending.get(0).getStatus());
+      assertArrayEquals(signedTx(4), pending.get(0).getSignedTx());
+    }
+  }
+
+  @Test
+  void compactsAroundATransactionStuckInTheFirstRegion() throws IOException {
+    Path path = dir.resolve("outbox.log");
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      outbox.record(FROM, BigInteger.ONE, "m1", signedTx(1)).join();
+      for (int i = 2; i <= 20; i++) {
+        OutboxEntry entry = outbox.record(FROM, BigInteger.valueOf(i), "m" + i, signedTx(i)).join();
+        outbox.updateStatus(entry.getTxHash(), OutboxStatus.CONFIRMED).join();
+      }
+      assertTrue(Files.size(path) <= 2L * REGION_BYTES);
+    }
+
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      assertEquals(List.of(1L), nonces(outbox.getPending()));
+      assertArrayEquals(signedTx(1), outbox.getPending().get(0).getSignedTx());
+    }
+  }
+
+  @Test
+  void compactsAReplayedJournal() throws IOException {
+    Path path = dir.resolve("outbox.log");
+    // never compacts while there is a pending transaction
+    TxOutboxConfig appendOnly = TxOutboxConfig.builder().regionBytes(REGION_BYTES).compactLiveRatio(0).build();
+    try (TxOutbox outbox = TxOutbox.open(path, appendOnly)) {
+      outbox.record(FROM, BigInteger.ONE, "m1", signedTx(1)).join();
+      for (int i = 2; i <= 10; i++) {
+        OutboxEntry entry = outbox.record(FROM, BigInteger.valueOf(i), "m" + i, signedTx(i)).join();
+        outbox.updateStatus(entry.getTxHash(), OutboxStatus.CONFIRMED).join();
+      }
+    }
+    assertTrue(Files.size(path) >= 3L * REGION_BYTES);
+
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      assertTrue(Files.size(path) < REGION_BYTES);
+      assertEquals(List.of(1L), nonces(outbox.getPending()));
+      outbox.record(FROM, BigInteger.TWO, "m2", signedTx(2)).join();
+    }
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      assertEquals(List.of(1L, 2L), nonces(outbox.getPending()));
+    }
+  }
+
+  @Test
+  void recordsTheReceiptOfATransactionMinedBeforeItsNonceWasTooLow() throws IOException {
+    AtomicInteger receiptCalls = new AtomicInteger();
+    Web3j web3j = Web3j.build(new StubWeb3jService(request -> {
+      if ("eth_sendRawTransaction".equals(request.getMethod())) {
+        return error("nonce too low");
+      }
+      // no receipt when reconcile fetches them, mined right after
+      return receiptCalls.getAndIncrement() == 0 ? null : receipt("0x1");
+    }));
+    try (TxOutbox outbox = TxOutbox.open(dir.resolve("outbox.log"), config(REGION_BYTES))) {
+      OutboxEntry entry = outbox.record(FROM, BigInteger.ONE, "m1", signedTx(1)).join();
+
+      assertTrue(outbox.reconcile(web3j).isEmpty());
+      assertEquals(OutboxStatus.CONFIRMED, entry.getStatus());
+      assertTrue(outbox.getPending().isEmpty());
+    }
+  }
+
+  @Test
+  void dropsATransactionWithoutAReceiptWhoseNonceIsTooLow() throws IOException {
+    Web3j web3j = Web3j.build(new StubWeb3jService(
+        request -> "eth_sendRawTransaction".equals(request.getMethod()) ? error("nonce too low") : null));
+    try (TxOutbox outbox = TxOutbox.open(dir.resolve("outbox.log"), config(REGION_BYTES))) {
+      OutboxEntry entry = outbox.record(FROM, BigInteger.ONE, "m1", signedTx(1)).join();
+
+      outbox.broadcast(entry, web3j);
+      assertEquals(OutboxStatus.DROPPED, entry.getStatus());
+      assertTrue(outbox.getPending().isEmpty());
+    }
+  }
+
+  @Test
+  void refusesAJournalOfAnotherFormatOrRegionSize() throws IOException {
+    Path path = dir.resolve("outbox.log");
+    try (TxOutbox outbox = TxOutbox.open(path, config(REGION_BYTES))) {
+      outbox.record(FROM, BigInteger.ONE, "m1", signedTx(1)).join();
+    }
+    assertThrows(IllegalArgumentException.class, () -> TxOutbox.open(path, config(2 * REGION_BYTES)));
+
+    Path foreign = dir.resolve("foreign.log");
+    Files.write(foreign, "not a tx outbox journal".getBytes(StandardCharsets.UTF_8));
+    assertThrows(IOException.class, () -> TxOutbox.open(foreign, config(REGION_BYTES)));
+  }
+
+  @Test
+  void keepsNothingPendingWhenTheAppendIsRefused() throws IOException {
+    try (TxOutbox outbox = TxOutbox.open(dir.resolve("outbox.log"), config(REGION_BYTES))) {
+      byte[] oversized = new byte[REGION_BYTES];
+
+      assertThrows(IllegalArgumentException.class, () -> outbox.record(FROM, BigInteger.ONE, "m1", oversized));
+      assertTrue(outbox.getPending().isEmpty());
+    }
+  }
+
+  @Test
+  void keepsTheStatusOnTransientBroadcastErrors() {
+    assertEquals(OutboxStatus.BROADCAST, TxOutbox.statusOf(OutboxStatus.SIGNED, null));
+    assertEquals(OutboxStatus.BROADCAST, TxOutbox.statusOf(OutboxStatus.SIGNED, error("already known")));
+    assertEquals(OutboxStatus.SIGNED, TxOutbox.statusOf(OutboxStatus.SIGNED, error("transaction underpriced")));
+    assertEquals(OutboxStatus.SIGNED,
+        TxOutbox.statusOf(OutboxStatus.SIGNED, error("replacement transaction underpriced")));
+    assertEquals(OutboxStatus.BROADCAST, TxOutbox.statusOf(OutboxStatus.BROADCAST, error("txpool is full")));
+    assertEquals(OutboxStatus.DROPPED, TxOutbox.statusOf(OutboxStatus.SIGNED, error("nonce too low")));
+    assertEquals(OutboxStatus.REJECTED, TxOutbox.statusOf(OutboxStatus.SIGNED, error("invalid sender")));
+    assertEquals(OutboxStatus.REJECTED, TxOutbox.statusOf(OutboxStatus.SIGNED, error("intrinsic gas too low")));
+  }
+
+  private static TxOutboxConfig config(int regionBytes) {
+    return TxOutboxConfig.builder().regionBytes(regionBytes).build();
+  }
+
+  // a distinct transaction, and so a distinct hash, per seed
+  private static byte[] signedTx(int seed) {
+    byte[] signedTx = new byte[TX_LENGTH];
+    Arrays.fill(signedTx, (byte) seed);
+    return signedTx;
+  }
+
+  private static Response.Error error(String message) {
+    return new Response.Error(-32000, message);
+  }
+
+  private static TransactionReceipt receipt(String status) {
+    TransactionReceipt receipt = new TransactionReceipt();
+    receipt.setStatus(status);
+    return receipt;
+  }
+
+  private static List<Long> nonces(List<OutboxEntry> entries) {
+    return entries.stream().map(entry -> entry.getNonce().longValue()).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,173 @@
+package org.apro.sdk.tx;
+
+import org.apro.sdk.AiAgentCli;
+import org.apro.sdk.StubWeb3jService;
+import org.apro.sdk.TestFixtures;
+import org.apro.sdk.config.ChainConfig;
+import org.apro.sdk.params.VerifyParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class VerifyPipelineTest {
+
+  private static final String PROXY = "0x" + "11".repeat(20);
+  private static final String TX_HASH = "0x" + "cd".repeat(32);
+
+  private final CountDownLatch broadcastGate = new CountDownLatch(1);
+  private volatile boolean gated;
+  private AiAgentCli cli;
+
+  @AfterEach
+  void shutdown() {
+    broadcastGate.countDown();
+    if (cli != null) {
+      cli.close();
+    }
+  }
+
+  @Test
+  void completesEverySubmittedMessageOnClose() throws Exception {
+    VerifyPipeline pipeline = pipeline(VerifyPipelineConfig.builder());
+    List<CompletableFuture<EthSendTransaction>> futures = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      futures.add(pipeline.submit(verifyParams()));
+    }
+    pipeline.close();
+
+    for (CompletableFuture<EthSendTransaction> future : futures) {
+      assertEquals(TX_HASH, future.get(5, TimeUnit.SECONDS).getTransactionHash());
+    }
+    assertEquals(20, pipeline.getMetrics().getBroadcast());
+    assertThrows(IllegalStateException.class, () -> pipeline.submit(verifyParams()));
+  }
+
+  @Test
+  void neverStrandsAMessageSubmittedWhileClosing() throws Exception {
+    VerifyPipeline pipeline = pipeline(VerifyPipelineConfig.builder());
+    ExecutorService producers = Executors.newFixedThreadPool(4);
+    List<CompletableFuture<EthSendTransaction>> futures = new ArrayList<>();
+    CountDownLatch started = new CountDownLatch(4);
+    List<Future<?>> running = new ArrayList<>();
+    for (int p = 0; p < 4; p++) {
+      running.add(producers.submit(() -> {
+        started.countDown();
+        while (true) {
+          try {
+            CompletableFuture<EthSendTransaction> future = pipeline.submit(verifyParams());
+            synchronized (futures) {
+              futures.add(future);
+            }
+          } catch (IllegalStateException e) {
+            return null;
+          }
+        }
+      }));
+    }
+    started.await();
+    Thread.sleep(50);
+    pipeline.close();
+    for (Future<?> producer : running) {
+      producer.get(5, TimeUnit.SECONDS);
+    }
+    producers.shutdown();
+
+    synchronized (futures) {
+      assertFalse(futures.isEmpty());
+      for (CompletableFuture<EthSendTransaction> future : futures) {
+        try {
+          future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+          assertInstanceOf(IllegalStateException.class, e.getCause());
+        } catch (TimeoutException e) {
+          fail("a message submitted while closing was never completed");
+        }
+      }
+    }
+  }
+
+  @Test
+  void failsTheTaskInHandWhenTheDispatcherIsInterrupted() throws Exception {
+    gated = true;
+    VerifyPipeline pipeline = pipeline(VerifyPipelineConfig.builder().maxInFlight(1));
+    CompletableFuture<EthSendTransaction> first = pipeline.submit(verifyParams());
+    CompletableFuture<EthSendTransaction> second = pipeline.submit(verifyParams());
+    CompletableFuture<EthSendTransaction> third = pipeline.submit(verifyParams());
+
+    Thread dispatcher = waitForDispatcherBlocked();
+    dispatcher.interrupt();
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(InterruptedException.class, e.getCause());
+    e = assertThrows(ExecutionException.class, () -> third.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(InterruptedException.class, e.getCause());
+    assertThrows(IllegalStateException.class, () -> pipeline.submit(verifyParams()));
+
+    broadcastGate.countDown();
+    assertEquals(TX_HASH, first.get(5, TimeUnit.SECONDS).getTransactionHash());
+    pipeline.close();
+  }
+
+  private VerifyPipeline pipeline(VerifyPipelineConfig.VerifyPipelineConfigBuilder config) {
+    StubWeb3jService node = new StubWeb3jService(request -> {
+      switch (request.getMethod()) {
+        case "eth_getTransactionCount":
+          return "0x0";
+        case "eth_sendRawTransaction":
+          if (gated) {
+            try {
+              broadcastGate.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          return TX_HASH;
+        default:
+          throw new UnsupportedOperationException(request.getMethod());
+      }
+    });
+    ChainConfig chainConfig = new ChainConfig(null, TestFixtures.CHAIN_ID, PROXY);
+    cli = new AiAgentCli(chainConfig, node);
+    return new VerifyPipeline(cli, TestFixtures.credentials(0), PROXY, new NonceManager(cli.getWeb3j()),
+        config.gasPrice(BigInteger.ONE).gasLimit(BigInteger.valueOf(1_000_000)).build());
+  }
+
+  private static VerifyParams verifyParams() {
+    return TestFixtures.verifyParams(TestFixtures.data(64), 1).build();
+  }
+
+  /**
+   * the dispatcher waiting for an in-flight permit, with the second task in hand
+   */
+  private static Thread waitForDispatcherBlocked() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (System.currentTimeMillis() < deadline) {
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        if ("verify-dispatcher".equals(thread.getName()) && thread.getState() == Thread.State.WAITING) {
+          return thread;
+        }
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("the dispatcher never blocked");
+  }
+}
@@ -0,0 +1,82 @@
+package org.apro.sdk.util;
+
+import org.apro.sdk.StubWeb3jService;
+import org.apro.sdk.metrics.Instrumentation;
+import org.apro.sdk.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Response;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChainUtilAsyncTimingTest {
+
+  private static final String TO = "0x" + "11".repeat(20);
+
+  private final List<String> timings = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void install() {
+    Metrics.setInstrumentation(new Instrumentation() {
+      @Override
+      public void onTiming(String name, long elapsedNanos, boolean success) {
+        timings.add(name + " " + success);
+      }
+    });
+  }
+
+  @AfterEach
+  void uninstall() {
+    Metrics.setInstrumentation(null);
+  }
+
+  @Test
+  void timesTheAsyncCallsOnceTheyComplete() {
+    Web3j web3j = Web3j.build(new StubWeb3jService(request -> {
+      switch (request.getMethod()) {
+        case "eth_sendRawTransaction":
+          return "0x" + "ab".repeat(32);
+        case "eth_getTransactionCount":
+          return "0x7";
+        default:
+          return FunctionEncoder.encodeConstructor(Collections.singletonList(new Uint256(42)));
+      }
+    }));
+    Function function = new Function("value", Collections.emptyList(),
+        Collections.singletonList(new TypeReference<Uint256>() {
+        }));
+
+    ChainUtil.broadcastAsync(new byte[] {1, 2, 3}, web3j, null).join();
+    assertEquals(BigInteger.valueOf(7), ChainUtil.getNonceAsync(TO, web3j, null).join());
+    assertEquals(BigInteger.valueOf(42), ChainUtil.getResultAsync(web3j, TO, function, null).join().get(0).getValue());
+
+    assertEquals(List.of(
+        Instrumentation.BROADCAST + " true",
+        Instrumentation.GET_NONCE + " true",
+        Instrumentation.GET_RESULT + " true"), timings);
+  }
+
+  @Test
+  void timesAFailedAsyncCall() {
+    Web3j web3j = Web3j.build(new StubWeb3jService(request -> new Response.Error(-32000, "nonce too low")));
+
+    ChainUtil.broadcastAsync(new byte[] {1, 2, 3}, web3j, null).join();
+    assertThrows(CompletionException.class,
+        () -> ChainUtil.getResultAsync(web3j, TO, "0x12345678", Collections.emptyList(), null).join());
+
+    assertEquals(List.of(Instrumentation.BROADCAST + " false", Instrumentation.GET_RESULT + " false"), timings);
+  }
+}
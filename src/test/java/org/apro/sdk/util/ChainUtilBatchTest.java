@@ -0,0 +1,132 @@
+package org.apro.sdk.util;
+
+import org.apro.sdk.StubWeb3jService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChainUtilBatchTest {
+
+  private Web3j web3j;
+
+  @AfterEach
+  void shutdown() {
+    if (web3j != null) {
+      web3j.shutdown();
+    }
+  }
+
+  @Test
+  void splitsCallsIntoBatchesOfMaxBatchSize() throws IOException {
+    StubWeb3jService stub = new StubWeb3jService(ChainUtilBatchTest::indexOfTarget);
+    web3j = Web3j.build(stub);
+
+    List<List<Type>> results = ChainUtil.getResults(web3j, targets(25), functions(25), 10);
+
+    assertEquals(Arrays.asList(10, 10, 5), stub.getBatchSizes());
+    assertIndexes(results, 25);
+  }
+
+  @Test
+  void sendsAllCallsInOneBatchWithoutMaxBatchSize() throws IOException {
+    StubWeb3jService stub = new StubWeb3jService(ChainUtilBatchTest::indexOfTarget);
+    web3j = Web3j.build(stub);
+
+    ChainUtil.getResults(web3j, targets(7), functions(7), 0);
+
+    assertEquals(Collections.singletonList(7), stub.getBatchSizes());
+  }
+
+  @Test
+  void matchesOutOfOrderResponsesById() throws IOException {
+    StubWeb3jService stub = new StubWeb3jService(ChainUtilBatchTest::indexOfTarget)
+        .withBatchTransformer(responses -> {
+          List<Response<?>> reversed = new ArrayList<>(responses);
+          Collections.reverse(reversed);
+          return reversed;
+        });
+    web3j = Web3j.build(stub);
+
+    assertIndexes(ChainUtil.getResults(web3j, targets(12), functions(12), 5), 12);
+  }
+
+  @Test
+  void failsOnMissingResponse() {
+    StubWeb3jService stub = new StubWeb3jService(ChainUtilBatchTest::indexOfTarget)
+        .withBatchTransformer(responses -> responses.subList(1, responses.size()));
+    web3j = Web3j.build(stub);
+
+    RuntimeException e = assertThrows(RuntimeException.class,
+        () -> ChainUtil.getResults(web3j, targets(4), functions(4), 0));
+    assertTrue(e.getMessage().startsWith("missing batch responses"), e.getMessage());
+  }
+
+  @Test
+  void failsOnErrorResponse() {
+    StubWeb3jService stub = new StubWeb3jService(request -> {
+      Object result = indexOfTarget(request);
+      return result.equals(encode(2)) ? new Response.Error(3, "execution reverted") : result;
+    });
+    web3j = Web3j.build(stub);
+
+    RuntimeException e = assertThrows(RuntimeException.class,
+        () -> ChainUtil.getResults(web3j, targets(4), functions(4), 0));
+    assertEquals("execution reverted", e.getMessage());
+  }
+
+  /**
+   * answers an eth_call with the index encoded in the last bytes of its target address
+   */
+  static Object indexOfTarget(Request<?, ?> request) {
+    Transaction call = (Transaction) request.getParams().get(0);
+    return encode(Numeric.toBigInt(call.getTo()).intValueExact());
+  }
+
+  static List<String> targets(int count) {
+    List<String> targets = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      targets.add(Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(i), 40));
+    }
+    return targets;
+  }
+
+  private static List<Function> functions(int count) {
+    List<Function> functions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      functions.add(new Function("value", Collections.emptyList(),
+          Collections.singletonList(new TypeReference<Uint256>() {})));
+    }
+    return functions;
+  }
+
+  private static String encode(int value) {
+    return "0x" + FunctionEncoder.encodeConstructor(Collections.singletonList(new Uint256(value)));
+  }
+
+  private static void assertIndexes(List<List<Type>> results, int count) {
+    assertEquals(count, results.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(BigInteger.valueOf(i), results.get(i).get(0).getValue());
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package org.apro.sdk.util;
+
+import org.apro.sdk.Multicall3Node;
+import org.apro.sdk.StubWeb3jService;
+import org.apro.sdk.config.Constants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChainUtilMulticallTest {
+
+  private static final String MULTICALL = Constants.MULTICALL3_ADDRESS;
+
+  private Web3j web3j;
+  private int failedIndex = -1;
+
+  @AfterEach
+  void shutdown() {
+    if (web3j != null) {
+      web3j.shutdown();
+    }
+  }
+
+  @Test
+  void foldsCallsIntoAggregatesOfMaxBatchSize() throws IOException {
+    StubWeb3jService stub = new StubWeb3jService(this::aggregate3);
+    web3j = Web3j.build(stub);
+
+    List<List<Type>> results = getResultsMulticall(25, 10);
+
+    // three aggregate3 calls, sent in one JSON-RPC batch
+    assertEquals(Collections.singletonList(3), stub.getBatchSizes());
+    assertEquals(25, results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(BigInteger.valueOf(i), results.get(i).get(0).getValue());
+    }
+  }
+
+  @Test
+  void failsOnAFailedCall() {
+    failedIndex = 13;
+    web3j = Web3j.build(new StubWeb3jService(this::aggregate3));
+
+    RuntimeException e = assertThrows(RuntimeException.class, () -> getResultsMulticall(25, 10));
+    assertEquals("call 13 to " + ChainUtilBatchTest.targets(25).get(13) + " reverted", e.getMessage());
+  }
+
+  @Test
+  void failsOnAnErrorResponse() {
+    web3j = Web3j.build(new StubWeb3jService(request -> new Response.Error(-32000, "header not found")));
+
+    RuntimeException e = assertThrows(RuntimeException.class, () -> getResultsMulticall(4, 0));
+    assertEquals("header not found", e.getMessage());
+  }
+
+  private List<List<Type>> getResultsMulticall(int count, int maxBatchSize) throws IOException {
+    Function function = new Function("value", Collections.emptyList(),
+        Collections.singletonList(new TypeReference<Uint256>() {}));
+    List<String> data = Collections.nCopies(count, FunctionEncoder.encode(function));
+    List<List<TypeReference<Type>>> outputs = new ArrayList<>(Collections.nCopies(count,
+        function.getOutputParameters()));
+    return ChainUtil.getResultsMulticall(web3j, MULTICALL, ChainUtilBatchTest.targets(count), data, outputs,
+        maxBatchSize);
+  }
+
+  /**
+   * answers every folded call with the index encoded in its target address, see ChainUtilBatchTest
+   */
+  private Object aggregate3(Request<?, ?> request) {
+    Transaction call = (Transaction) request.getParams().get(0);
+    assertEquals(MULTICALL.toLowerCase(), call.getTo().toLowerCase());
+    return Multicall3Node.respond(call.getData(), (target, calldata) -> {
+      int index = Numeric.toBigInt(target).intValueExact();
+      return index == failedIndex ? null
+          : FunctionEncoder.encodeConstructor(Collections.singletonList(new Uint256(index)));
+    });
+  }
+}
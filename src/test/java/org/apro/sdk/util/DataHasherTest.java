@@ -0,0 +1,86 @@
+package org.apro.sdk.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataHasherTest {
+
+  @TempDir
+  Path dir;
+
+  // around the 136 byte keccak256 block and the 64 KiB stream buffer
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 135, 136, 137, 65_536, 200_003})
+  void hashesAsHashSha3(int size) throws IOException {
+    byte[] data = data(size);
+    String expected = Numeric.toHexString(Hash.sha3(data));
+
+    assertEquals(expected, DataHasher.hex(data));
+    assertEquals(expected, DataHasher.hex(ByteBuffer.wrap(data)));
+    assertEquals(expected, DataHasher.hex(ByteBuffer.allocateDirect(size).put(data).flip()));
+    assertEquals(expected, DataHasher.hex(new ByteArrayInputStream(data)));
+    Path file = Files.write(dir.resolve("payload-" + size + ".bin"), data);
+    assertEquals(expected, DataHasher.hex(file));
+  }
+
+  @Test
+  void hashesThePartsAsTheWhole() throws IOException {
+    byte[] data = data(10_000);
+    ByteBuffer tail = ByteBuffer.wrap(data, 6_000, 4_000);
+
+    byte[] digest = new DataHasher()
+        .update(Arrays.copyOfRange(data, 0, 1_000))
+        .update(data, 1_000, 2_000)
+        .update(new ByteArrayInputStream(data, 3_000, 3_000))
+        .update(tail)
+        .digest();
+
+    assertArrayEquals(Hash.sha3(data), digest);
+    // the position of the buffer is left unchanged
+    assertEquals(6_000, tail.position());
+  }
+
+  @Test
+  void hashesARegionOfAFile() throws IOException {
+    byte[] data = data(50_000);
+    Path file = Files.write(dir.resolve("payload.bin"), data);
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      assertEquals(Numeric.toHexString(Hash.sha3(Arrays.copyOfRange(data, 1_234, 41_234))),
+          DataHasher.hex(channel, 1_234, 40_000));
+      assertThrows(IllegalArgumentException.class, () -> DataHasher.hex(channel, 10_001, 40_000));
+    }
+  }
+
+  @Test
+  void startsOverAfterADigest() {
+    DataHasher hasher = new DataHasher().update(data(100));
+    hasher.digest();
+
+    assertArrayEquals(Hash.sha3(data(7)), hasher.update(data(7)).digest());
+  }
+
+  private static byte[] data(int size) {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+    return data;
+  }
+}